@@ -0,0 +1,630 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
+import com.skyisland.questmanager.scheduling.Tickable;
+
+/**
+ * Keeps track of temporary changes made to blocks in the world, and puts them back.
+ * <p>
+ * Before a block is changed, its type and data are {@link #record(Block, double) recorded} and
+ * appended to a log on disk. When the change expires or is {@link #restore(long) restored}, a
+ * closing entry is appended. Changes still open in the log when the plugin starts, say after a
+ * crash, are all put back. The log is rewritten with only the open changes when it starts and
+ * whenever enough closed ones have built up.
+ * </p>
+ * <p>
+ * Due changes are grouped by chunk, and at most {@link #DEFAULT_BLOCK_BUDGET} blocks are put back
+ * each tick. Changes in chunks that aren't loaded wait until the chunk loads.
+ * </p>
+ */
+public class BlockJournal implements Listener, Tickable {
+	
+	/**
+	 * How many blocks may be put back each tick by default
+	 */
+	public static final int DEFAULT_BLOCK_BUDGET = 32;
+	
+	/**
+	 * Closed entries allowed in the log before it's rewritten
+	 */
+	private static final int COMPACT_THRESHOLD = 4096;
+	
+	private static final byte RECORD_CHANGE = 1;
+	
+	private static final byte RECORD_RESTORE = 2;
+	
+	private static final String TEMP_EXTENSION = ".tmp";
+	
+	private static final String CORRUPT_EXTENSION = ".corrupt";
+	
+	/**
+	 * A recorded block and what it was before it was changed
+	 */
+	private static final class Change {
+		
+		private final long id;
+		
+		private final UUID world;
+		
+		private final int x, y, z;
+		
+		private final Material type;
+		
+		private final byte data;
+		
+		/**
+		 * System time the change should be put back at, or 0 if it's only put back when restored
+		 */
+		private final long expires;
+		
+		private boolean done;
+		
+		private Change(long id, UUID world, int x, int y, int z, Material type, byte data, long expires) {
+			this.id = id;
+			this.world = world;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.type = type;
+			this.data = data;
+			this.expires = expires;
+			this.done = false;
+		}
+	}
+	
+	/**
+	 * Due changes in one chunk
+	 */
+	private static final class ChunkGroup {
+		
+		private final UUID world;
+		
+		private final int chunkX, chunkZ;
+		
+		private final ArrayDeque<Change> changes;
+		
+		/**
+		 * Whether the group is in the ready queue
+		 */
+		private boolean queued;
+		
+		private ChunkGroup(UUID world, int chunkX, int chunkZ) {
+			this.world = world;
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			this.changes = new ArrayDeque<>();
+			this.queued = false;
+		}
+	}
+	
+	private File file;
+	
+	private DataOutputStream log;
+	
+	private long nextID;
+	
+	/**
+	 * Open changes, by id
+	 */
+	private Map<Long, Change> changes;
+	
+	/**
+	 * Open changes with an expiry time, soonest first
+	 */
+	private PriorityQueue<Change> expiring;
+	
+	/**
+	 * World -> chunk key -> due changes
+	 */
+	private Map<UUID, Map<Long, ChunkGroup>> due;
+	
+	/**
+	 * Groups in loaded chunks, waiting to be put back
+	 */
+	private ArrayDeque<ChunkGroup> ready;
+	
+	private int closedCount;
+	
+	private int blockBudget;
+	
+	/**
+	 * Whether the log may be rewritten. Off if it has entries that couldn't be read
+	 */
+	private boolean canCompact;
+	
+	/**
+	 * Opens the journal kept in the given file. Any changes left open in it are put back
+	 * as their chunks become available.
+	 */
+	public BlockJournal(File file) {
+		this.file = file;
+		this.nextID = 0;
+		this.changes = new LinkedHashMap<>();
+		this.expiring = new PriorityQueue<>((a, b) -> Long.compare(a.expires, b.expires));
+		this.due = new HashMap<>();
+		this.ready = new ArrayDeque<>();
+		this.closedCount = 0;
+		this.blockBudget = DEFAULT_BLOCK_BUDGET;
+		this.canCompact = true;
+		
+		if (replay() || moveAside()) {
+			compact();
+		} else {
+			//couldn't get the unreadable log out of the way, so never write over it
+			canCompact = false;
+			openLog();
+		}
+		
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		BudgetedScheduler.getScheduler().register(this, 1);
+	}
+	
+	public int getBlockBudget() {
+		return blockBudget;
+	}
+	
+	public void setBlockBudget(int blockBudget) {
+		this.blockBudget = Math.max(1, blockBudget);
+	}
+	
+	/**
+	 * @return how many changes haven't been put back yet
+	 */
+	public int getOpenCount() {
+		return changes.size();
+	}
+	
+	/**
+	 * Records the block as it is now, to be put back after the given number of seconds.
+	 * Should be called right before the block is changed.
+	 * @return the id of the change, for {@link #restore(long)}
+	 */
+	public long record(Block block, double seconds) {
+		return record(block, System.currentTimeMillis() + Math.max(1, (long) (seconds * 1000)));
+	}
+	
+	/**
+	 * Records the block as it is now, to be put back only when {@link #restore(long) restored}
+	 * (or when the plugin next starts, if it never is).
+	 * Should be called right before the block is changed.
+	 * @return the id of the change
+	 */
+	public long record(Block block) {
+		return record(block, 0L);
+	}
+	
+	@SuppressWarnings("deprecation")
+	private long record(Block block, long expires) {
+		Change change = new Change(nextID++, block.getWorld().getUID(), block.getX(), block.getY(), block.getZ(),
+				block.getType(), block.getData(), expires);
+		changes.put(change.id, change);
+		if (expires > 0) {
+			expiring.add(change);
+		}
+		
+		if (!openLog()) {
+			return change.id;
+		}
+		
+		try {
+			writeChange(log, change);
+			log.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.warning("Unable to journal block change at "
+					+ change.x + ", " + change.y + ", " + change.z);
+		}
+		
+		return change.id;
+	}
+	
+	/**
+	 * Puts the changed block back right away if its chunk is loaded. Otherwise it's put back
+	 * when the chunk loads. Does nothing if the change was already put back.
+	 */
+	public void restore(long id) {
+		Change change = changes.get(id);
+		if (change == null || change.done) {
+			return;
+		}
+		
+		World world = Bukkit.getWorld(change.world);
+		if (world != null && world.isChunkLoaded(change.x >> 4, change.z >> 4)) {
+			revert(world, change);
+		} else {
+			makeDue(change);
+		}
+	}
+	
+	/**
+	 * Puts back every open change in a loaded chunk right away. Changes in unloaded chunks are
+	 * left in the journal, and put back the next time the plugin starts.
+	 */
+	public void restoreAll() {
+		for (Change change : new ArrayList<>(changes.values())) {
+			World world = Bukkit.getWorld(change.world);
+			if (world != null && world.isChunkLoaded(change.x >> 4, change.z >> 4)) {
+				revert(world, change);
+			}
+		}
+	}
+	
+	/**
+	 * Puts back what it can with {@link #restoreAll()} and closes the log
+	 */
+	public void close() {
+		BudgetedScheduler.getScheduler().unregister(this);
+		HandlerList.unregisterAll(this);
+		restoreAll();
+		
+		if (log == null) {
+			return;
+		}
+		
+		try {
+			log.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		log = null;
+	}
+	
+	@Override
+	public boolean tick() {
+		long now = System.currentTimeMillis();
+		while (!expiring.isEmpty() && expiring.peek().expires <= now) {
+			Change change = expiring.poll();
+			if (!change.done) {
+				makeDue(change);
+			}
+		}
+		
+		int budget = blockBudget;
+		while (budget > 0 && !ready.isEmpty()) {
+			ChunkGroup group = ready.peek();
+			World world = Bukkit.getWorld(group.world);
+			if (world == null || !world.isChunkLoaded(group.chunkX, group.chunkZ)) {
+				//unloaded since it was queued; wait for it to load again
+				ready.poll();
+				group.queued = false;
+				continue;
+			}
+			
+			while (budget > 0 && !group.changes.isEmpty()) {
+				Change change = group.changes.poll();
+				if (!change.done) {
+					revert(world, change);
+					budget--;
+				}
+			}
+			
+			if (group.changes.isEmpty()) {
+				ready.poll();
+				group.queued = false;
+				removeGroup(group);
+			}
+		}
+		
+		if (canCompact && closedCount > COMPACT_THRESHOLD) {
+			compact();
+		}
+		
+		return false;
+	}
+	
+	@EventHandler(priority=EventPriority.MONITOR)
+	public void onChunkLoad(ChunkLoadEvent e) {
+		Map<Long, ChunkGroup> groups = due.get(e.getWorld().getUID());
+		if (groups == null) {
+			return;
+		}
+		
+		ChunkGroup group = groups.get(chunkKey(e.getChunk().getX(), e.getChunk().getZ()));
+		if (group != null && !group.queued) {
+			group.queued = true;
+			ready.add(group);
+		}
+	}
+	
+	@EventHandler(ignoreCancelled=true)
+	public void onChunkUnload(ChunkUnloadEvent e) {
+		//put back what's due here before it goes, rather than waiting for it to load again
+		Map<Long, ChunkGroup> groups = due.get(e.getWorld().getUID());
+		if (groups == null) {
+			return;
+		}
+		
+		ChunkGroup group = groups.get(chunkKey(e.getChunk().getX(), e.getChunk().getZ()));
+		if (group == null) {
+			return;
+		}
+		
+		for (Change change : group.changes) {
+			if (!change.done) {
+				revert(e.getWorld(), change);
+			}
+		}
+		group.changes.clear();
+		if (group.queued) {
+			ready.remove(group);
+			group.queued = false;
+		}
+		removeGroup(group);
+	}
+	
+	private static long chunkKey(int chunkX, int chunkZ) {
+		return (((long) chunkX) << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+	
+	private void makeDue(Change change) {
+		Map<Long, ChunkGroup> groups = due.get(change.world);
+		if (groups == null) {
+			groups = new HashMap<>();
+			due.put(change.world, groups);
+		}
+		
+		int chunkX = change.x >> 4, chunkZ = change.z >> 4;
+		long key = chunkKey(chunkX, chunkZ);
+		ChunkGroup group = groups.get(key);
+		if (group == null) {
+			group = new ChunkGroup(change.world, chunkX, chunkZ);
+			groups.put(key, group);
+		}
+		group.changes.add(change);
+		
+		if (!group.queued) {
+			World world = Bukkit.getWorld(change.world);
+			if (world != null && world.isChunkLoaded(chunkX, chunkZ)) {
+				group.queued = true;
+				ready.add(group);
+			}
+		}
+	}
+	
+	private void removeGroup(ChunkGroup group) {
+		Map<Long, ChunkGroup> groups = due.get(group.world);
+		if (groups == null) {
+			return;
+		}
+		
+		groups.remove(chunkKey(group.chunkX, group.chunkZ));
+		if (groups.isEmpty()) {
+			due.remove(group.world);
+		}
+	}
+	
+	@SuppressWarnings("deprecation")
+	private void revert(World world, Change change) {
+		Block block = world.getBlockAt(change.x, change.y, change.z);
+		block.setType(change.type);
+		block.setData(change.data);
+		
+		change.done = true;
+		changes.remove(change.id);
+		closedCount++;
+		
+		if (!openLog()) {
+			return;
+		}
+		
+		try {
+			log.writeByte(RECORD_RESTORE);
+			log.writeLong(change.id);
+			log.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.warning("Unable to journal block restore at "
+					+ change.x + ", " + change.y + ", " + change.z);
+		}
+	}
+	
+	@SuppressWarnings("deprecation")
+	private static void writeChange(DataOutputStream out, Change change) throws IOException {
+		out.writeByte(RECORD_CHANGE);
+		out.writeLong(change.id);
+		out.writeLong(change.world.getMostSignificantBits());
+		out.writeLong(change.world.getLeastSignificantBits());
+		out.writeInt(change.x);
+		out.writeInt(change.y);
+		out.writeInt(change.z);
+		out.writeShort(change.type.getId());
+		out.writeByte(change.data);
+		out.writeLong(change.expires);
+	}
+	
+	/**
+	 * Reads the log, keeping every change that was never closed. Everything kept is due right away,
+	 * since whatever was waiting on it didn't survive the restart.
+	 * @return false if the log couldn't be read to the end
+	 */
+	@SuppressWarnings("deprecation")
+	private boolean replay() {
+		if (!file.exists()) {
+			return true;
+		}
+		
+		boolean complete = true;
+		Map<Long, Change> open = new LinkedHashMap<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (true) {
+				byte kind;
+				try {
+					kind = in.readByte();
+				} catch (EOFException e) {
+					break;
+				}
+				
+				if (kind == RECORD_CHANGE) {
+					long id = in.readLong();
+					UUID world = new UUID(in.readLong(), in.readLong());
+					int x = in.readInt(), y = in.readInt(), z = in.readInt();
+					Material type = Material.getMaterial(in.readShort());
+					byte data = in.readByte();
+					long expires = in.readLong();
+					if (type != null) {
+						open.put(id, new Change(id, world, x, y, z, type, data, expires));
+					}
+				} else if (kind == RECORD_RESTORE) {
+					open.remove(in.readLong());
+				} else {
+					QuestManagerPlugin.logger.warning("Block journal " + file.getName()
+							+ " is corrupt; stopping replay early");
+					complete = false;
+					break;
+				}
+			}
+		} catch (EOFException e) {
+			//last entry was cut off mid-write
+			QuestManagerPlugin.logger.warning("Block journal " + file.getName() + " ended partway through an entry");
+			complete = false;
+		} catch (IOException e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.warning("Unable to read block journal " + file.getName());
+			complete = false;
+		}
+		
+		for (Change change : open.values()) {
+			Change replayed = new Change(nextID++, change.world, change.x, change.y, change.z,
+					change.type, change.data, 0L);
+			changes.put(replayed.id, replayed);
+			makeDue(replayed);
+		}
+		
+		if (!open.isEmpty()) {
+			QuestManagerPlugin.logger.info("Putting back " + open.size() + " block changes left over from last run");
+		}
+		
+		return complete;
+	}
+	
+	/**
+	 * Moves the log to a backup beside it, so a new one can be started without losing it
+	 * @return whether the log was moved
+	 */
+	private boolean moveAside() {
+		File backup = new File(file.getPath() + CORRUPT_EXTENSION);
+		try {
+			Files.move(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			QuestManagerPlugin.logger.warning("Moved block journal " + file.getName() + " to " + backup.getName()
+					+ ". Changes after the unreadable entry will need to be put back by hand.");
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.severe("Unable to move block journal " + file.getName() + " aside");
+			return false;
+		}
+	}
+	
+	/**
+	 * Rewrites the log with only the open changes, and reopens it for appending.
+	 * If the rewrite fails, the old log is kept and appended to instead.
+	 */
+	private void compact() {
+		if (file.getParentFile() != null && !file.getParentFile().exists()) {
+			file.getParentFile().mkdirs();
+		}
+		
+		File temp = new File(file.getPath() + TEMP_EXTENSION);
+		boolean rewritten = false;
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				for (Change change : changes.values()) {
+					writeChange(out, change);
+				}
+			}
+			
+			//everything before this point is in the temp file, so nothing written to the old log is lost
+			if (log != null) {
+				DataOutputStream old = log;
+				log = null;
+				old.close();
+			}
+			
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			rewritten = true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.warning("Unable to rewrite block journal " + file.getName());
+			temp.delete();
+		}
+		
+		openLog();
+		
+		if (rewritten) {
+			closedCount = 0;
+		}
+	}
+	
+	/**
+	 * Opens the log for appending if it isn't already
+	 * @return whether the log is open
+	 */
+	private boolean openLog() {
+		if (log != null) {
+			return true;
+		}
+		
+		try {
+			log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.severe("Unable to open block journal " + file.getName()
+					+ "; block changes will not survive a crash");
+			return false;
+		}
+	}
+}
@@ -19,61 +19,114 @@
 package com.skyisland.questmanager;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
 
 import com.skyisland.questmanager.configuration.PluginConfiguration;
+import com.skyisland.questmanager.player.ActivePlayerSet;
 import com.skyisland.questmanager.player.Participant;
 import com.skyisland.questmanager.player.Party;
+import com.skyisland.questmanager.player.PlayerDatabase;
+import com.skyisland.questmanager.player.PlayerEventRouter;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.player.special.TitleEffect;
-import com.skyisland.questmanager.scheduling.IntervalScheduler;
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
 import com.skyisland.questmanager.scheduling.Tickable;
 
 /**
  * Stores a database of QuestPlayers for lookup and loading
- *
+ * <p>
+ * Only some players are kept in memory: those that are online, those that have recently left,
+ * and those something else still refers to. Everyone else lives in the {@link PlayerDatabase}
+ * and is loaded the first time they're asked for. Changed players are written back in the
+ * background every autosave.
+ * </p>
  */
-public class PlayerManager implements Tickable {
+public class PlayerManager implements Tickable, SaveService.Saveable {
+	
+	/**
+	 * How long, in seconds, a player stays in memory after logging off
+	 */
+	public static final double EVICT_DELAY = 300.0;
 	
 	private Map<UUID, QuestPlayer> players;
 	
+	private PlayerDatabase database;
+	
+	/**
+	 * When each player that has logged off but is still in memory left, in milliseconds.
+	 * Offline players loaded on demand are stamped with when they were loaded.
+	 */
+	private Map<UUID, Long> departures;
+	
+	/**
+	 * Each player's most recent background save. Players aren't unloaded until it's written,
+	 * so they can't be loaded again from an older record.
+	 */
+	private Map<UUID, Future<?>> pendingSaves;
+	
 	private Map<UUID, Party> parties;
 	
 	private TitleEffect titleEffect;
 	
+	private PlayerEventRouter router;
+	
+	private ActivePlayerSet activePlayers;
+	
 	/**
 	 * Creates and loads player manager information from the provided configuration file.
+	 * Players are stored in the provided database. Any players still in the configuration
+	 * file from before players were stored separately are moved into the database.
 	 */
-	public PlayerManager(YamlConfiguration config) {
+	public PlayerManager(PlayerDatabase database, YamlConfiguration config) {
 		
 		players = new HashMap<>();
 		parties = new HashMap<>();
+		departures = new HashMap<>();
+		pendingSaves = new HashMap<>();
+		activePlayers = new ActivePlayerSet();
+		this.database = database;
+		router = new PlayerEventRouter(this);
 		
 		QuestManagerPlugin.logger.info("Loading player database...");
 		
 		ConfigurationSection pSex = config.getConfigurationSection("players");
 		
-		if (!pSex.getKeys(false).isEmpty()) {
-		QuestPlayer player;
+		if (pSex != null && !pSex.getKeys(false).isEmpty()) {
+			int count = 0;
+			QuestPlayer player;
 			for (String key : pSex.getKeys(false)) {
 				player = (QuestPlayer) pSex.get(key);
-				players.put(UUID.fromString(player.getIDString()), player);
+				if (player == null || database.contains(player.getPlayer().getUniqueId())) {
+					continue;
+				}
+				
+				database.save(player);
+				count++;
 			}
+			
+			QuestManagerPlugin.logger.info("Moved " + count + " players into the player database");
+		}
+		
+		//players already online (after a reload) are loaded up front
+		for (Player online : Bukkit.getOnlinePlayers()) {
+			getPlayer(online.getUniqueId());
 		}
 			
 		ConfigurationSection gSex = config.getConfigurationSection("parties");
 		
-		if (!gSex.getKeys(false).isEmpty())
+		if (gSex != null && !gSex.getKeys(false).isEmpty())
 		for (String key : gSex.getKeys(false)) {
 			parties.put(
 					UUID.fromString(key), (Party) gSex.get(key));
@@ -83,11 +136,10 @@ public class PlayerManager implements Tickable {
 		PluginConfiguration pc = QuestManagerPlugin.questManagerPlugin.getPluginConfiguration();
 		if (pc.getMagicEnabled())
 		if (pc.getMagicRegenDay() != 0 || pc.getMagicRegenNight() != 0) {
-			IntervalScheduler.getScheduler().register(this);
+			BudgetedScheduler.getScheduler().register(this);
 		}
 		
 		this.titleEffect = new TitleEffect();
-		
 	}
 	
 	/**
@@ -101,21 +153,37 @@ public class PlayerManager implements Tickable {
 	
 	/**
 	 * Returns the QuestPlayer corresponding the the passed UUID.
-	 * This method creates a new QuestPlayer wrapper for the provided UUID if there does not
-	 * already exist a record for it.
+	 * Players not in memory are loaded from the database. This method creates a new QuestPlayer
+	 * wrapper for the provided UUID if there does not already exist a record for it.
 	 */
 	public QuestPlayer getPlayer(UUID id) {
 		if (players.containsKey(id)) {
 			return players.get(id);
 		}
 		
-		//initialize a player!
-		QuestPlayer player = new QuestPlayer(Bukkit.getOfflinePlayer(id));
+		QuestPlayer player = database.load(id);
+		if (player == null) {
+			//initialize a player!
+			player = new QuestPlayer(Bukkit.getOfflinePlayer(id));
+		}
 		players.put(id, player);
+		router.track(player);
+		if (!player.getPlayer().isOnline()) {
+			departures.put(id, System.currentTimeMillis());
+		}
 		
 		return player;
 	}
 	
+	/**
+	 * Returns the QuestPlayer corresponding to the passed UUID, if one is already in memory.
+	 * Unlike {@link #getPlayer(UUID)}, this method never loads or creates a QuestPlayer.
+	 * @return the QuestPlayer, or null if the player isn't loaded
+	 */
+	public QuestPlayer getLoadedPlayer(UUID id) {
+		return players.get(id);
+	}
+	
 	/**
 	 * Returns the party paired with the given ID.
 	 * if the party doesn't exist, null is returned instead
@@ -152,27 +220,90 @@ public class PlayerManager implements Tickable {
 		return parties.values();
 	}
 	
+	/**
+	 * Returns the players currently in memory. This includes everyone online, but not
+	 * necessarily every player on record.
+	 */
 	public Collection<QuestPlayer> getPlayers() {
 		return players.values();
 	}
 	
+	/**
+	 * Called when a player logs off. Their record is written out, and they are unloaded once
+	 * they've been gone for {@link #EVICT_DELAY} seconds.
+	 */
+	public void onPlayerLeave(UUID id) {
+		QuestPlayer player = players.get(id);
+		if (player == null) {
+			return;
+		}
+		
+		saveAsync(player);
+		departures.put(id, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Writes every changed player out to the database in the background, and unloads players
+	 * that have been offline long enough and aren't held on to by anything else.
+	 */
+	public void flush() {
+		for (QuestPlayer player : players.values()) {
+			if (player.isDirty()) {
+				saveAsync(player);
+			}
+		}
+		
+		long cutoff = System.currentTimeMillis() - (long) (EVICT_DELAY * 1000);
+		Iterator<Map.Entry<UUID, Long>> it = departures.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<UUID, Long> entry = it.next();
+			QuestPlayer player = players.get(entry.getKey());
+			if (player == null || player.getPlayer().isOnline()) {
+				it.remove();
+				continue;
+			}
+			
+			if (entry.getValue() > cutoff || player.isHeld()) {
+				continue;
+			}
+			
+			Future<?> pending = pendingSaves.get(entry.getKey());
+			if (pending != null && !pending.isDone()) {
+				//try again next flush, once the record is on disk
+				continue;
+			}
+			
+			players.remove(entry.getKey());
+			pendingSaves.remove(entry.getKey());
+			it.remove();
+		}
+	}
+	
+	private void saveAsync(QuestPlayer player) {
+		pendingSaves.put(player.getPlayer().getUniqueId(), database.saveAsync(player));
+	}
+	
+	@Override
+	public void autosave(SaveService service) {
+		flush();
+	}
+	
+	/**
+	 * Writes all players in memory to the database, and saves parties to the provided file.
+	 * Blocks until everything has been written.
+	 */
 	public void save(File saveFile) {
 		
 		QuestManagerPlugin.logger.info(
 				"Saving player database...");
 		
-		YamlConfiguration config = new YamlConfiguration();
-		ConfigurationSection playSex = config.createSection("players");
-		
-		QuestPlayer qp;
-		if (!players.isEmpty()) {
-			for (UUID key : players.keySet()) {
-				qp = getPlayer(key);
-				String name = qp.getPlayer().getName();
-				playSex.set(name == null ? key.toString() : name + key.toString().substring(0, 5), getPlayer(key));
-			}
+		for (QuestPlayer player : players.values()) {
+			saveAsync(player);
 		}
 		
+		YamlConfiguration config = new YamlConfiguration();
+		config.createSection("players");
+		
 		ConfigurationSection gSex = config.createSection("parties");
 		if (!parties.isEmpty()) {
 			for (UUID key : parties.keySet()) {
@@ -183,11 +314,7 @@ public class PlayerManager implements Tickable {
 			}
 		}
 		
-		try {
-			config.save(saveFile);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		QuestManagerPlugin.questManagerPlugin.getSaveService().writeNow(saveFile, SaveService.snapshot(config));
 	}
 
 	@Override
@@ -195,25 +322,22 @@ public class PlayerManager implements Tickable {
 		PluginConfiguration pc = QuestManagerPlugin.questManagerPlugin.getPluginConfiguration();
 		double day = pc.getMagicRegenDay();
 		double night = pc.getMagicRegenNight();
-		for (QuestPlayer qp : players.values()) {
-			OfflinePlayer p = qp.getPlayer();
-			if (qp.getPlayer().isOnline() && QuestManagerPlugin.questManagerPlugin.getPluginConfiguration()
-					.getWorlds().contains(p.getPlayer().getWorld().getName())) {
-				//potential for regen
-				long time = p.getPlayer().getWorld().getTime();
-				Location ploc = p.getPlayer().getLocation();
-				if (day != 0 && (time < 13000 || time >= 23000))
-				if (!pc.getMagicRegenOutside() || (ploc.getBlockY() < ploc.getWorld().getMaxHeight()
-						&& ploc.getBlock().getLightFromSky() > 13)) {
-										
-					qp.regenMP(day);
-				}
-				if (night != 0 && (time >= 13000 && time < 23000)) 
-				if (!pc.getMagicRegenOutside() || (ploc.getBlockY() < ploc.getWorld().getMaxHeight()
-						&& p.getPlayer().getLocation().getBlock().getLightFromSky() > 13)) {
-										
-					qp.regenMP(night);
-				}
+		for (QuestPlayer qp : activePlayers.getPlayers()) {
+			Player p = qp.getPlayer().getPlayer();
+			//potential for regen
+			long time = p.getWorld().getTime();
+			Location ploc = p.getLocation();
+			if (day != 0 && (time < 13000 || time >= 23000))
+			if (!pc.getMagicRegenOutside() || (ploc.getBlockY() < ploc.getWorld().getMaxHeight()
+					&& ploc.getBlock().getLightFromSky() > 13)) {
+									
+				qp.regenMP(day);
+			}
+			if (night != 0 && (time >= 13000 && time < 23000)) 
+			if (!pc.getMagicRegenOutside() || (ploc.getBlockY() < ploc.getWorld().getMaxHeight()
+					&& ploc.getBlock().getLightFromSky() > 13)) {
+									
+				qp.regenMP(night);
 			}
 		}
 		
@@ -223,4 +347,15 @@ public class PlayerManager implements Tickable {
 	public TitleEffect getTitleEffect() {
 		return titleEffect;
 	}
+	
+	public PlayerEventRouter getEventRouter() {
+		return router;
+	}
+	
+	/**
+	 * Returns the players that are online and in a quest world
+	 */
+	public ActivePlayerSet getActivePlayers() {
+		return activePlayers;
+	}
 }
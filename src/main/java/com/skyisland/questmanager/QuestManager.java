@@ -21,12 +21,9 @@ package com.skyisland.questmanager;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -62,7 +59,9 @@ import org.bukkit.scoreboard.Scoreboard;
 import com.skyisland.questmanager.configuration.QuestConfiguration;
 import com.skyisland.questmanager.configuration.SessionConflictException;
 import com.skyisland.questmanager.configuration.state.QuestState;
+import com.skyisland.questmanager.enemy.EnemyAttributes;
 import com.skyisland.questmanager.npc.NPC;
+import com.skyisland.questmanager.npc.NPCRegistry;
 import com.skyisland.questmanager.player.Party;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.quest.Quest;
@@ -79,7 +78,7 @@ public class QuestManager implements Listener {
 	
 	private Scoreboard scoreboard;
 	
-	private Set<NPC> questNPCs;
+	private NPCRegistry questNPCs;
 	
 	private Map<String, CommandBlock> anchors;
 	
@@ -92,7 +91,7 @@ public class QuestManager implements Listener {
 		
 		runningQuests = new LinkedList<>();
 		questTemplates = new LinkedList<>();
-		questNPCs = new HashSet<>();
+		questNPCs = new NPCRegistry();
 		scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
 
 		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
@@ -356,7 +355,7 @@ public class QuestManager implements Listener {
 		
 		//remove starting NPCs
 		if (!questNPCs.isEmpty()) {
-			for (NPC npc : questNPCs) {
+			for (NPC npc : questNPCs.getNPCs()) {
 				if (npc.getEntity() != null) {
 					npc.removeEntity(true);
 				}
@@ -413,7 +412,7 @@ public class QuestManager implements Listener {
 				continue;
 			}
 			
-			for (final NPC npc : questNPCs) {
+			for (final NPC npc : questNPCs.getNPCs()) {
 				npc.getEntity().getLocation().getChunk().load();
 				Bukkit.getScheduler().runTaskLater(QuestManagerPlugin.questManagerPlugin,
 					() -> {
@@ -528,31 +527,12 @@ public class QuestManager implements Listener {
 		}
 		
 		
-		if (e.getEntity().getCustomName() != null)
-		if (e.getEntity().getKiller() != null)
-		if (e.getEntity().getCustomName().contains("(Lvl ")) {
-			//level'ed entity!
-			String cache = e.getEntity().getCustomName();
-			int pos = cache.indexOf("(Lvl ");
-			//advance pos by 5 to get the number
-			pos += 5;
-			String tail = cache.substring(pos);
-			int length = 0;
-			for (char c : tail.toCharArray()) {
-				if (Character.isDigit(c)) {
-					length += 1;
-				} else {
-					break;
-				}
-			}
-			
-			if (length == 0) {
-				System.out.println("Error when finding level! Expected a number, got:  " + tail.charAt(0));
+		if (e.getEntity().getKiller() != null) {
+			int level = EnemyAttributes.getLevel(e.getEntity());
+			if (level == EnemyAttributes.NO_LEVEL) {
 				return;
 			}
 			
-			String lvl = tail.substring(0, length);
-			int level = Integer.valueOf(lvl);
 			level = (level-1) / 3; //1,2,3 are 0, 4,5,6 are 1, etc
 			level +=1; 			   //1,2,3 are 1, 5,6,7 are 2, etc
 			
@@ -656,64 +636,36 @@ public class QuestManager implements Listener {
 	
 	@EventHandler
 	public void onChunkLoad(ChunkLoadEvent e) {
-		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getWorlds().contains(e.getWorld().getName())) {
-			boolean trip, match;
-			if (questNPCs == null || questNPCs.isEmpty() || e.getChunk().getEntities().length == 0) {
+		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().isQuestWorld(e.getWorld())) {
+			//stale copies of NPCs can be left in any chunk, since NPCs wander from home and some
+			//have none. Both lookups are constant time, so every named entity is checked
+			if (questNPCs.isEmpty()) {
 				return;
 			}
+			
 			for (Entity entity : e.getChunk().getEntities()) {
 				if (entity.getCustomName() == null || entity.getCustomName().isEmpty()) {
 					continue;
 				}
 				
-				trip = false;
-				match = false;
-				for (NPC npc : questNPCs) {
-					//if (npc.getEntity() == null) {
-					//	return;
-					//}
-					
-					//if (npc.getEntity().getCustomName() != null &&
-					if (npc.getName() != null &&
-							//npc.getEntity().getCustomName().equals(entity.getCustomName()))
-							npc.getName().equals(entity.getCustomName()))
-						match = true;
-					
-					//if (npc.getEntity().getUniqueId().equals(entity.getUniqueId())) {
-					if (npc.getID().equals(entity.getUniqueId())) {
-						trip = true;
-						break;
-					}
+				//named like an NPC, but not the entity the NPC is using
+				if (questNPCs.hasName(entity.getCustomName())
+						&& questNPCs.getNPC(entity.getUniqueId()) == null) {
+					entity.remove();
 				}
-				
-				
-				if (match == true) {
-				if (trip != true)
-					entity.remove(); 
-//				} else if (entity instanceof LivingEntity) {
-//					QuestManagerPlugin.questManagerPlugin.getEnemyManager().removeEntity(entity);
-//					entity.remove();
-				} //else
-					//entity.remove();
 			}
 		}
 	}
 	
 	@EventHandler
 	public void onChunkUnload(ChunkUnloadEvent e) {
-		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getWorlds().contains(
-				e.getWorld().getName()))
+		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().isQuestWorld(e.getWorld()))
 		for (Entity entity : e.getChunk().getEntities()) {
-			for (NPC npc : questNPCs) {
-				
-				//if (npc.getEntity().getCustomName() != null &&
-				if (npc.getName() != null &&
-						//npc.getEntity().getCustomName().equals(entity.getCustomName()))
-						npc.getName().equals(entity.getCustomName()))
-				if (npc.getID().equals(entity.getUniqueId())) {
-					return;
-				}
+			NPC npc = questNPCs.getNPC(entity.getUniqueId());
+			if (npc != null && npc.getName() != null && npc.getName().equals(entity.getCustomName())) {
+				return;
 			}
+			
 			if (entity instanceof LivingEntity) {
 				LivingEntity live = (LivingEntity) entity;
 				QuestManagerPlugin.questManagerPlugin.getEnemyManager().removeEntity(live);
@@ -748,13 +700,14 @@ public class QuestManager implements Listener {
 	 * @return An NPC with the given name, or null if it doesn't exist
 	 */
 	public NPC getNPC(String name) {
-		for (NPC npc : questNPCs) {
-			if (npc.getName() != null && npc.getName().equals(name)) {
-				return npc;
-			}
-		}
-		
-		return null;
+		return questNPCs.getNPC(name);
+	}
+	
+	/**
+	 * Returns the registry of all quest and aux NPCs this manager knows about
+	 */
+	public NPCRegistry getNPCRegistry() {
+		return questNPCs;
 	}
 	
 	public List<Quest> getRunningQuests() {
@@ -780,13 +733,8 @@ public class QuestManager implements Listener {
 	}
 	
 	public void unregisterNPC(NPC questNPC) {
-		Iterator<NPC> it = questNPCs.iterator();
-		while (it.hasNext()) {
-			if (it.next().getID().equals(questNPC.getID())) {
-				it.remove();
-				return;
-			}
-		}
+		NPC registered = questNPCs.getNPC(questNPC.getID());
+		questNPCs.remove(registered == null ? questNPC : registered);
 	}
 	
 	public void wipeEntities() {
@@ -40,6 +40,7 @@ import com.skyisland.questmanager.configuration.PluginConfiguration;
 import com.skyisland.questmanager.configuration.utils.Chest;
 import com.skyisland.questmanager.configuration.utils.LocationState;
 import com.skyisland.questmanager.enemy.DefaultEnemy;
+import com.skyisland.questmanager.enemy.EnemyRegistry;
 import com.skyisland.questmanager.enemy.NormalEnemy;
 import com.skyisland.questmanager.enemy.StandardEnemy;
 import com.skyisland.questmanager.fanciful.FancyMessage;
@@ -51,6 +52,7 @@ import com.skyisland.questmanager.magic.ImbuementSet;
 import com.skyisland.questmanager.magic.SpellPylon;
 import com.skyisland.questmanager.magic.SummonManager;
 import com.skyisland.questmanager.magic.spell.ChargeSpell;
+import com.skyisland.questmanager.magic.spell.ProjectileEngine;
 import com.skyisland.questmanager.magic.spell.SimpleSelfSpell;
 import com.skyisland.questmanager.magic.spell.SimpleTargetSpell;
 import com.skyisland.questmanager.magic.spell.Spell;
@@ -90,6 +92,7 @@ import com.skyisland.questmanager.npc.utils.ServiceCraft;
 import com.skyisland.questmanager.npc.utils.ServiceOffer;
 import com.skyisland.questmanager.player.Party;
 import com.skyisland.questmanager.player.PlayerOptions;
+import com.skyisland.questmanager.player.PlayerDatabase;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.player.skill.CraftingSkill;
 import com.skyisland.questmanager.player.skill.Skill;
@@ -116,6 +119,7 @@ import com.skyisland.questmanager.player.skill.defaults.SwordsmanshipSkill;
 import com.skyisland.questmanager.player.skill.defaults.TacticsSkill;
 import com.skyisland.questmanager.player.skill.defaults.TrappingSkill;
 import com.skyisland.questmanager.player.skill.defaults.TwoHandedSkill;
+import com.skyisland.questmanager.player.utils.QuestBookService;
 import com.skyisland.questmanager.player.utils.SpellWeavingInvoker;
 import com.skyisland.questmanager.quest.Quest;
 import com.skyisland.questmanager.quest.requirements.ArriveRequirement;
@@ -126,6 +130,7 @@ import com.skyisland.questmanager.quest.requirements.DeliverRequirement;
 import com.skyisland.questmanager.quest.requirements.InteractRequirement;
 import com.skyisland.questmanager.quest.requirements.PositionRequirement;
 import com.skyisland.questmanager.quest.requirements.PossessRequirement;
+import com.skyisland.questmanager.quest.requirements.RequirementDispatcher;
 import com.skyisland.questmanager.quest.requirements.SlayRequirement;
 import com.skyisland.questmanager.quest.requirements.TalkRequirement;
 import com.skyisland.questmanager.quest.requirements.TimeRequirement;
@@ -133,6 +138,8 @@ import com.skyisland.questmanager.quest.requirements.VanquishRequirement;
 import com.skyisland.questmanager.region.CuboidRegion;
 import com.skyisland.questmanager.region.RegionManager;
 import com.skyisland.questmanager.region.SphericalRegion;
+import com.skyisland.questmanager.scheduling.Alarm;
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
 import com.skyisland.questmanager.ui.ChatGuiHandler;
 import com.skyisland.questmanager.ui.InventoryGuiHandler;
 import com.skyisland.questmanager.ui.menu.action.PartyInviteAction;
@@ -156,10 +163,18 @@ public class QuestManagerPlugin extends JavaPlugin {
 	
 	private RequirementManager reqManager;
 	
+	private RequirementDispatcher requirementDispatcher;
+	
 	private PlayerManager playerManager;
 	
+	private SaveService saveService;
+	
+	private BlockJournal blockJournal;
+	
 	private RegionManager regionManager;
 	
+	private EnemyRegistry enemyRegistry;
+	
 	private SpellManager spellManager;
 	
 	private SummonManager summonManager;
@@ -178,6 +193,8 @@ public class QuestManagerPlugin extends JavaPlugin {
 	
 	private InventoryGuiHandler inventoryGuiHandler;
 	
+	private QuestBookService bookService;
+	
 	private PluginConfiguration config;
 	
 	private File saveDirectory;
@@ -196,12 +213,18 @@ public class QuestManagerPlugin extends JavaPlugin {
 	
 	private final static String playerConfigBackupName = "players.backup";
 	
-	private final static String bankDataFileName = "banks.yml";
+	private final static String playerDirectoryName = "players/";
+	
+	private final static String bankDataFileName = "banks.dat";
+	
+	private final static String legacyBankDataFileName = "banks.yml";
 	
 	private final static String spellWeavingFileName = "spellWeaving.yml";
 	
 	private final static String imbuementFileName = "imbuement.yml";
 	
+	private final static String blockJournalFileName = "blocks.journal";
+	
 	public static final double VERSION = 1.00;
 	
 	public static Logger logger;
@@ -221,7 +244,11 @@ public class QuestManagerPlugin extends JavaPlugin {
 		//load up config
 		File configFile = new File(getDataFolder(), configFileName);
 		
-		config = new PluginConfiguration(configFile);		
+		if (config == null) {
+			config = new PluginConfiguration(configFile);
+		} else {
+			config.reload(configFile);
+		}
 				
 		//perform directory checks
 		saveDirectory = new File(getDataFolder(), config.getSavePath());
@@ -284,15 +311,21 @@ public class QuestManagerPlugin extends JavaPlugin {
 
 		chatGuiHandler = new ChatGuiHandler(this, config.getMenuVerbose());
 		inventoryGuiHandler = new InventoryGuiHandler();
+		bookService = new QuestBookService();
 		
+		requirementDispatcher = new RequirementDispatcher();
 
 		
 		skillManager = new SkillManager();
 
 		imbuementHandler = new ImbuementHandler(new File(getDataFolder(), imbuementFileName));
 		
+		enemyRegistry = new EnemyRegistry();
+		
 		regionManager = new RegionManager(regionDirectory, config.getMusicDurations(), 3);
 		
+		blockJournal = new BlockJournal(new File(getDataFolder(), blockJournalFileName));
+		
 		registerDefaultSkills();
 		
 		//preload Player data
@@ -326,7 +359,10 @@ public class QuestManagerPlugin extends JavaPlugin {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
-		playerManager = new PlayerManager(playerConfig);
+		saveService = new SaveService(config.getAutosaveInterval());
+		playerManager = new PlayerManager(
+				new PlayerDatabase(new File(getDataFolder(), playerDirectoryName), saveService), playerConfig);
+		saveService.register(playerManager);
 		
 		
 		//parse config & instantiate manager
@@ -340,9 +376,12 @@ public class QuestManagerPlugin extends JavaPlugin {
 		
 		summonManager = new SummonManager();
 		
-		bankManager = new BankStorageManager(new File(getDataFolder(), bankDataFileName));
+		bankManager = new BankStorageManager(new File(getDataFolder(), bankDataFileName),
+				new File(getDataFolder(), legacyBankDataFileName));
+		saveService.register(bankManager);
 		
 		spellWeavingManager = new SpellWeavingManager(new File(getDataFolder(), spellWeavingFileName));
+		saveService.register(spellWeavingManager);
 		new SpellWeavingInvoker();
 		
 		
@@ -385,6 +424,7 @@ public class QuestManagerPlugin extends JavaPlugin {
 		playerManager.save(new File(getDataFolder(), playerConfigFileName));
 		bankManager.save(new File(getDataFolder(), bankDataFileName));
 		spellWeavingManager.save(new File(getDataFolder(), spellWeavingFileName));
+		saveService.close();
 		stopAllQuests();
 		summonManager.removeSummons();
 		for (QuestPlayer p : playerManager.getPlayers()) {
@@ -398,13 +438,16 @@ public class QuestManagerPlugin extends JavaPlugin {
 				((TrappingSkill) s).removeTraps();
 				continue;
 			}
-			if (s.getName().equals("Mining")) {
-				((MiningSkill) s).revertOres();
-				continue;
-			}
 		}
+		blockJournal.close();
 		
 		manager.wipeEntities();
+		regionManager.close();
+		enemyRegistry.close();
+		
+		ProjectileEngine.getEngine().shutdown();
+		Alarm.getScheduler().shutdown();
+		BudgetedScheduler.getScheduler().shutdown();
 	}
 	
 	public void onReload() {
@@ -880,6 +923,10 @@ public class QuestManagerPlugin extends JavaPlugin {
 		return this.reqManager;
 	}
 	
+	public RequirementDispatcher getRequirementDispatcher() {
+		return this.requirementDispatcher;
+	}
+	
 	public PluginConfiguration getPluginConfiguration() {
 		return this.config;
 	}
@@ -888,6 +935,14 @@ public class QuestManagerPlugin extends JavaPlugin {
 		return playerManager;
 	}
 	
+	public SaveService getSaveService() {
+		return saveService;
+	}
+	
+	public BlockJournal getBlockJournal() {
+		return blockJournal;
+	}
+	
 	public ChatGuiHandler getChatGuiHandler() {
 		return chatGuiHandler;
 	}
@@ -896,6 +951,10 @@ public class QuestManagerPlugin extends JavaPlugin {
 		return inventoryGuiHandler;
 	}
 	
+	public QuestBookService getBookService() {
+		return bookService;
+	}
+	
 	public QuestManager getManager() {
 		return manager;
 	}
@@ -904,6 +963,10 @@ public class QuestManagerPlugin extends JavaPlugin {
 		return regionManager;
 	}
 	
+	public EnemyRegistry getEnemyRegistry() {
+		return enemyRegistry;
+	}
+	
 	public SpellManager getSpellManager() {
 		return spellManager;
 	}
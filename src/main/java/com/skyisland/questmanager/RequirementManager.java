@@ -61,6 +61,14 @@ public class RequirementManager {
 		return true;
 	}
 	
+	/**
+	 * Looks up the factory registered with the given key
+	 * @return the factory, or null if none is registered under that key
+	 */
+	public RequirementFactory<?> getFactory(String uniqueKey) {
+		return factories.get(uniqueKey);
+	}
+	
 	/**
 	 * Uses registered factories to instantiate a requirement from the given key and configuration file.
 	 * Keys must first be registered using {@link #registerFactory(String, RequirementFactory)}
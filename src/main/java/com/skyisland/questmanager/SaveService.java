@@ -0,0 +1,387 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.file.YamlConstructor;
+import org.bukkit.configuration.file.YamlRepresenter;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import com.skyisland.questmanager.scheduling.Alarm;
+import com.skyisland.questmanager.scheduling.Alarmable;
+
+/**
+ * Writes save data to disk off the main thread.
+ * <p>
+ * Saving happens in two steps. First, the data is snapshotted on the main thread: objects are
+ * {@link ConfigurationSerializable#serialize() serialized} into plain maps, lists and values while
+ * nothing else can be changing them. Nothing in the snapshot is shared with live state, so it is
+ * then handed to a background writer which dumps it to YAML, encodes it, writes it to a temporary
+ * file, and moves the temporary file over the real one. A crash mid-write leaves the previous save
+ * intact.
+ * </p>
+ * <p>
+ * {@link Saveable Saveables} registered with the service are asked to snapshot themselves
+ * every autosave interval. Time spent snapshotting and writing is recorded, and can be
+ * checked with {@link #getStatistics()}.
+ * </p>
+ */
+public class SaveService implements Alarmable<SaveService.SaveAlarm> {
+
+	public static enum SaveAlarm {
+		AUTOSAVE;
+	}
+
+	/**
+	 * Something with state that should be saved periodically
+	 */
+	public static interface Saveable {
+
+		/**
+		 * Called on the main thread at every autosave. Implementations should snapshot whatever
+		 * has changed and pass it to the service's {@link SaveService#write(File, String) write}
+		 * method.
+		 */
+		void autosave(SaveService service);
+	}
+
+	/**
+	 * Configuration data copied out of live objects, ready to be dumped to YAML on any thread
+	 */
+	public static final class YamlSnapshot {
+
+		private static final String BLANK_CONFIG = "{}\n";
+
+		private final Map<String, Object> values;
+
+		private YamlSnapshot(Map<String, Object> values) {
+			this.values = values;
+		}
+
+		/**
+		 * Dumps the snapshot the same way {@link YamlConfiguration#saveToString()} would
+		 */
+		public String encode() {
+			DumperOptions options = new DumperOptions();
+			options.setIndent(2);
+			options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+			options.setAllowUnicode(StandardCharsets.UTF_8.equals(Charset.defaultCharset()));
+			YamlRepresenter representer = new YamlRepresenter();
+			representer.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+
+			String dump = new Yaml(new YamlConstructor(), representer, options).dump(values);
+			return (dump.equals(BLANK_CONFIG) ? "" : dump);
+		}
+	}
+
+	/**
+	 * Snapshots that take longer than this (in milliseconds) are reported, as they hold up the tick
+	 */
+	private static final long SLOW_SNAPSHOT_MILLIS = 50;
+
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	private List<Saveable> saveables;
+
+	private double autosaveInterval;
+
+	/**
+	 * Writes are done one at a time, in order, so an older snapshot can never overwrite a newer one
+	 */
+	private ExecutorService writer;
+
+	private long snapshotCount, snapshotNanos, maxSnapshotNanos;
+
+	private AtomicLong writeCount, writeNanos, maxWriteNanos, bytesWritten, failedWrites;
+
+	/**
+	 * Creates a save service that autosaves every <i>autosaveInterval</i> seconds.
+	 * @param autosaveInterval The number of seconds between autosaves. Zero or less turns off autosaving.
+	 */
+	public SaveService(double autosaveInterval) {
+		this.saveables = new LinkedList<>();
+		this.autosaveInterval = autosaveInterval;
+		this.writer = Executors.newSingleThreadExecutor(runnable -> {
+			//a stuck write shouldn't keep the server from shutting down; close() waits for writes instead
+			Thread thread = new Thread(runnable, "QuestManager Save Writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.writeCount = new AtomicLong();
+		this.writeNanos = new AtomicLong();
+		this.maxWriteNanos = new AtomicLong();
+		this.bytesWritten = new AtomicLong();
+		this.failedWrites = new AtomicLong();
+
+		if (autosaveInterval > 0) {
+			Alarm.getScheduler().schedule(this, SaveAlarm.AUTOSAVE, autosaveInterval);
+		}
+	}
+
+	public void register(Saveable saveable) {
+		saveables.add(saveable);
+	}
+
+	public double getAutosaveInterval() {
+		return autosaveInterval;
+	}
+
+	@Override
+	public void alarm(SaveAlarm reference) {
+		switch (reference) {
+		case AUTOSAVE:
+			autosave();
+			Alarm.getScheduler().schedule(this, SaveAlarm.AUTOSAVE, autosaveInterval);
+			break;
+		}
+	}
+
+	/**
+	 * Asks every registered {@link Saveable} to snapshot itself
+	 */
+	public void autosave() {
+		long start = System.nanoTime();
+
+		for (Saveable saveable : saveables) {
+			saveable.autosave(this);
+		}
+
+		long elapsed = System.nanoTime() - start;
+		snapshotCount++;
+		snapshotNanos += elapsed;
+		maxSnapshotNanos = Math.max(maxSnapshotNanos, elapsed);
+
+		if (TimeUnit.NANOSECONDS.toMillis(elapsed) > SLOW_SNAPSHOT_MILLIS) {
+			QuestManagerPlugin.logger.warning("Autosave snapshot took "
+					+ TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+		}
+	}
+
+	/**
+	 * Copies the given configuration into plain data, serializing any objects in it.
+	 * Must be called on the main thread.
+	 */
+	@SuppressWarnings("unchecked")
+	public static YamlSnapshot snapshot(ConfigurationSection config) {
+		return new YamlSnapshot((Map<String, Object>) plain(config));
+	}
+
+	/**
+	 * Deep-copies the value into maps, lists and immutable values, the same shape the YAML
+	 * representer would turn it into
+	 */
+	private static Object plain(Object value) {
+		if (value instanceof ConfigurationSerializable) {
+			ConfigurationSerializable serializable = (ConfigurationSerializable) value;
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY,
+					ConfigurationSerialization.getAlias(serializable.getClass()));
+			for (Map.Entry<String, Object> entry : serializable.serialize().entrySet()) {
+				map.put(entry.getKey(), plain(entry.getValue()));
+			}
+			return map;
+		}
+
+		if (value instanceof ConfigurationSection) {
+			return plain(((ConfigurationSection) value).getValues(false));
+		}
+
+		if (value instanceof Map) {
+			Map<Object, Object> map = new LinkedHashMap<>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				map.put(entry.getKey(), plain(entry.getValue()));
+			}
+			return map;
+		}
+
+		if (value instanceof Collection) {
+			List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+			for (Object element : (Collection<?>) value) {
+				list.add(plain(element));
+			}
+			return list;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Queues the snapshot to be dumped and written to the file in the background
+	 * @return a future that completes once the write has finished, whether or not it succeeded
+	 */
+	public Future<?> write(File file, YamlSnapshot data) {
+		return submit(file, () -> data.encode().getBytes(StandardCharsets.UTF_8), false);
+	}
+
+	/**
+	 * Dumps and writes the snapshot to the file, waiting for it to be written.
+	 * Anything already queued is written first.
+	 */
+	public void writeNow(File file, YamlSnapshot data) {
+		submit(file, () -> data.encode().getBytes(StandardCharsets.UTF_8), true);
+	}
+
+	/**
+	 * Queues the data to be written to the file in the background
+	 * @return a future that completes once the write has finished, whether or not it succeeded
+	 */
+	public Future<?> write(File file, String data) {
+		return submit(file, () -> data.getBytes(StandardCharsets.UTF_8), false);
+	}
+
+	/**
+	 * Queues the data to be written to the file in the background.
+	 * The array must not be changed afterwards.
+	 * @return a future that completes once the write has finished, whether or not it succeeded
+	 */
+	public Future<?> write(File file, byte[] data) {
+		return submit(file, () -> data, false);
+	}
+
+	/**
+	 * Writes the data to the file, waiting for it to be written.
+	 * Anything already queued is written first.
+	 */
+	public void writeNow(File file, String data) {
+		submit(file, () -> data.getBytes(StandardCharsets.UTF_8), true);
+	}
+
+	/**
+	 * Writes the data to the file, waiting for it to be written.
+	 * Anything already queued is written first.
+	 */
+	public void writeNow(File file, byte[] data) {
+		submit(file, () -> data, true);
+	}
+
+	private Future<?> submit(File file, Supplier<byte[]> encoder, boolean wait) {
+		if (writer.isShutdown()) {
+			QuestManagerPlugin.logger.warning("Tried to save " + file.getName() + " after saving was shut down");
+			return CompletableFuture.completedFuture(null);
+		}
+
+		Future<?> future = writer.submit(() -> doWrite(file, encoder));
+		if (!wait) {
+			return future;
+		}
+
+		try {
+			future.get();
+		} catch (Exception e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.warning("Unable to save " + file.getName());
+		}
+
+		return future;
+	}
+
+	private void doWrite(File file, Supplier<byte[]> encoder) {
+		long start = System.nanoTime();
+		File temp = new File(file.getPath() + TEMP_EXTENSION);
+		byte[] bytes = encoder.get();
+
+		try {
+			if (file.getParentFile() != null && !file.getParentFile().exists()) {
+				file.getParentFile().mkdirs();
+			}
+
+			Files.write(temp.toPath(), bytes);
+			try {
+				Files.move(temp.toPath(), file.toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			failedWrites.incrementAndGet();
+			QuestManagerPlugin.logger.warning("Unable to write " + file.getName());
+			return;
+		}
+
+		long elapsed = System.nanoTime() - start;
+		writeCount.incrementAndGet();
+		writeNanos.addAndGet(elapsed);
+		bytesWritten.addAndGet(bytes.length);
+		long max;
+		do {
+			max = maxWriteNanos.get();
+		} while (elapsed > max && !maxWriteNanos.compareAndSet(max, elapsed));
+	}
+
+	/**
+	 * Returns a human-readable summary of how long saving has taken so far
+	 */
+	public String getStatistics() {
+		long writes = writeCount.get();
+		return String.format("Snapshots: %d (avg %.2fms, max %.2fms) | Writes: %d (avg %.2fms, max %.2fms, %d KB, %d failed)",
+				snapshotCount,
+				snapshotCount == 0 ? 0.0 : (snapshotNanos / (double) snapshotCount) / 1000000.0,
+				maxSnapshotNanos / 1000000.0,
+				writes,
+				writes == 0 ? 0.0 : (writeNanos.get() / (double) writes) / 1000000.0,
+				maxWriteNanos.get() / 1000000.0,
+				bytesWritten.get() / 1024,
+				failedWrites.get());
+	}
+
+	/**
+	 * Finishes all queued writes and stops the background writer.
+	 * Nothing can be saved through the service afterwards.
+	 */
+	public void close() {
+		Alarm.getScheduler().unregister(this);
+		writer.shutdown();
+		try {
+			if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+				QuestManagerPlugin.logger.warning("Timed out waiting for save data to be written!");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		QuestManagerPlugin.logger.info(getStatistics());
+	}
+}
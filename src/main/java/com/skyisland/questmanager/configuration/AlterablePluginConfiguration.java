@@ -20,6 +20,7 @@ public class AlterablePluginConfiguration extends PluginConfiguration {
 		AlterablePluginConfiguration copy = new AlterablePluginConfiguration();
 		copy.config = config.config;
 		copy.conservative = config.conservative;
+		copy.refresh();
 		return copy;
 	}
 	
@@ -38,193 +39,244 @@ public class AlterablePluginConfiguration extends PluginConfiguration {
 
 	public void setVersion(double version) {
 		config.set(PluginConfigurationKey.VERSION.getKey(), version);
+		refresh();
 	}
 	
 	public void setWorlds(List<String> worlds) {
 		config.set(PluginConfigurationKey.WORLDS.getKey(), worlds);
+		refresh();
 	}
 	
 	public void setQuestPath(String path) {
 		config.set(PluginConfigurationKey.QUESTDIR.getKey(), path);
+		refresh();
 	}
 	
 	public void setKeepOnError(boolean keep) {
 		config.set(PluginConfigurationKey.CONSERVATIVE.getKey(), keep);
+		refresh();
 	}
 	
 	public void setVillagerCleanup(boolean clean) {
 		config.set(PluginConfigurationKey.CLEANUPVILLAGERS.getKey(), clean);
+		refresh();
 	}
 	
 	public void setXPMoney(boolean flag) {
 		config.set(PluginConfigurationKey.XPMONEY.getKey(), flag);
+		refresh();
 	}
 	
 	public void setMaxPartySize(int size) {
 		config.set(PluginConfigurationKey.PARTYSIZE.getKey(), size);
+		refresh();
+	}
+	
+	public void setAutosaveInterval(double seconds) {
+		config.set(PluginConfigurationKey.AUTOSAVEINTERVAL.getKey(), seconds);
+		refresh();
 	}
 	
 	public void setSummonLimit(int limit) {
 		config.set(PluginConfigurationKey.SUMMONLIMIT.getKey(), limit);
+		refresh();
 	}
 	
 	public void setAllowTaming(boolean flag) {
 		config.set(PluginConfigurationKey.ALLOWTAMING.getKey(), flag);
+		refresh();
 	}
 	
 	public void setUsePortals(boolean flag) {
 		config.set(PluginConfigurationKey.PORTALS.getKey(), flag);
+		refresh();
 	}
 	
 	public void setAdjustXP(boolean flag) {
 		config.set(PluginConfigurationKey.ADJUSTXP.getKey(), flag);
+		refresh();
 	}
 	
 	public void setMagicEnabled(boolean flag) {
 		config.set(PluginConfigurationKey.ALLOWMAGIC.getKey(), flag);
+		refresh();
 	}
 	
 	public void setStartingMana(int amount) {
 		config.set(PluginConfigurationKey.MANADEFAULT.getKey(), amount);
+		refresh();
 	}
 	
 	public void setMagicRegenDay(double rate) {
 		config.set(PluginConfigurationKey.DAYREGEN.getKey(), rate);
+		refresh();
 	}
 	
 	public void setMagicRegenNight(double rate) {
 		config.set(PluginConfigurationKey.NIGHTREGEN.getKey(), rate);
+		refresh();
 	}
 	
 	public void setMagicRegenOutside(boolean flag) {
 		config.set(PluginConfigurationKey.OUTSIDEREGEN.getKey(), flag);
+		refresh();
 	}
 	
 	public void setMagicRegenKill(double rate) {
 		config.set(PluginConfigurationKey.KILLREGEN.getKey(), rate);
+		refresh();
 	}
 	
 	public void setMagicRegenXP(double rate) {
 		config.set(PluginConfigurationKey.XPREGEN.getKey(), rate);
+		refresh();
 	}
 	
 	public void setMagicRegenFood(double rate) {
 		config.set(PluginConfigurationKey.FOODREGEN.getKey(), rate);
+		refresh();
 	}
 	
 	public void setMenuVerbose(boolean flag) {
 		config.set(PluginConfigurationKey.VERBOSEMENUS.getKey(), flag);
+		refresh();
 	}
 	
 	public void setAllowCrafting(boolean flag) {
 		config.set(PluginConfigurationKey.ALLOWCRAFTING.getKey(), flag);
+		refresh();
 	}
 	
 	public void setAllowNaming(boolean flag) {
 		config.set(PluginConfigurationKey.ALLOWNAMING.getKey(), flag);
+		refresh();
 	}
 	
 	public void setChatTitle(boolean flag) {
 		config.set(PluginConfigurationKey.TITLECHAT.getKey(), flag);
+		refresh();
 	}
 	
 	public void setCompassEnabled(boolean flag) {
 		config.set(PluginConfigurationKey.COMPASS.getKey(), flag);
+		refresh();
 	}
 	
 	public void setCompassType(Material type) {
 		config.set(PluginConfigurationKey.COMPASSTYPE.getKey(), type.name());
-		
+		refresh();
 	}
 	
 	public void setCompassName(String name) {
 		config.set(PluginConfigurationKey.COMPASSNAME.getKey(), name);
+		refresh();
 	}
 	
 	public void setSavePath(String path) {
 		config.set(PluginConfigurationKey.SAVEDIR.getKey(), path);
+		refresh();
 	}
 	
 	public void setRegionPath(String path) {
 		config.set(PluginConfigurationKey.REGIONDIR.getKey(), path);
+		refresh();
 	}
 	
 	public void setSpellPath(String path) {
 		config.set(PluginConfigurationKey.SPELLDIR.getKey(), path);
+		refresh();
 	}
 	
 	public void setSkillPath(String path) {
 		config.set(PluginConfigurationKey.SKILLDIR.getKey(), path);
+		refresh();
 	}
 	
 	public void setSkillCap(int cap) {
 		config.set(PluginConfigurationKey.SKILLCAP.getKey(), cap);
+		refresh();
 	}
 	
 	public void setSkillGrowthOnSuccess(double rate) {
 		config.set(PluginConfigurationKey.SKILLSUCCESSGROWTH.getKey(), rate);
+		refresh();
 	}
 	
 	public void setSkillGrowthOnFail(double rate) {
 		config.set(PluginConfigurationKey.SKILLFAILGROWTH.getKey(), rate);
+		refresh();
 	}
 	
 	public void setSkillCutoff(int cutoff) {
 		config.set(PluginConfigurationKey.SKILLGROWTHCUTOFF.getKey(), cutoff);
+		refresh();
 	}
 	
 	public void setSkillUpperCutoff(int cutoff) {
 		config.set(PluginConfigurationKey.SKILLGROWTHUPPERCUTOFF.getKey(), cutoff);
+		refresh();
 	}
 	
 	public void setSpellHolderName(String name) {
 		config.set(PluginConfigurationKey.HOLDERNAME.getKey(), name);
+		refresh();
 	}
 	
 	public void setAlterType(Material type) {
 		config.set(PluginConfigurationKey.ALTERTYPE.getKey(), type.name());
+		refresh();
 	}
 	
 	public void setAllowSpellWeaving(boolean flag) {
 		config.set(PluginConfigurationKey.ALLOWWEAVING.getKey(), flag);
+		refresh();
 	}
 	
 	public void setUseWeavingInvoker(boolean flag) {
 		config.set(PluginConfigurationKey.USEINVOKER.getKey(), flag);
+		refresh();
 	}
 	
 	public void setSpellInvokerName(String name) {
 		config.set(PluginConfigurationKey.INVOKERNAME.getKey(), name);
+		refresh();
 	}
 	
 	public void setInvokerType(Material type) {
 		config.set(PluginConfigurationKey.INVOKERTYPE.getKey(), type.name());
+		refresh();
 	}
 	
 	public void setRecallerType(Material type) {
 		config.set(PluginConfigurationKey.RECALLERTYPE.getKey(), type);
+		refresh();
 	}
 	
 	public void setMarkType(Material type) {
 		config.set(PluginConfigurationKey.MARKLOCTYPE.getKey(), type);
+		refresh();
 	}
 	
 	public void setSingleRecall(boolean singleRecall) {
 		config.set(PluginConfigurationKey.MARKONCE.getKey(), singleRecall);
+		refresh();
 	}
 	
 	public void setRecallCost(double cost) {
 		config.set(PluginConfigurationKey.RECALLCOST.getKey(), cost);
+		refresh();
 	}
 	
 	public void setRecallerName(String name) {
 		config.set(PluginConfigurationKey.RECALLERNAME.getKey(), name);
+		refresh();
 	}
 	
 	public void setMusicDurations(Map<Sound, Double> map) {
 		for (Sound sound : map.keySet()) {
 			config.set(PluginConfigurationKey.MUSICDURATIONS.getKey() + "." + sound.name(), map.get(sound));
 		}
+		refresh();
 	}
 	
 	/**
@@ -243,5 +295,6 @@ public class AlterablePluginConfiguration extends PluginConfiguration {
 			return;
 		}
 		config.set(key.getKey(), value);
+		refresh();
 	}
 }
@@ -21,13 +21,17 @@ package com.skyisland.questmanager.configuration;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -117,6 +121,7 @@ public class PluginConfiguration {
 		SKILLFAILGROWTH("skill.growth.fail", Category.FEATURE, "Skill Growth - Failure", "How much a skill grows when performing an action at the same level, on success", 0.025),
 		SKILLGROWTHCUTOFF("skill.growth.cutoff", Category.FEATURE, "Skill Cuttoff", "Maximum difference between skill level and action level where a player gets xp", 10),
 		SKILLGROWTHUPPERCUTOFF("skill.growth.cutoffUpper", Category.FEATURE, "Skill Upper Cuttoff", "How much higher a skill can be and the player still get xp for a failure", 10),
+		AUTOSAVEINTERVAL("autosave.interval", Category.MANAGER, "Autosave Interval", "How often, in seconds, player, bank and spell weaving data is saved in the background. 0 turns autosaving off", 300.0),
 		SUMMONLIMIT("summonLimit", Category.FEATURE, "Summon Limit", "Maximum summons a player can have", 2),
 		MUSICDURATIONS("musicDurations", Category.FEATURE, "Music Durations", "Map between Sounds and their durations", null);
 		
@@ -166,33 +171,212 @@ public class PluginConfiguration {
 		}
 	}
 	
+	/**
+	 * Typed values read out of the backing configuration.
+	 * Snapshots are built in one go when the configuration is loaded and never change afterwards,
+	 * so getters don't have to go through the YAML tree (or allocate) every time they're called.
+	 */
+	private static final class Snapshot {
+		
+		private final double version;
+		
+		private final Set<String> worlds;
+		
+		private final String questPath, savePath, regionPath, spellPath, skillPath;
+		
+		private final boolean keepOnError, villagerCleanup, xpMoney, allowTaming, usePortals, adjustXP,
+			magicEnabled, magicRegenOutside, menuVerbose, allowCrafting, allowNaming, chatTitle,
+			compassEnabled, allowSpellWeaving, useWeavingInvoker, singleRecall;
+		
+		private final int maxPartySize, summonLimit, startingMana, skillCap, skillCutoff, skillUpperCutoff;
+		
+		private final double magicRegenDay, magicRegenNight, magicRegenKill, magicRegenXP, magicRegenFood,
+			skillGrowthOnSuccess, skillGrowthOnFail, recallCost, maxPylonDistance, autosaveInterval;
+		
+		private final Material compassType, alterType, invokerType, recallerType, markType;
+		
+		private final String compassName, spellHolderName, spellInvokerName, recallerName;
+		
+		private final Map<Sound, Double> musicDurations;
+		
+		private Snapshot(YamlConfiguration config) {
+			version = config.getDouble(PluginConfigurationKey.VERSION.key, 0.0);
+			worlds = Collections.unmodifiableSet(new LinkedHashSet<>(
+					config.getStringList(PluginConfigurationKey.WORLDS.key)));
+			
+			questPath = config.getString(PluginConfigurationKey.QUESTDIR.key);
+			savePath = config.getString(PluginConfigurationKey.SAVEDIR.key);
+			regionPath = config.getString(PluginConfigurationKey.REGIONDIR.key);
+			spellPath = config.getString(PluginConfigurationKey.SPELLDIR.key);
+			skillPath = config.getString(PluginConfigurationKey.SKILLDIR.key);
+			
+			keepOnError = config.getBoolean(PluginConfigurationKey.CONSERVATIVE.key, true);
+			villagerCleanup = config.getBoolean(PluginConfigurationKey.CLEANUPVILLAGERS.key);
+			xpMoney = config.getBoolean(PluginConfigurationKey.XPMONEY.key);
+			allowTaming = config.getBoolean(PluginConfigurationKey.ALLOWTAMING.key);
+			usePortals = config.getBoolean(PluginConfigurationKey.PORTALS.key);
+			adjustXP = config.getBoolean(PluginConfigurationKey.ADJUSTXP.key);
+			magicEnabled = config.getBoolean(PluginConfigurationKey.ALLOWMAGIC.key);
+			magicRegenOutside = config.getBoolean(PluginConfigurationKey.OUTSIDEREGEN.key);
+			menuVerbose = config.getBoolean(PluginConfigurationKey.VERBOSEMENUS.key);
+			allowCrafting = config.getBoolean(PluginConfigurationKey.ALLOWCRAFTING.key);
+			allowNaming = config.getBoolean(PluginConfigurationKey.ALLOWNAMING.key);
+			chatTitle = config.getBoolean(PluginConfigurationKey.TITLECHAT.key);
+			compassEnabled = config.getBoolean(PluginConfigurationKey.COMPASS.key, true);
+			allowSpellWeaving = config.getBoolean(PluginConfigurationKey.ALLOWWEAVING.key, true);
+			useWeavingInvoker = config.getBoolean(PluginConfigurationKey.USEINVOKER.key, true);
+			singleRecall = config.getBoolean(PluginConfigurationKey.MARKONCE.key);
+			
+			maxPartySize = config.getInt(PluginConfigurationKey.PARTYSIZE.key);
+			summonLimit = config.getInt(PluginConfigurationKey.SUMMONLIMIT.key, 2);
+			startingMana = config.getInt(PluginConfigurationKey.MANADEFAULT.key);
+			skillCap = config.getInt(PluginConfigurationKey.SKILLCAP.key, 100);
+			skillCutoff = config.getInt(PluginConfigurationKey.SKILLGROWTHCUTOFF.key, 20);
+			skillUpperCutoff = config.getInt(PluginConfigurationKey.SKILLGROWTHUPPERCUTOFF.key, 20);
+			
+			magicRegenDay = config.getDouble(PluginConfigurationKey.DAYREGEN.key);
+			magicRegenNight = config.getDouble(PluginConfigurationKey.NIGHTREGEN.key);
+			magicRegenKill = config.getDouble(PluginConfigurationKey.KILLREGEN.key);
+			magicRegenXP = config.getDouble(PluginConfigurationKey.XPREGEN.key);
+			magicRegenFood = config.getDouble(PluginConfigurationKey.FOODREGEN.key);
+			skillGrowthOnSuccess = config.getDouble(PluginConfigurationKey.SKILLSUCCESSGROWTH.key, 0.20);
+			skillGrowthOnFail = config.getDouble(PluginConfigurationKey.SKILLFAILGROWTH.key, 0.05);
+			recallCost = config.getDouble(PluginConfigurationKey.RECALLCOST.key);
+			maxPylonDistance = config.getDouble(PluginConfigurationKey.PYLONMAXDISTANCE.key,
+					(Double) PluginConfigurationKey.PYLONMAXDISTANCE.def);
+			autosaveInterval = config.getDouble(PluginConfigurationKey.AUTOSAVEINTERVAL.key,
+					(Double) PluginConfigurationKey.AUTOSAVEINTERVAL.def);
+			
+			compassType = readMaterial(config, PluginConfigurationKey.COMPASSTYPE);
+			alterType = readMaterial(config, PluginConfigurationKey.ALTERTYPE);
+			invokerType = readMaterial(config, PluginConfigurationKey.INVOKERTYPE);
+			recallerType = readMaterial(config, PluginConfigurationKey.RECALLERTYPE);
+			markType = readMaterial(config, PluginConfigurationKey.MARKLOCTYPE);
+			
+			compassName = config.getString(PluginConfigurationKey.COMPASSNAME.key, "Magic Compass");
+			spellHolderName = config.getString(PluginConfigurationKey.HOLDERNAME.key);
+			spellInvokerName = config.getString(PluginConfigurationKey.INVOKERNAME.key);
+			recallerName = config.getString(PluginConfigurationKey.RECALLERNAME.key);
+			
+			musicDurations = Collections.unmodifiableMap(readMusicDurations(config));
+		}
+		
+		/**
+		 * Looks up the material named under the given key. Falls back to the key's default when
+		 * the name isn't a valid material.
+		 */
+		private static Material readMaterial(YamlConfiguration config, PluginConfigurationKey key) {
+			String name = config.getString(key.key, (String) key.def);
+			try {
+				return Material.valueOf(name);
+			} catch (IllegalArgumentException | NullPointerException e) {
+				QuestManagerPlugin.logger.warning("Unable to find the material for " + key.key + ": " + name);
+				return Material.valueOf((String) key.def);
+			}
+		}
+		
+		private static Map<Sound, Double> readMusicDurations(YamlConfiguration config) {
+			Map<Sound, Double> map = new HashMap<>();
+			ConfigurationSection section = config.getConfigurationSection(PluginConfigurationKey.MUSICDURATIONS.key);
+			if (section == null) {
+				return map;
+			}
+			
+			Map<String, Object> configMap = section.getValues(false);
+			for (String key : configMap.keySet()) {
+				try {
+					map.put(Sound.valueOf(key), ((Number) configMap.get(key)).doubleValue());
+				} catch (Exception e) {
+					QuestManagerPlugin.logger.warning("Unable to determine sound from " + key);
+				}
+			}
+			return map;
+		}
+	}
+	
+	/**
+	 * Current snapshot of the config's values. Replaced wholesale whenever the config is reloaded
+	 * or altered, so readers always see a consistent set of values.
+	 */
+	private volatile Snapshot snapshot;
+	
 	protected PluginConfiguration() {
 		config = null;
+		snapshot = null;
 		conservative = (Boolean) PluginConfigurationKey.CONSERVATIVE.def;
 	}
 	
 	public PluginConfiguration(File configFile) {
-		config = new YamlConfiguration();
 		this.conservative = false;
+		load(configFile);
+	}
+	
+	/**
+	 * Re-reads the config file and swaps in the new values in one step.
+	 * Values are left untouched if the file can't be read or the new snapshot can't be built.
+	 */
+	public void reload(File configFile) {
+		load(configFile);
+	}
+	
+	private void load(File configFile) {
+		YamlConfiguration yaml = new YamlConfiguration();
 		
 		if (!configFile.exists() || configFile.isDirectory()) {
 			QuestManagerPlugin.logger.warning(ChatColor.YELLOW + "Unable to find Quest Manager config file!" + ChatColor.RESET);
-			config = createDefaultConfig(configFile);
+			yaml = createDefaultConfig(configFile);
+			if (yaml == null) {
+				yaml = new YamlConfiguration();
+			}
 		} else 	try {
-			config.load(configFile);
+			yaml.load(configFile);
 		} catch (IOException | InvalidConfigurationException e) {
-			// TODO Auto-generated catch block
 			e.printStackTrace();
+			if (snapshot != null) {
+				QuestManagerPlugin.logger.warning("Unable to read Quest Manager config file; keeping current values");
+				return;
+			}
 		}
 		
-		proofConfig();
+		proofConfig(yaml);
+		
+		Snapshot values;
+		try {
+			values = new Snapshot(yaml);
+		} catch (RuntimeException e) {
+			if (snapshot == null) {
+				throw e;
+			}
+			
+			e.printStackTrace();
+			QuestManagerPlugin.logger.warning("Invalid Quest Manager config file; keeping current values");
+			return;
+		}
+		
+		config = yaml;
+		snapshot = values;
+		conservative = config.getBoolean(PluginConfigurationKey.CONSERVATIVE.key, true);
 
-		if (config.getBoolean(PluginConfigurationKey.CONSERVATIVE.key, true)) {
-			this.conservative = true;
+		if (conservative) {
 			QuestManagerPlugin.logger.info("Conservative mode is on,"
 					+ " so invalid configs will simply be ignored instead of destroyed.");
 		}
 		
+		applyDefinitions();
+	}
+	
+	/**
+	 * Rebuilds the snapshot from the backing configuration. Must be called after the backing
+	 * configuration is changed for the change to be visible through the getters.
+	 */
+	protected void refresh() {
+		snapshot = new Snapshot(config);
+	}
+	
+	/**
+	 * Pushes the configured item names and types out to the item definitions that use them
+	 */
+	private void applyDefinitions() {
 		if (getCompassEnabled()) {
 			Compass.CompassDefinition.setCompassType(getCompassType());
 			Compass.CompassDefinition.setDisplayName(getCompassName());
@@ -215,7 +399,7 @@ public class PluginConfiguration {
 		return this.conservative;
 	}
 	
-	private void proofConfig() {
+	private static void proofConfig(YamlConfiguration config) {
 		for (PluginConfigurationKey key : PluginConfigurationKey.values())
 		if (!config.contains(key.getKey()))
 			config.set(key.getKey(), key.getDef());
@@ -226,18 +410,29 @@ public class PluginConfiguration {
 	 * This is simply the reported VERSION number in the configuration file.
 	 */
 	public double getVersion() {
-		return config.getDouble(PluginConfigurationKey.VERSION.key, 0.0);
+		return snapshot.version;
+	}
+	
+	/**
+	 * Returns the names of the worlds that are quest worlds.
+	 * The returned set is unmodifiable, and shared between callers.
+	 */
+	public Set<String> getWorlds() {
+		return snapshot.worlds;
 	}
 	
-	public List<String> getWorlds() {
-		return config.getStringList(PluginConfigurationKey.WORLDS.key);
+	/**
+	 * Checks whether the given world is one of the configured quest worlds
+	 */
+	public boolean isQuestWorld(World world) {
+		return world != null && snapshot.worlds.contains(world.getName());
 	}
 	
 	/**
 	 * Gets the stored quest path information -- where the quest configuration files are stored
 	 */
 	public String getQuestPath() {
-		return config.getString(PluginConfigurationKey.QUESTDIR.key);
+		return snapshot.questPath;
 	}
 	
 	/**
@@ -245,7 +440,7 @@ public class PluginConfiguration {
 	 * active logs should be kept or removed.
 	 */
 	public boolean getKeepOnError() {
-		return config.getBoolean(PluginConfigurationKey.CONSERVATIVE.key, true);
+		return snapshot.keepOnError;
 	}
 	
 	/**
@@ -254,7 +449,7 @@ public class PluginConfiguration {
 	 * that aren't managed by QuestManager in registered QuestWorlds!
 	 */
 	public boolean getVillagerCleanup() {
-		return config.getBoolean(PluginConfigurationKey.CLEANUPVILLAGERS.key);
+		return snapshot.villagerCleanup;
 	}
 	
 	/**
@@ -263,28 +458,28 @@ public class PluginConfiguration {
 	 * as the level of the player.
 	 */
 	public boolean getXPMoney() {
-		return config.getBoolean(PluginConfigurationKey.XPMONEY.key);
+		return snapshot.xpMoney;
 	}
 	
 	/**
 	 * Returns the largest size a party can get
 	 */
 	public int getMaxPartySize() {
-		return config.getInt(PluginConfigurationKey.PARTYSIZE.key);
+		return snapshot.maxPartySize;
 	}
 	
 	/**
 	 * Returns how many summons a player is allowed to have
 	 */
 	public int getSummonLimit() {
-		return config.getInt(PluginConfigurationKey.SUMMONLIMIT.key, 2);
+		return snapshot.summonLimit;
 	}
 	
 	/**
 	 * Can players tame animals in the QuestWorlds?
 	 */
 	public boolean getAllowTaming() {
-		return config.getBoolean(PluginConfigurationKey.ALLOWTAMING.key);
+		return snapshot.allowTaming;
 	}
 	
 	/**
@@ -292,7 +487,7 @@ public class PluginConfiguration {
 	 * When this is on, players will be returned to the last portal they used when leaving registered QuestWorlds.
 	 */
 	public boolean getUsePortals() {
-		return config.getBoolean(PluginConfigurationKey.PORTALS.key);
+		return snapshot.usePortals;
 	}
 	
 	/**
@@ -300,21 +495,21 @@ public class PluginConfiguration {
 	 * Note: Currently, this requires that the name of the mob have "Lvl ###" in it! TODO
 	 */
 	public boolean getAdjustXP() {
-		return config.getBoolean(PluginConfigurationKey.ADJUSTXP.key);
+		return snapshot.adjustXP;
 	}
 	
 	/**
 	 * Returns whether or not magic is set to be enabled
 	 */
 	public boolean getMagicEnabled() {
-		return config.getBoolean(PluginConfigurationKey.ALLOWMAGIC.key);
+		return snapshot.magicEnabled;
 	}
 	
 	/**
 	 * Gets the specified default mana allotment, for new players
 	 */
 	public int getStartingMana() {
-		return config.getInt(PluginConfigurationKey.MANADEFAULT.key);
+		return snapshot.startingMana;
 	}
 	
 	/**
@@ -323,7 +518,7 @@ public class PluginConfiguration {
 	 * @return The amount to regen; positive values indicate a constant, negative a rate (out of 100)
 	 */
 	public double getMagicRegenDay() {
-		return config.getDouble(PluginConfigurationKey.DAYREGEN.key);
+		return snapshot.magicRegenDay;
 	}
 	
 	/**
@@ -331,14 +526,14 @@ public class PluginConfiguration {
 	 * @return The amount to regen; positive values indicate a constant, negative a rate (out of 100)
 	 */
 	public double getMagicRegenNight() {
-		return config.getDouble(PluginConfigurationKey.NIGHTREGEN.key);
+		return snapshot.magicRegenNight;
 	}
 	
 	/**
 	 * @return whether or not mp should regen only when outside
 	 */
 	public boolean getMagicRegenOutside() {
-		return config.getBoolean(PluginConfigurationKey.OUTSIDEREGEN.key);
+		return snapshot.magicRegenOutside;
 	}
 	
 	/**
@@ -346,7 +541,7 @@ public class PluginConfiguration {
 	 * @return The amount to regen; positive values indicate a contant, negative a rate (out of 100)
 	 */
 	public double getMagicRegenKill() {
-		return config.getDouble(PluginConfigurationKey.KILLREGEN.key);
+		return snapshot.magicRegenKill;
 	}
 	
 	/**
@@ -354,7 +549,7 @@ public class PluginConfiguration {
 	 * @return The amount to regen; positive values indicate a constant, negative a rate (out of 100)
 	 */
 	public double getMagicRegenXP() {
-		return config.getDouble(PluginConfigurationKey.XPREGEN.key);
+		return snapshot.magicRegenXP;
 	}
 	
 	/**
@@ -362,7 +557,7 @@ public class PluginConfiguration {
 	 * @return The amount to regen; positive values indicate a constant, negative a rate (out of 100)
 	 */
 	public double getMagicRegenFood() {
-		return config.getDouble(PluginConfigurationKey.FOODREGEN.key);
+		return snapshot.magicRegenFood;
 	}
 	
 	/**
@@ -370,78 +565,71 @@ public class PluginConfiguration {
 	 * This can be used as a security feature to avoid players from spamming old menus!
 	 */
 	public boolean getMenuVerbose() {
-		return config.getBoolean(PluginConfigurationKey.VERBOSEMENUS.key);
+		return snapshot.menuVerbose;
 	}
 	
 	public boolean getAllowCrafting() {
-		return config.getBoolean(PluginConfigurationKey.ALLOWCRAFTING.key);
+		return snapshot.allowCrafting;
 	}
 	
 	/**
 	 * Whether or not renaming of items, entities is allowed through anvils
 	 */
 	public boolean getAllowNaming() {
-		return config.getBoolean(PluginConfigurationKey.ALLOWNAMING.key);
+		return snapshot.allowNaming;
 	}
 	
 	/**
 	 * Returns whether or not titles should be put into chat in all worlds
 	 */
 	public boolean getChatTitle() {
-		return config.getBoolean(PluginConfigurationKey.TITLECHAT.key);
+		return snapshot.chatTitle;
 	}
 	
 	/**
 	 * Returns whether or not compasses are enabled
 	 */
 	public boolean getCompassEnabled() {
-		return config.getBoolean(PluginConfigurationKey.COMPASS.key, true);
+		return snapshot.compassEnabled;
 	}
 	
 	/**
 	 * Gets the configuration's defined material for the compass object
 	 */
 	public Material getCompassType() {
-		try {
-			return Material.valueOf(config.getString(PluginConfigurationKey.COMPASSTYPE.key, "COMPASS"));
-		} catch (IllegalArgumentException e) {
-			QuestManagerPlugin.logger.warning("Unable to find the compass material: " 
-		+ config.getString(PluginConfigurationKey.COMPASSTYPE.key, "COMPASS"));
-			return Material.COMPASS;
-		}
-		
+		return snapshot.compassType;
 	}
 	
 	/**
 	 * Returns the name of the compass object
 	 */
 	public String getCompassName() {
-		return config.getString(PluginConfigurationKey.COMPASSNAME.key, "Magic Compass");
+		return snapshot.compassName;
 	}
 	
 	/**
 	 * Gets the stored save data path information
 	 */
 	public String getSavePath() {
-		return config.getString(PluginConfigurationKey.SAVEDIR.key);
+		return snapshot.savePath;
 	}
 	
 	/**
 	 * Returns the path to where region data including enemy spawn data is kept
 	 */
 	public String getRegionPath() {
-		return config.getString(PluginConfigurationKey.REGIONDIR.key);
+		return snapshot.regionPath;
 	}
 	
 	/**
 	 * Returns the path to where spell configuration
 	 */
 	public String getSpellPath() {
-		return config.getString(PluginConfigurationKey.SPELLDIR.key);
+		return snapshot.spellPath;
 	}
 	
 	public String getSkillPath() {
-		return config.getString(PluginConfigurationKey.SKILLDIR.key);
+		return snapshot.skillPath;
 	}
 	
 	/**
@@ -449,19 +637,19 @@ public class PluginConfiguration {
 	 * Defaults to <i>100</i> if it is absent from the config.
 	 */
 	public int getSkillCap() {
-		return config.getInt(PluginConfigurationKey.SKILLCAP.key, 100);
+		return snapshot.skillCap;
 	}
 	
 	public double getSkillGrowthOnSuccess() {
-		return config.getDouble(PluginConfigurationKey.SKILLSUCCESSGROWTH.key, 0.20);
+		return snapshot.skillGrowthOnSuccess;
 	}
 	
 	public double getSkillGrowthOnFail() {
-		return config.getDouble(PluginConfigurationKey.SKILLFAILGROWTH.key, 0.05);
+		return snapshot.skillGrowthOnFail;
 	}
 	
 	public int getSkillCutoff() {
-		return config.getInt(PluginConfigurationKey.SKILLGROWTHCUTOFF.key, 20);
+		return snapshot.skillCutoff;
 	}
 	
 	/**
@@ -469,56 +657,56 @@ public class PluginConfiguration {
 	 * will still get xp on failure.
 	 */
 	public int getSkillUpperCutoff() {
-		return config.getInt(PluginConfigurationKey.SKILLGROWTHUPPERCUTOFF.key, 20);
+		return snapshot.skillUpperCutoff;
 	}
 	
 	/**
 	 * Gets the name of the spell holders
 	 */
 	public String getSpellHolderName() {
-		return config.getString(PluginConfigurationKey.HOLDERNAME.key);
+		return snapshot.spellHolderName;
 	}
 	
 	/**
 	 * Gets the material block type used for spell holder alteration
 	 */
 	public Material getAlterType() {
-		return Material.valueOf(config.getString(PluginConfigurationKey.ALTERTYPE.key));
+		return snapshot.alterType;
 	}
 	
 	/**
 	 * Gets whether spell weaving is enabled on this server
 	 */
 	public boolean getAllowSpellWeaving() {
-		return config.getBoolean(PluginConfigurationKey.ALLOWWEAVING.key, true);
+		return snapshot.allowSpellWeaving;
 	}
 	
 	/**
 	 * Gets whther or not to use the spell invoker
 	 */
 	public boolean getUseWeavingInvoker() {
-		return config.getBoolean(PluginConfigurationKey.USEINVOKER.key, true);
+		return snapshot.useWeavingInvoker;
 	}
 	
 	/**
 	 * This manager's custom invoker name
 	 */
 	public String getSpellInvokerName() {
-		return config.getString(PluginConfigurationKey.INVOKERNAME.key);
+		return snapshot.spellInvokerName;
 	}
 	
 	/**
 	 * The material used to stand for the spell weaving invoker
 	 */
 	public Material getInvokerType() {
-		return Material.valueOf(config.getString(PluginConfigurationKey.INVOKERTYPE.key));
+		return snapshot.invokerType;
 	}
 	
 	/**
 	 * The material used to stand for the mark/recall item
 	 */
 	public Material getRecallerType() {
-		return Material.valueOf(config.getString(PluginConfigurationKey.RECALLERTYPE.key));
+		return snapshot.recallerType;
 	}
 	
 	/**
@@ -526,7 +714,7 @@ public class PluginConfiguration {
 	 * @return
 	 */
 	public Material getMarkType() {
-		return Material.valueOf(config.getString(PluginConfigurationKey.MARKLOCTYPE.key));
+		return snapshot.markType;
 	}
 	
 	/**
@@ -534,7 +722,7 @@ public class PluginConfiguration {
 	 * @return
 	 */
 	public boolean singleRecall() {
-		return config.getBoolean(PluginConfigurationKey.MARKONCE.key);
+		return snapshot.singleRecall;
 	}
 	
 	/**
@@ -542,7 +730,7 @@ public class PluginConfiguration {
 	 * @return
 	 */
 	public double getRecallCost() {
-		return config.getDouble(PluginConfigurationKey.RECALLCOST.key);
+		return snapshot.recallCost;
 	}
 	
 	/**
@@ -550,30 +738,26 @@ public class PluginConfiguration {
 	 * @return
 	 */
 	public String getRecallerName() {
-		return config.getString(PluginConfigurationKey.RECALLERNAME.getKey());
+		return snapshot.recallerName;
 	}
 
+	/**
+	 * Returns the known durations of music sounds. The returned map is unmodifiable.
+	 */
 	public Map<Sound, Double> getMusicDurations() {
-		Map<Sound, Double> map = new HashMap<>();
-		Map<String, Object> configMap = config.getConfigurationSection(PluginConfigurationKey.MUSICDURATIONS.key)
-				.getValues(false);
-//		if (!config.contains(PluginConfigurationKey.MUSICDURATIONS.key)) {
-//			configMap = (Map<S, Double>) PluginConfigurationKey.MUSICDURATIONS.getDef();
-//		}
-		
-		//for (String key : config.getConfigurationSection(PluginConfigurationKey.MUSICDURATIONS.key).getKeys(false)) {
-		for (String key : configMap.keySet()) {
-			try {
-				map.put(Sound.valueOf(key), (Double) configMap.get(key));
-			} catch (Exception e) {
-				QuestManagerPlugin.logger.warning("Unable to determine sound from " + key);
-			}
-		}
-		return map;
+		return snapshot.musicDurations;
 	}
 	
 	public Double getMaxPylonDistance() {
-		return config.getDouble(PluginConfigurationKey.PYLONMAXDISTANCE.key, (Double) PluginConfigurationKey.PYLONMAXDISTANCE.def);
+		return snapshot.maxPylonDistance;
+	}
+	
+	/**
+	 * Returns how often, in seconds, save data is written in the background.
+	 * Values of zero or less mean data is only saved when the plugin is disabled.
+	 */
+	public double getAutosaveInterval() {
+		return snapshot.autosaveInterval;
 	}
 	
 	public Object getBaseValue(PluginConfigurationKey key) {
@@ -587,6 +771,7 @@ public class PluginConfiguration {
 			yaml.set(key.key, key.getDef());
 		}
 		config.config = yaml;
+		config.refresh();
 		return config;
 	}
 	
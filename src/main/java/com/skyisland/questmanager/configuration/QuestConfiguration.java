@@ -37,6 +37,8 @@ import com.skyisland.questmanager.npc.SimpleQuestStartNPC;
 import com.skyisland.questmanager.player.Participant;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.quest.Goal;
+import com.skyisland.questmanager.quest.GoalTemplate;
+import com.skyisland.questmanager.quest.Prerequisite;
 import com.skyisland.questmanager.quest.Quest;
 import com.skyisland.questmanager.quest.requirements.Requirement;
 import com.skyisland.questmanager.ui.menu.message.Message;
@@ -57,9 +59,11 @@ public class QuestConfiguration {
 	
 	private YamlConfiguration config;
 	
-	private Map<Integer, ConfigurationSection> goalCache;
+	private Map<Integer, GoalTemplate> goalTemplates;
 	
 	private int firstKey;
+	
+	private List<Prerequisite> prerequisites;
 		
 	public QuestConfiguration(YamlConfiguration config) throws InvalidConfigurationException {
 		
@@ -78,6 +82,8 @@ public class QuestConfiguration {
 		//check config has all the fields we need, for safety
 		checkConfig();
 		
+		prerequisites = Prerequisite.compile(getRequiredQuests());
+		compileGoals();
 	}
 	
 	
@@ -163,6 +169,13 @@ public class QuestConfiguration {
 				
 	}
 	
+	/**
+	 * Returns the {@link #getRequiredQuests() required quests}, compiled when the configuration was loaded
+	 */
+	public List<Prerequisite> getPrerequisites() {
+		return prerequisites;
+	}
+	
 	public boolean getUseParty() {
 		return config.getBoolean(
 				QuestConfigurationField.USEPARTY.getKey(),
@@ -300,10 +313,6 @@ public class QuestConfiguration {
 			throw new SessionConflictException();
 		}
 		
-		if (goalCache == null) {
-			fetchGoalCache();
-		}
-			
 		Quest quest = new Quest(this, participant);
 		
 		quest.setGoal(fetchFirstGoal(quest));
@@ -346,22 +355,25 @@ public class QuestConfiguration {
 	 * @throws InvalidConfigurationException 
 	 */
 	public Goal fetchGoal(Quest hostQuest, int key) throws InvalidConfigurationException {
-		if (goalCache == null)
-			fetchGoalCache();
-		if (!goalCache.containsKey(key))
+		GoalTemplate template = goalTemplates.get(key);
+		if (template == null)
 			return null;
 	
-		return Goal.fromConfig(hostQuest, key, goalCache.get(key));
+		return template.instance(hostQuest);
 	}
 	
 	public Goal fetchFirstGoal(Quest hostQuest) throws InvalidConfigurationException {
 		return fetchGoal(hostQuest, firstKey);
 	}
 	
-	private void fetchGoalCache() {
+	/**
+	 * Parses every goal in the quest into a {@link GoalTemplate}
+	 * @throws InvalidConfigurationException if any goal is malformed
+	 */
+	private void compileGoals() throws InvalidConfigurationException {
 		ConfigurationSection questSection = config.getConfigurationSection(
 				QuestConfigurationField.GOALS.getKey());
-		goalCache = new HashMap<>();
+		goalTemplates = new HashMap<>();
 		boolean first = true;
 		
 		if (questSection == null)
@@ -376,7 +388,20 @@ public class QuestConfiguration {
 				continue;
 			}
 			
-			goalCache.put(mapKey, questSection.getConfigurationSection(key));
+			ConfigurationSection goalSection = questSection.getConfigurationSection(key);
+			if (goalSection == null) {
+				throw new InvalidConfigurationException("Goal " + key + " in quest " + getName()
+						+ " is not a section");
+			}
+			
+			try {
+				goalTemplates.put(mapKey, GoalTemplate.compile(mapKey, goalSection));
+			} catch (InvalidConfigurationException e) {
+				QuestManagerPlugin.logger.warning("Invalid goal " + key + " in quest " + getName()
+						+ ": " + e.getMessage());
+				throw e;
+			}
+			
 			if (first || firstKey > mapKey) {
 				firstKey = mapKey;
 				first = false;
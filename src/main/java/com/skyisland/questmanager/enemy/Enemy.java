@@ -18,8 +18,6 @@
 
 package com.skyisland.questmanager.enemy;
 
-import java.util.List;
-import java.util.Random;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -27,11 +25,8 @@ import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.metadata.FixedMetadataValue;
-import org.bukkit.metadata.MetadataValue;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.enemy.events.EnemyDeathEvent;
@@ -41,8 +36,12 @@ import com.skyisland.questmanager.region.Region;
  * Depicts a QM enemy, which can be created or destroyed as the world loads and unloads.
  * Each enemy object represents a unique, spawnable enemy type. Each instance of an enemy is created from this
  * class when spawning things, but this class doesn't hold instances.
+ * <p>
+ * Enemies register with the {@link EnemyRegistry} when created, which routes deaths of the
+ * entities they spawn back to them.
+ * </p>
  */
-public abstract class Enemy implements ConfigurationSerializable, Listener {
+public abstract class Enemy implements ConfigurationSerializable {
 	
 	protected EntityType type;
 	
@@ -56,11 +55,10 @@ public abstract class Enemy implements ConfigurationSerializable, Listener {
 	 */
 	protected String enemyClassID;
 	
-	private static int enemyClassIDIndex;
-	
-	{
-		enemyClassIDIndex = ((new Random()).nextInt(4000));
-	}
+	/**
+	 * Next class ID to hand out. Only ever counts up, so IDs are never reused while the server runs
+	 */
+	private static int enemyClassIDIndex = 0;
 	
 	public static final String CLASS_META_KEY = "QMEnemySpawnClass";
 	
@@ -68,15 +66,20 @@ public abstract class Enemy implements ConfigurationSerializable, Listener {
 		this.enemyClassID = generateNewEnemyClassID();
 		this.name = name;
 		this.type = type;
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getEnemyRegistry().register(this);
 	}
 	
-	public void spawn(Location loc) {
+	/**
+	 * Spawns an instance of this enemy at the given location
+	 * @return the spawned entity
+	 */
+	public Entity spawn(Location loc) {
 		Entity e = loc.getWorld().spawnEntity(loc, type);
 		e.setMetadata(Enemy.CLASS_META_KEY, new FixedMetadataValue(
 				QuestManagerPlugin.questManagerPlugin,
 				this.enemyClassID
 				));
+		new EnemyAttributes(EnemyAttributes.parseLevel(name), enemyClassID, spawningRegion).attach(e);
 		e.setCustomName(name);
 		e.setCustomNameVisible(true);
 		
@@ -84,6 +87,11 @@ public abstract class Enemy implements ConfigurationSerializable, Listener {
 			((LivingEntity) e).setRemoveWhenFarAway(false);
 		
 		spawnEntity(e);
+		return e;
+	}
+	
+	public String getEnemyClassID() {
+		return enemyClassID;
 	}
 	
 	public void setSpawningRegion(Region region) {
@@ -104,36 +112,14 @@ public abstract class Enemy implements ConfigurationSerializable, Listener {
 		return "_BASEenemyID_" + Enemy.enemyClassIDIndex++; 
 	}
 	
-	@EventHandler
-	public void onEnemyDeath(EntityDeathEvent e) {
-		if (!QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getWorlds().contains(
-				e.getEntity().getWorld().getName()))
-			return;
-			
-		List<MetadataValue> metas = e.getEntity().getMetadata(CLASS_META_KEY);
-		if (metas == null || metas.isEmpty()) {
-			return;
-		}
-		
-		
-		//eliminate those that have a different EntityType right away, for performance
-		if (e.getEntityType() != this.type) {
-			return;
-		}
-		for (MetadataValue meta : metas) {
-			if (!meta.getOwningPlugin().getName().equals(QuestManagerPlugin.questManagerPlugin.getName())) {
-				continue;
-			}
-			
-			//same plugin and same key. Use it.
-			if (meta.asString().equals(enemyClassID)) {
-				EnemyDeathEvent event = new EnemyDeathEvent(spawningRegion, e);
-				Bukkit.getPluginManager().callEvent(event);
-				handleDeath(e);
-				return;
-			}
-		}
-
+	/**
+	 * Called by the {@link EnemyRegistry} when an entity this enemy spawned dies
+	 */
+	void onDeath(EntityDeathEvent e, EnemyAttributes attributes) {
+		Region region = attributes.getSpawningRegion();
+		EnemyDeathEvent event = new EnemyDeathEvent(region == null ? spawningRegion : region, e);
+		Bukkit.getPluginManager().callEvent(event);
+		handleDeath(e);
 	}
 	
 	/**
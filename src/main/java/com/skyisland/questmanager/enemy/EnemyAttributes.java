@@ -0,0 +1,145 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.enemy;
+
+import java.util.List;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.metadata.MetadataValue;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.region.Region;
+
+/**
+ * Information about a spawned enemy, attached to its entity as metadata when it's spawned.
+ * <p>
+ * Everything that needs to know an enemy's level should ask through {@link #getLevel(Entity)}
+ * rather than reading its name. Entities QM didn't spawn but that are named in the old
+ * "Name (Lvl N)" style have their level read from their name the first time they're asked about,
+ * and then remembered the same way.
+ * </p>
+ */
+public final class EnemyAttributes {
+	
+	public static final String META_KEY = "QMEnemyAttributes";
+	
+	/**
+	 * Level of enemies whose level isn't known
+	 */
+	public static final int NO_LEVEL = -1;
+	
+	private static final String LEVEL_PREFIX = "(Lvl ";
+	
+	private final int level;
+	
+	private final String enemyClassID;
+	
+	private final Region spawningRegion;
+	
+	public EnemyAttributes(int level, String enemyClassID, Region spawningRegion) {
+		this.level = level;
+		this.enemyClassID = enemyClassID;
+		this.spawningRegion = spawningRegion;
+	}
+	
+	/**
+	 * @return the enemy's level, or {@link #NO_LEVEL} if it doesn't have one
+	 */
+	public int getLevel() {
+		return level;
+	}
+	
+	/**
+	 * @return the {@link Enemy} class ID of what spawned this enemy, or null if QM didn't spawn it
+	 */
+	public String getEnemyClassID() {
+		return enemyClassID;
+	}
+	
+	/**
+	 * @return the region this enemy was spawned for, or null if there wasn't one
+	 */
+	public Region getSpawningRegion() {
+		return spawningRegion;
+	}
+	
+	public void attach(Entity entity) {
+		entity.setMetadata(META_KEY, new FixedMetadataValue(QuestManagerPlugin.questManagerPlugin, this));
+	}
+	
+	/**
+	 * Looks up the attributes of the given entity.
+	 * @return the attributes, or null if the entity isn't an enemy spawned by QM and doesn't have
+	 * a level in its name
+	 */
+	public static EnemyAttributes get(Entity entity) {
+		List<MetadataValue> metas = entity.getMetadata(META_KEY);
+		for (MetadataValue meta : metas) {
+			if (meta.value() instanceof EnemyAttributes) {
+				return (EnemyAttributes) meta.value();
+			}
+		}
+		
+		int level = parseLevel(entity.getCustomName());
+		if (level == NO_LEVEL) {
+			return null;
+		}
+		
+		EnemyAttributes attributes = new EnemyAttributes(level, null, null);
+		attributes.attach(entity);
+		return attributes;
+	}
+	
+	/**
+	 * Returns the level of the given entity
+	 * @return the level, or {@link #NO_LEVEL} if it doesn't have one
+	 */
+	public static int getLevel(Entity entity) {
+		EnemyAttributes attributes = get(entity);
+		return (attributes == null ? NO_LEVEL : attributes.level);
+	}
+	
+	/**
+	 * Reads a level out of a name in the format "Name (Lvl N)"
+	 * @return the level, or {@link #NO_LEVEL} if there isn't one
+	 */
+	public static int parseLevel(String name) {
+		if (name == null) {
+			return NO_LEVEL;
+		}
+		
+		int pos = name.indexOf(LEVEL_PREFIX);
+		if (pos == -1) {
+			return NO_LEVEL;
+		}
+		
+		pos += LEVEL_PREFIX.length();
+		int end = pos;
+		while (end < name.length() && Character.isDigit(name.charAt(end))) {
+			end++;
+		}
+		
+		if (end == pos) {
+			return NO_LEVEL;
+		}
+		
+		return Integer.parseInt(name.substring(pos, end));
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.enemy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+
+/**
+ * Keeps every {@link Enemy} definition by its class ID, and hands entity deaths to the definition
+ * that spawned the entity.
+ * <p>
+ * Enemies register themselves when they're created. Spawned entities carry their class ID in
+ * their {@link EnemyAttributes}, so a death only takes one lookup to route.
+ * </p>
+ */
+public class EnemyRegistry implements Listener {
+	
+	private Map<String, Enemy> enemies;
+	
+	public EnemyRegistry() {
+		enemies = new HashMap<>();
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+	}
+	
+	/**
+	 * Registers the enemy under its class ID. An enemy whose ID is already taken by another
+	 * enemy isn't registered, so the existing definition keeps receiving its deaths.
+	 * @return false if another enemy already has the ID
+	 */
+	public boolean register(Enemy enemy) {
+		Enemy existing = enemies.putIfAbsent(enemy.getEnemyClassID(), enemy);
+		if (existing != null && existing != enemy) {
+			QuestManagerPlugin.logger.warning("Enemy " + enemy.name + " has the same class ID ("
+					+ enemy.getEnemyClassID() + ") as " + existing.name + ", and won't be registered");
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Removes the enemy, if it's the one registered under its class ID
+	 */
+	public void unregister(Enemy enemy) {
+		enemies.remove(enemy.getEnemyClassID(), enemy);
+	}
+	
+	public void clear() {
+		enemies.clear();
+	}
+	
+	/**
+	 * Unregisters every enemy and stops routing deaths
+	 */
+	public void close() {
+		clear();
+		HandlerList.unregisterAll(this);
+	}
+	
+	/**
+	 * Looks up the enemy definition with the given class ID
+	 * @return the enemy, or null if none is registered under that ID
+	 */
+	public Enemy getEnemy(String enemyClassID) {
+		return (enemyClassID == null ? null : enemies.get(enemyClassID));
+	}
+	
+	@EventHandler
+	public void onEntityDeath(EntityDeathEvent e) {
+		if (!QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().isQuestWorld(e.getEntity().getWorld())) {
+			return;
+		}
+		
+		EnemyAttributes attributes = EnemyAttributes.get(e.getEntity());
+		if (attributes == null) {
+			return;
+		}
+		
+		Enemy enemy = getEnemy(attributes.getEnemyClassID());
+		if (enemy != null) {
+			enemy.onDeath(e, attributes);
+		}
+	}
+}
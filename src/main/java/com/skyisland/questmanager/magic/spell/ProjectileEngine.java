@@ -0,0 +1,310 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.magic.spell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.Vector;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+
+/**
+ * Moves every live {@link SpellProjectile} from a single repeating task.
+ * <p>
+ * Collisions are checked against a snapshot of the living entities near the projectiles, taken
+ * at most once per chunk per tick. Each step is tested as a line segment against every nearby
+ * entity's bounding box, and the closest entity along the segment is the one that's hit.
+ * </p>
+ * <p>
+ * The task only runs while there are projectiles in flight.
+ * </p>
+ */
+public final class ProjectileEngine implements Runnable {
+	
+	/**
+	 * How far from an entity's box a projectile still counts as hitting it
+	 */
+	private static final double PROJECTILE_RADIUS = .5;
+	
+	/**
+	 * Half the width of the box used for entities. The Bukkit API doesn't expose entity bounds,
+	 * so this is roughly that of a player or zombie.
+	 */
+	private static final double ENTITY_HALF_WIDTH = .3;
+	
+	/**
+	 * Added to an entity's eye height to get the height of its box
+	 */
+	private static final double HEAD_HEIGHT = .2;
+	
+	/**
+	 * Living entities in one chunk, with their boxes stored as
+	 * minX, minY, minZ, maxX, maxY, maxZ in <i>bounds</i>
+	 */
+	private static final class Bucket {
+		
+		private static final Bucket EMPTY = new Bucket(new LivingEntity[0], new double[0]);
+		
+		private final LivingEntity[] entities;
+		
+		private final double[] bounds;
+		
+		private Bucket(LivingEntity[] entities, double[] bounds) {
+			this.entities = entities;
+			this.bounds = bounds;
+		}
+	}
+	
+	private static ProjectileEngine engine = null;
+	
+	public static ProjectileEngine getEngine() {
+		if (engine == null) {
+			engine = new ProjectileEngine();
+		}
+		
+		return engine;
+	}
+	
+	private List<SpellProjectile> projectiles;
+	
+	private BukkitTask task;
+	
+	/**
+	 * This tick's entity snapshot; world -> chunk key -> bucket
+	 */
+	private Map<World, Map<Long, Bucket>> snapshot;
+	
+	private Location scratch;
+	
+	/**
+	 * Segment range left after clipping, used by {@link #intersect}
+	 */
+	private double enter, exit;
+	
+	private ProjectileEngine() {
+		this.projectiles = new ArrayList<>();
+		this.snapshot = new HashMap<>();
+		this.scratch = new Location(null, 0, 0, 0);
+		this.task = null;
+	}
+	
+	/**
+	 * Starts moving the projectile, beginning next tick
+	 */
+	public void launch(SpellProjectile projectile) {
+		projectiles.add(projectile);
+		if (task == null) {
+			task = Bukkit.getScheduler().runTaskTimer(QuestManagerPlugin.questManagerPlugin, this, 1, 1);
+		}
+	}
+	
+	/**
+	 * Stops the timer and drops every projectile in flight. The timer is started again
+	 * by the next {@link #launch(SpellProjectile) launch}.
+	 */
+	public void shutdown() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		
+		projectiles.clear();
+		snapshot.clear();
+	}
+	
+	public int getProjectileCount() {
+		return projectiles.size();
+	}
+	
+	@Override
+	public void run() {
+		int size = projectiles.size();
+		for (int i = 0; i < size; i++) {
+			SpellProjectile projectile = projectiles.get(i);
+			boolean done;
+			try {
+				done = projectile.tick(this);
+			} catch (Exception e) {
+				e.printStackTrace();
+				done = true;
+			}
+			
+			if (done) {
+				//swap with the last one so removal doesn't shift the list
+				projectiles.set(i, projectiles.get(size - 1));
+				projectiles.remove(size - 1);
+				size--;
+				i--;
+			}
+		}
+		
+		snapshot.clear();
+		
+		if (projectiles.isEmpty()) {
+			task.cancel();
+			task = null;
+		}
+	}
+	
+	private static long chunkKey(int x, int z) {
+		return (((long) x) << 32) | (z & 0xFFFFFFFFL);
+	}
+	
+	private Bucket getBucket(World world, int chunkX, int chunkZ) {
+		Map<Long, Bucket> chunks = snapshot.get(world);
+		if (chunks == null) {
+			chunks = new HashMap<>();
+			snapshot.put(world, chunks);
+		}
+		
+		long key = chunkKey(chunkX, chunkZ);
+		Bucket bucket = chunks.get(key);
+		if (bucket != null) {
+			return bucket;
+		}
+		
+		if (!world.isChunkLoaded(chunkX, chunkZ)) {
+			bucket = Bucket.EMPTY;
+		} else {
+			Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+			Entity[] entities = chunk.getEntities();
+			LivingEntity[] living = new LivingEntity[entities.length];
+			double[] bounds = new double[entities.length * 6];
+			int count = 0;
+			for (Entity entity : entities) {
+				if (!(entity instanceof LivingEntity) || entity.isDead()) {
+					continue;
+				}
+				
+				LivingEntity live = (LivingEntity) entity;
+				live.getLocation(scratch);
+				int b = count * 6;
+				bounds[b] = scratch.getX() - ENTITY_HALF_WIDTH;
+				bounds[b + 1] = scratch.getY();
+				bounds[b + 2] = scratch.getZ() - ENTITY_HALF_WIDTH;
+				bounds[b + 3] = scratch.getX() + ENTITY_HALF_WIDTH;
+				bounds[b + 4] = scratch.getY() + live.getEyeHeight() + HEAD_HEIGHT;
+				bounds[b + 5] = scratch.getZ() + ENTITY_HALF_WIDTH;
+				living[count++] = live;
+			}
+			
+			bucket = (count == 0 ? Bucket.EMPTY :
+				new Bucket(Arrays.copyOf(living, count), Arrays.copyOf(bounds, count * 6)));
+		}
+		
+		chunks.put(key, bucket);
+		return bucket;
+	}
+	
+	/**
+	 * Finds the living entity first hit by a projectile moving from <i>from</i> by <i>step</i>.
+	 * @param ignore An entity that can't be hit, like the caster. May be null.
+	 * @return the closest entity hit, or null if the step hits nothing
+	 */
+	LivingEntity findHit(Location from, Vector step, Entity ignore) {
+		World world = from.getWorld();
+		double x = from.getX(), y = from.getY(), z = from.getZ();
+		double dx = step.getX(), dy = step.getY(), dz = step.getZ();
+		
+		//entities are bucketed by where they stand, but their boxes can reach into the next chunk
+		double reach = PROJECTILE_RADIUS + ENTITY_HALF_WIDTH;
+		int minChunkX = ((int) Math.floor(Math.min(x, x + dx) - reach)) >> 4,
+			maxChunkX = ((int) Math.floor(Math.max(x, x + dx) + reach)) >> 4,
+			minChunkZ = ((int) Math.floor(Math.min(z, z + dz) - reach)) >> 4,
+			maxChunkZ = ((int) Math.floor(Math.max(z, z + dz) + reach)) >> 4;
+		
+		LivingEntity closest = null;
+		double closestT = Double.MAX_VALUE;
+		
+		for (int cx = minChunkX; cx <= maxChunkX; cx++)
+		for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+			Bucket bucket = getBucket(world, cx, cz);
+			for (int i = 0; i < bucket.entities.length; i++) {
+				if (bucket.entities[i].equals(ignore)) {
+					continue;
+				}
+				
+				double t = intersect(bucket.bounds, i * 6, x, y, z, dx, dy, dz);
+				if (t < closestT) {
+					closestT = t;
+					closest = bucket.entities[i];
+				}
+			}
+		}
+		
+		return closest;
+	}
+	
+	/**
+	 * Slab test of the segment from (x, y, z) to (x + dx, y + dy, z + dz) against the box starting
+	 * at <i>offset</i> in <i>bounds</i>, grown by {@link #PROJECTILE_RADIUS}.
+	 * @return how far along the segment the box is entered, from 0 to 1,
+	 * or {@link Double#MAX_VALUE} if it's missed
+	 */
+	private double intersect(double[] bounds, int offset,
+			double x, double y, double z, double dx, double dy, double dz) {
+		enter = 0;
+		exit = 1;
+		
+		if (!clip(bounds[offset], bounds[offset + 3], x, dx)
+				|| !clip(bounds[offset + 1], bounds[offset + 4], y, dy)
+				|| !clip(bounds[offset + 2], bounds[offset + 5], z, dz)) {
+			return Double.MAX_VALUE;
+		}
+		
+		return enter;
+	}
+	
+	/**
+	 * Narrows {@link #enter} and {@link #exit} to the part of the segment between <i>min</i> and
+	 * <i>max</i> on one axis
+	 * @return false if the segment misses the slab entirely
+	 */
+	private boolean clip(double min, double max, double origin, double dir) {
+		min -= PROJECTILE_RADIUS;
+		max += PROJECTILE_RADIUS;
+		
+		if (dir == 0) {
+			return (origin >= min && origin <= max);
+		}
+		
+		double t1 = (min - origin) / dir,
+			t2 = (max - origin) / dir;
+		if (t1 > t2) {
+			double swap = t1;
+			t1 = t2;
+			t2 = swap;
+		}
+		
+		enter = Math.max(enter, t1);
+		exit = Math.min(exit, t2);
+		return (enter <= exit);
+	}
+}
@@ -18,20 +18,17 @@
 
 package com.skyisland.questmanager.magic.spell;
 
-import java.util.Collection;
-import java.util.Iterator;
-
-import org.bukkit.Bukkit;
 import org.bukkit.Effect;
 import org.bukkit.Location;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.util.Vector;
 
-import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.magic.MagicUser;
 
-public class SpellProjectile implements Runnable {
+/**
+ * A spell in flight. Projectiles are moved and checked for hits by the {@link ProjectileEngine}.
+ */
+public class SpellProjectile {
 	
 	private TargetSpell sourceSpell;
 	
@@ -45,6 +42,11 @@ public class SpellProjectile implements Runnable {
 	
 	private int distance;
 	
+	/**
+	 * Ticks left until the projectile next moves
+	 */
+	private int wait;
+	
 	private Location location;
 	
 	private Vector direction;
@@ -71,81 +73,53 @@ public class SpellProjectile implements Runnable {
 			perTick = (int) Math.round(1 / rate);
 		}
 		
-		Bukkit.getScheduler().runTaskLater(QuestManagerPlugin.questManagerPlugin, this, delay);
+		wait = delay;
+		ProjectileEngine.getEngine().launch(this);
 	}
 	
-	@Override
-	public void run() {
+	/**
+	 * Called by the engine every tick. Moves the projectile if it's due to, one block at a time.
+	 * @return true once the projectile has hit something or fizzled out
+	 */
+	boolean tick(ProjectileEngine engine) {
+		if (--wait > 0) {
+			return false;
+		}
+		wait = delay;
+		
 		for (int i = 0; i < perTick; i++) {
 			distance++;
-			//move forward a block, check for collision
+			//move forward a block, check for collision along the way
+			LivingEntity hit = engine.findHit(location, direction, caster.getEntity());
 			location.add(direction);
 			
 			if (effect != null) {
 				location.getWorld().playEffect(location, effect, 0);
 			}
 			
-			Collection<Entity> e = location.getWorld().getNearbyEntities(location, .5, .5, .5);
-			filterLiving(e);
-			
-			if (!e.isEmpty()) {
-				//hit an entity
-				double rad = .5;
-				while (e.size() > 1 && rad >= 0) {
-					rad -= .1;
-					e = location.getWorld().getNearbyEntities(location, rad, rad, rad);
-					filterLiving(e);					
-				}
-				
-				if (e.size() < 1) {
-					//too far
-					rad += .1; //step back
-					e = location.getWorld().getNearbyEntities(location, rad, rad, rad);
-					filterLiving(e);
-				}
-				
-				if (e.isEmpty()) {
-					//messed up
-					System.out.println("Messed up on magic projectile!");
-					continue;
-					
-				}
-				
-				LivingEntity hit = (LivingEntity) e.iterator().next();
+			if (hit != null) {
 				sourceSpell.onEntityHit(caster, hit);
-				return;
+				return true;
+			}
+			
+			//don't load chunks just to fly through them
+			if (!location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+				return true;
 			}
 			
 			//didn't hit entity. Did it hit a block?
 			if (location.getBlock().getType().isSolid()) {
 				sourceSpell.onBlockHit(caster, location);
-				return;
+				return true;
 			}
 			
 			//make sure we don't move too far
 			if (distance > maxDistance) {
-				return; //fizzle, reached end of line
+				return true; //fizzle, reached end of line
 			}
 			
 		}
 		
-		//end of loop, no return, so reschedule
-		Bukkit.getScheduler().runTaskLater(QuestManagerPlugin.questManagerPlugin, this, delay);
-	}
-	
-	private void filterLiving(Collection<Entity> set) {
-		if (set == null || set.isEmpty()) {
-			return;
-		}
-		
-		Iterator<Entity> it = set.iterator();
-		
-		while (it.hasNext()) {
-			Entity next = it.next();
-			if (!(next instanceof LivingEntity) || next.equals(caster.getEntity())) {
-				it.remove();
-			}
-		}
-		
+		return false;
 	}
 }
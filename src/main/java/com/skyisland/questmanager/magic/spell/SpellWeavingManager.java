@@ -26,6 +26,7 @@ import org.bukkit.ChatColor;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.SaveService;
 import com.skyisland.questmanager.magic.spell.effect.CastPylonEffect;
 
 /**
@@ -44,7 +45,7 @@ import com.skyisland.questmanager.magic.spell.effect.CastPylonEffect;
  * @see SpellWeavingSpell
  *
  */
-public class SpellWeavingManager {
+public class SpellWeavingManager implements SaveService.Saveable {
 
 	public static final String BAD_RECIPE_MESSAGE = ChatColor.YELLOW + "Your woven spell energies failed to create"
 			+ " any meaningful effects" + ChatColor.RESET;
@@ -53,10 +54,19 @@ public class SpellWeavingManager {
 	
 	private List<SpellWeavingSpell> orderedSpells;
 	
+	private File configFile;
+	
+	/**
+	 * Whether spells have been registered since the spells were last saved
+	 */
+	private boolean dirty;
+	
 	@SuppressWarnings("unchecked")
 	public SpellWeavingManager(File configFile) {
 		spells = new LinkedList<>();
 		orderedSpells = new LinkedList<>();
+		this.configFile = configFile;
+		this.dirty = false;
 		
 		if (configFile == null || !configFile.exists()) {
 			return;
@@ -86,6 +96,24 @@ public class SpellWeavingManager {
 			return;
 		}
 		
+		QuestManagerPlugin.questManagerPlugin.getSaveService().writeNow(outfile, snapshot());
+		dirty = false;
+	}
+	
+	/**
+	 * Saves the spells in the background if any were registered since they were last saved
+	 */
+	@Override
+	public void autosave(SaveService service) {
+		if (!dirty || configFile == null) {
+			return;
+		}
+		
+		service.write(configFile, snapshot());
+		dirty = false;
+	}
+	
+	private SaveService.YamlSnapshot snapshot() {
 		YamlConfiguration config = new YamlConfiguration();
 		
 		List<SpellWeavingSpell> list = new LinkedList<>(spells);
@@ -93,14 +121,7 @@ public class SpellWeavingManager {
 		
 		config.set("spells", list);
 		
-		try {
-			config.save(outfile);
-		} catch (Exception e) {
-			e.printStackTrace();
-			QuestManagerPlugin.logger.warning("Ditch message: [" 
-					+ config.saveToString() + "]");
-		}
-			
+		return SaveService.snapshot(config);
 	}
 	
 	/**
@@ -129,6 +150,7 @@ public class SpellWeavingManager {
 			this.spells.add(spell);
 		}
 		
+		dirty = true;
 		return true;
 	}
 	
@@ -3,7 +3,7 @@ package com.skyisland.questmanager.magic.spell.status;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 
 import com.skyisland.questmanager.magic.MagicUser;
-import com.skyisland.questmanager.scheduling.IntervalScheduler;
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
 
 /**
  * A QM defined status effect, tied to magic. 
@@ -14,7 +14,7 @@ public interface MagicStatusEffect extends ConfigurationSerializable {
 	
 	public static final long ticksPerUpdate = 20;
 	
-	public static final IntervalScheduler statusTicker = IntervalScheduler.createCustomScheduler(ticksPerUpdate);
+	public static final BudgetedScheduler statusTicker = BudgetedScheduler.getScheduler();
 	
 	String getName();
 	
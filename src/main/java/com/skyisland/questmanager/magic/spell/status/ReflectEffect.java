@@ -122,7 +122,7 @@ public class ReflectEffect implements MagicStatusEffect, Listener, Tickable {
 		
 		victims = new LinkedList<>();
 		
-		MagicStatusEffect.statusTicker.register(this);
+		MagicStatusEffect.statusTicker.register(this, ticksPerUpdate);
 		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
 	}
 	
@@ -153,7 +153,7 @@ public class ReflectEffect implements MagicStatusEffect, Listener, Tickable {
 		UserRecord record;
 		while (it.hasNext()) {
 			record = it.next();
-			record.ticksLeft -= statusTicker.getDelay();
+			record.ticksLeft -= ticksPerUpdate;
 			if (record.ticksLeft < 0) {
 				it.remove();
 				if (record.user instanceof QuestPlayer)
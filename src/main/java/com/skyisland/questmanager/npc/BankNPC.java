@@ -37,7 +37,7 @@ import com.skyisland.questmanager.fanciful.FancyMessage;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.ui.ChatMenu;
 import com.skyisland.questmanager.ui.menu.BioptionChatMenu;
-import com.skyisland.questmanager.ui.menu.action.OpenInventoryAction;
+import com.skyisland.questmanager.ui.menu.action.OpenBankAction;
 import com.skyisland.questmanager.ui.menu.message.BioptionMessage;
 
 /**
@@ -177,8 +177,7 @@ public class BankNPC extends SimpleStaticBioptionNPC {
 		
 		
 		ChatMenu messageChat = new BioptionChatMenu(chat,
-					new OpenInventoryAction(QuestManagerPlugin.questManagerPlugin.getBankManager()
-							.getInventory(bankID, qp), qp)
+					new OpenBankAction(bankID, qp)
 		, null);			
 
 		messageChat.show(player);
@@ -22,6 +22,8 @@ import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.entity.Entity;
@@ -63,6 +65,11 @@ public abstract class NPC implements ConfigurationSerializable, Listener, Tickab
 	 */
 	protected String questName;
 	
+	/**
+	 * The registry this NPC is indexed in, if any
+	 */
+	private NPCRegistry registry;
+	
 	protected NPC() {
 		;
 	}
@@ -77,8 +84,9 @@ public abstract class NPC implements ConfigurationSerializable, Listener, Tickab
 	/**
 	 * Returns the entity this NPC is attached to.
 	 * This method attempts to save cycles by caching the last known entity to
-	 * represent our UUID'd creature. If the cache is no longer valid, an entire
-	 * sweep of worlds and entities is performed to lookup the entity.
+	 * represent our UUID'd creature. If the cache is no longer valid, the NPC's
+	 * home chunk and then the chunk it was last seen in are checked. Only if neither
+	 * has it is an entire sweep of worlds and entities performed to lookup the entity.
 	 * @return The entity attached to our UUID, or NULL if none is found
 	 */
 	public Entity getEntity() {
@@ -87,12 +95,23 @@ public abstract class NPC implements ConfigurationSerializable, Listener, Tickab
 			return entity;
 		}
 		
+		Location home = getHome();
+		if (home != null && home.getWorld() != null
+				&& home.getWorld().isChunkLoaded(home.getBlockX() >> 4, home.getBlockZ() >> 4)) {
+			Entity e = findIn(home.getChunk());
+			if (e != null) {
+				return e;
+			}
+		}
+		
 		//try and load last chunk the entity was in
 		if (entity != null) {
-			entity.getLocation().getChunk().load();
-			
-		} else {
-			System.out.println("entity is null: " + name);
+			Chunk last = entity.getLocation().getChunk();
+			last.load();
+			Entity e = findIn(last);
+			if (e != null) {
+				return e;
+			}
 		}
 		
 		//cache has expired (new entity ID, etc) so grab entity
@@ -109,6 +128,34 @@ public abstract class NPC implements ConfigurationSerializable, Listener, Tickab
 		
 	}
 	
+	private Entity findIn(Chunk chunk) {
+		for (Entity e : chunk.getEntities()) {
+			if (e.getUniqueId().equals(id)) {
+				entity = e;
+				return e;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns where this NPC lives, which is used to find its entity again.
+	 * By default this is wherever the entity was last seen.
+	 * @return The home location, or null if it isn't known
+	 */
+	public Location getHome() {
+		return (entity == null ? null : entity.getLocation());
+	}
+	
+	protected NPCRegistry getRegistry() {
+		return registry;
+	}
+	
+	protected void setRegistry(NPCRegistry registry) {
+		this.registry = registry;
+	}
+	
 	/**
 	 * Register an entity to this NPC. This method also updates the ID of this npc
 	 */
@@ -123,6 +170,10 @@ public abstract class NPC implements ConfigurationSerializable, Listener, Tickab
 		if (entity instanceof LivingEntity) {
 			((LivingEntity) entity).setRemoveWhenFarAway(false);
 		}
+		
+		if (registry != null) {
+			registry.updateId(this);
+		}
 	}
 	
 	private void stripEntity(Entity e) {
@@ -138,6 +189,9 @@ public abstract class NPC implements ConfigurationSerializable, Listener, Tickab
 	 */
 	public void setID(UUID id) {
 		this.id = id;
+		if (registry != null) {
+			registry.updateId(this);
+		}
 	}
 	
 	public UUID getID() {
@@ -0,0 +1,177 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.npc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps track of {@link NPC NPCs}, indexed by entity ID and by name.
+ * <p>
+ * NPCs report back when their entity ID changes, so the index stays current while
+ * they're registered.
+ * </p>
+ */
+public class NPCRegistry {
+	
+	private Set<NPC> npcs;
+	
+	private Map<UUID, NPC> byId;
+	
+	private Map<String, List<NPC>> byName;
+	
+	/**
+	 * The entity ID each NPC was indexed under, for removing them again
+	 */
+	private Map<NPC, UUID> indexedIds;
+	
+	public NPCRegistry() {
+		npcs = new LinkedHashSet<>();
+		byId = new HashMap<>();
+		byName = new HashMap<>();
+		indexedIds = new HashMap<>();
+	}
+	
+	public void add(NPC npc) {
+		if (npc == null || !npcs.add(npc)) {
+			return;
+		}
+		
+		npc.setRegistry(this);
+		indexId(npc);
+		
+		if (npc.getName() != null) {
+			List<NPC> list = byName.get(npc.getName());
+			if (list == null) {
+				list = new ArrayList<>(1);
+				byName.put(npc.getName(), list);
+			}
+			list.add(npc);
+		}
+	}
+	
+	public void addAll(Collection<? extends NPC> npcs) {
+		for (NPC npc : npcs) {
+			add(npc);
+		}
+	}
+	
+	public void remove(NPC npc) {
+		if (npc == null || !npcs.remove(npc)) {
+			return;
+		}
+		
+		if (npc.getRegistry() == this) {
+			npc.setRegistry(null);
+		}
+		unindexId(npc);
+		
+		if (npc.getName() != null) {
+			List<NPC> list = byName.get(npc.getName());
+			if (list != null) {
+				list.remove(npc);
+				if (list.isEmpty()) {
+					byName.remove(npc.getName());
+				}
+			}
+		}
+	}
+	
+	public void clear() {
+		for (NPC npc : npcs) {
+			if (npc.getRegistry() == this) {
+				npc.setRegistry(null);
+			}
+		}
+		
+		npcs.clear();
+		byId.clear();
+		byName.clear();
+		indexedIds.clear();
+	}
+	
+	public boolean isEmpty() {
+		return npcs.isEmpty();
+	}
+	
+	/**
+	 * Returns all registered NPCs, in the order they were registered
+	 */
+	public Collection<NPC> getNPCs() {
+		return Collections.unmodifiableSet(npcs);
+	}
+	
+	/**
+	 * Looks up the NPC attached to the entity with the given ID
+	 * @return the NPC, or null if no registered NPC uses that entity
+	 */
+	public NPC getNPC(UUID entityID) {
+		return byId.get(entityID);
+	}
+	
+	/**
+	 * Looks up an NPC by its name.
+	 * If there are multiple NPCs by the same name, the first registered is returned
+	 * @return An NPC with the given name, or null if it doesn't exist
+	 */
+	public NPC getNPC(String name) {
+		List<NPC> list = byName.get(name);
+		return (list == null ? null : list.get(0));
+	}
+	
+	public boolean hasName(String name) {
+		return byName.containsKey(name);
+	}
+	
+	/**
+	 * Called by NPCs when the entity they're attached to changes
+	 */
+	protected void updateId(NPC npc) {
+		if (!npcs.contains(npc)) {
+			return;
+		}
+		
+		unindexId(npc);
+		indexId(npc);
+	}
+	
+	private void indexId(NPC npc) {
+		UUID id = npc.getID();
+		if (id == null) {
+			return;
+		}
+		
+		byId.put(id, npc);
+		indexedIds.put(npc, id);
+	}
+	
+	private void unindexId(NPC npc) {
+		UUID id = indexedIds.remove(npc);
+		if (id != null && byId.get(id) == npc) {
+			byId.remove(id);
+		}
+	}
+}
@@ -21,7 +21,7 @@ package com.skyisland.questmanager.npc;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 
-import com.skyisland.questmanager.scheduling.DispersedScheduler;
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
 
 /**
  * Describes NPCs with simple movement pattern: they occasionally attempt to
@@ -38,6 +38,11 @@ public abstract class SimpleNPC extends NPC {
 	 */
 	private static final double RANGE = 20.0;
 	
+	/**
+	 * How often to check whether the NPC has wandered off, in game ticks
+	 */
+	private static final long TICK_PERIOD = 200;
+	
 	protected SimpleNPC(Location startingLoc) {
 		super();
 		this.startingLoc = startingLoc;
@@ -46,7 +51,7 @@ public abstract class SimpleNPC extends NPC {
 	@Override
 	public void listen() {
 		super.listen();
-		DispersedScheduler.getScheduler().register(this);
+		BudgetedScheduler.getScheduler().register(this, TICK_PERIOD);
 	}
 	
 	/**
@@ -92,4 +97,9 @@ public abstract class SimpleNPC extends NPC {
 	public void setStartingLoc(Location startingLoc) {
 		this.startingLoc = startingLoc;
 	}
+	
+	@Override
+	public Location getHome() {
+		return (startingLoc == null ? super.getHome() : startingLoc);
+	}
 }
@@ -19,7 +19,6 @@
 package com.skyisland.questmanager.npc;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.bukkit.ChatColor;
@@ -40,6 +39,7 @@ import com.skyisland.questmanager.configuration.utils.LocationState;
 import com.skyisland.questmanager.fanciful.FancyMessage;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.player.utils.CompassTrackable;
+import com.skyisland.questmanager.quest.Prerequisite;
 import com.skyisland.questmanager.quest.Quest;
 import com.skyisland.questmanager.ui.ChatMenu;
 import com.skyisland.questmanager.ui.menu.BioptionChatMenu;
@@ -220,20 +220,8 @@ public class SimpleQuestStartNPC extends SimpleStaticBioptionNPC implements Comp
 				player.getUniqueId());
 		
 		ChatMenu messageChat = null;
-		boolean meetreqs = true;
-		
-		
-		List<String> reqs = quest.getRequiredQuests();
-		
-		if (reqs != null && !reqs.isEmpty()) {
-			//go through reqs, see if the player has those quests completed
-			for (String req : reqs) {
-				if (!QuestPlayer.meetsRequirement(qp, req)) {
-					meetreqs = false;
-					break;
-				}
-			}
-		}
+		//see if the player has the required quests completed
+		boolean meetreqs = Prerequisite.allMet(qp, quest.getPrerequisites());
 		
 		if (!meetreqs) {
 			//doesn't have all the required quests done yet!
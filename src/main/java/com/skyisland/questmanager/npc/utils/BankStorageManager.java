@@ -18,23 +18,39 @@
 
 package com.skyisland.questmanager.npc.utils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.SaveService;
 import com.skyisland.questmanager.player.QuestPlayer;
 
 /**
@@ -42,155 +58,523 @@ import com.skyisland.questmanager.player.QuestPlayer;
  * Specifically, stores bank inventories against IDs intended to be unique per bank
  * NPC. This is not enforced -- which allows for global-type banks or aligned banks --
  * but is supported.
- *
+ * <p>
+ * Accounts are kept as compact encoded bytes rather than live inventories. An inventory is only
+ * created when a player opens their account, and is encoded back and released when they close it.
+ * Accounts whose contents didn't change aren't re-encoded, and the bank file is only written
+ * when some account did change.
+ * </p>
+ * <p>
+ * The bank file is laid out as follows (all numbers big-endian):
+ * <pre>
+ * int magic, int version, int bankCount
+ * per bank:    UTF key, int accountCount
+ * per account: long uuidMost, long uuidLeast, int length, byte[length] account
+ * </pre>
+ * Accounts are themselves a short item count, followed by a short slot, int length and
+ * byte[length] of Bukkit-serialized item for every non-empty slot.
+ * </p>
  */
-public class BankStorageManager {
+public class BankStorageManager implements SaveService.Saveable, Listener {
 
+	/**
+	 * Legacy YAML bank format. Only read, to bring old bank files into the binary format.
+	 */
 	public static class BankStorage implements ConfigurationSerializable {
-		
-		private Map<UUID, Inventory> invMap;
-		
+
+		private Map<UUID, Map<Integer, ItemStack>> itemMap;
+
 		private String storageKey;
-		
+
 		protected BankStorage(String key) {
 			this.storageKey = key;
-			this.invMap = new TreeMap<>();
-		}
-		
-		protected void setInventory(UUID player, Inventory inv) {
-			invMap.put(player, inv);
+			this.itemMap = new HashMap<>();
 		}
-		
-		protected Inventory getInventory(UUID player) {
-			return invMap.get(player);
-		}
-		
+
 		@Override
 		public Map<String, Object> serialize() {
 			Map<String, Object> map = new HashMap<>();
-			Map<Integer, ItemStack> items;
-			int index;
-			
+
 			map.put("key", storageKey);
-			
-			for (UUID key : invMap.keySet()) {
-				items = new TreeMap<>();
-				index = 0;
-				
-				for (ItemStack item : invMap.get(key).getContents()) {
-					items.put(index, item);
-					index++;
-				}
-				
-				map.put(key.toString(), items);
+			for (UUID key : itemMap.keySet()) {
+				map.put(key.toString(), itemMap.get(key));
 			}
-			
+
 			return map;
 		}
-		
+
 		@SuppressWarnings("unchecked")
 		public static BankStorage deserialize(Map<String, Object> map) {
 			BankStorage storage = new BankStorage((String) map.get("key"));
-						
+
 			if (!map.keySet().isEmpty()) {
-				UUID uuid;
-				Inventory inv;
-				Map<Integer, ItemStack> items;
-				
 				for (String id : map.keySet()) {
 					if (id.startsWith("==") || id.startsWith("key")) {
 						continue;
 					}
-					
-					uuid = UUID.fromString(id);
-					inv = Bukkit.createInventory(null, 54, "Bank");//"QM_bank_" + storage.storageKey + "_" + qp.getIDString());
-					items = (Map<Integer, ItemStack>) map.get(id);
-					for (Integer slot : items.keySet()) {
-						inv.setItem(slot, items.get(slot));
-						
-					}
-					
-					storage.invMap.put(uuid, inv);
+
+					storage.itemMap.put(UUID.fromString(id), (Map<Integer, ItemStack>) map.get(id));
 				}
 			}
-			
+
 			return storage;
 		}
-		
+
+	}
+
+	/**
+	 * A player's account in a particular bank
+	 */
+	private static final class Account {
+
+		private final String bankKey;
+
+		private final UUID owner;
+
+		private Account(String bankKey, UUID owner) {
+			this.bankKey = bankKey;
+			this.owner = owner;
+		}
 	}
-	
+
 	public static void registerSerialization() {
 		ConfigurationSerialization.registerClass(BankStorage.class);
 	}
-	
-	private Map<String, BankStorage> storageMap;
-	
-	@SuppressWarnings("unchecked")
-	public BankStorageManager(File bankDataFile) {
+
+	public static final int BANK_SIZE = 54;
+
+	private static final String BANK_TITLE = "Bank";
+
+	private static final String BAD_ACCOUNT_MESSAGE = ChatColor.RED + "Your account can't be opened right now. Please let staff know.";
+
+	private static final int MAGIC = 0x514D424B; //QMBK
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte[] EMPTY_ACCOUNT = new byte[] {0, 0};
+
+	private static final String CORRUPT_EXTENSION = ".corrupt";
+
+	/**
+	 * Bank key -> account owner -> encoded account contents.
+	 * Encoded arrays are never changed once stored, only replaced.
+	 */
+	private Map<String, Map<UUID, byte[]>> storageMap;
+
+	/**
+	 * Inventories currently opened by players, and the accounts they belong to
+	 */
+	private Map<Inventory, Account> openAccounts;
+
+	private File bankDataFile;
+
+	/**
+	 * Whether any account has changed since the bank file was last written
+	 */
+	private boolean dirty;
+
+	/**
+	 * Set when the bank file couldn't be loaded. Nothing is opened or saved while locked, so the
+	 * banks that couldn't be read aren't written over.
+	 */
+	private boolean locked;
+
+	/**
+	 * Loads banks from the given bank file. If there is a legacy YAML bank file, any of its
+	 * accounts not yet in the bank file are converted and added.
+	 */
+	public BankStorageManager(File bankDataFile, File legacyDataFile) {
 		this.storageMap = new HashMap<>();
-		
-		if (bankDataFile == null || !bankDataFile.exists())
+		this.openAccounts = new IdentityHashMap<>();
+		this.bankDataFile = bankDataFile;
+		this.dirty = false;
+		this.locked = false;
+
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+
+		if (bankDataFile != null && bankDataFile.exists()) {
+			load(bankDataFile);
+		}
+
+		//read every time it's there, in case some accounts didn't convert last time
+		if (!locked && legacyDataFile != null && legacyDataFile.exists()) {
+			loadLegacy(legacyDataFile);
+		}
+	}
+
+	private void load(File file) {
+		Map<String, Map<UUID, byte[]>> banks = new HashMap<>();
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+			if (in.readInt() != MAGIC) {
+				lock(file, "it is not a bank file");
+				return;
+			}
+
+			int version = in.readInt();
+			if (version != FORMAT_VERSION) {
+				lock(file, "it has unknown version " + version);
+				return;
+			}
+
+			int bankCount = in.readInt();
+			for (int i = 0; i < bankCount; i++) {
+				String key = in.readUTF();
+				int accountCount = in.readInt();
+				Map<UUID, byte[]> accounts = new HashMap<>(accountCount * 2);
+				for (int j = 0; j < accountCount; j++) {
+					UUID owner = new UUID(in.readLong(), in.readLong());
+					byte[] data = new byte[in.readInt()];
+					in.readFully(data);
+					accounts.put(owner, data);
+				}
+
+				banks.put(key, accounts);
+			}
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			lock(file, "it couldn't be read");
 			return;
-		
-		YamlConfiguration bankData = YamlConfiguration.loadConfiguration(bankDataFile);
-		
+		}
+
+		storageMap.putAll(banks);
+	}
+
+	/**
+	 * Stops banks from being opened or saved, since what's in memory doesn't match the bank file.
+	 * The bank file is copied aside so it can be looked at, and left as it is.
+	 */
+	private void lock(File file, String reason) {
+		locked = true;
+		storageMap.clear();
+
+		File backup = new File(file.getPath() + CORRUPT_EXTENSION);
+		try {
+			Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		QuestManagerPlugin.logger.severe("Unable to load bank file " + file.getName() + " because " + reason
+				+ ". It has been copied to " + backup.getName() + ". Banks can't be opened or saved until"
+				+ " the file is fixed or removed and the server is restarted.");
+	}
+
+	/**
+	 * Brings accounts from the legacy YAML bank file into the binary format. Accounts already in
+	 * the binary format are skipped, so accounts that failed to convert before are tried again
+	 * each time this is called.
+	 */
+	@SuppressWarnings("unchecked")
+	private void loadLegacy(File file) {
+		YamlConfiguration bankData = YamlConfiguration.loadConfiguration(file);
+
 		List<BankStorage> storages = (List<BankStorage>) bankData.getList("banks");
 		if (storages == null || storages.isEmpty()) {
 			return;
 		}
-		
+
+		int converted = 0, failed = 0;
 		for (BankStorage storage : storages) {
-			System.out.println("Storage named " + storage.storageKey);
-			storageMap.put(storage.storageKey, storage);
+			Map<UUID, byte[]> accounts = storageMap.get(storage.storageKey);
+			if (accounts == null) {
+				accounts = new HashMap<>();
+				storageMap.put(storage.storageKey, accounts);
+			}
+
+			for (UUID owner : storage.itemMap.keySet()) {
+				if (accounts.containsKey(owner)) {
+					continue;
+				}
+
+				ItemStack[] contents = new ItemStack[BANK_SIZE];
+				Map<Integer, ItemStack> items = storage.itemMap.get(owner);
+				if (items != null) {
+					for (Integer slot : items.keySet()) {
+						if (slot != null && slot >= 0 && slot < BANK_SIZE) {
+							contents[slot] = items.get(slot);
+						}
+					}
+				}
+
+				try {
+					accounts.put(owner, encode(contents));
+					converted++;
+				} catch (IOException e) {
+					e.printStackTrace();
+					QuestManagerPlugin.logger.warning("Unable to convert bank account " + owner + " in bank "
+							+ storage.storageKey + "; it will be tried again next start");
+					failed++;
+				}
+			}
+		}
+
+		if (converted > 0) {
+			QuestManagerPlugin.logger.info("Converted " + converted + " bank accounts from " + file.getName());
+			dirty = true;
+		}
+
+		if (failed > 0) {
+			QuestManagerPlugin.logger.warning(failed + " bank accounts in " + file.getName()
+					+ " couldn't be converted. Keep the file until they have been.");
+		} else {
+			QuestManagerPlugin.logger.info("Every account in " + file.getName() + " has been converted;"
+					+ " it can be removed once the bank file has been saved.");
 		}
 	}
-	
+
 	/**
-	 * Returns a player's personal bank storage for the given bank (specified by key).
+	 * Returns a live inventory for a player's personal bank storage for the given bank (specified by key).
+	 * The inventory stays live until the player closes it, at which point its contents are stored
+	 * back in the bank. Callers should show the inventory to the player right away.
 	 * @param bankKey A key signifying which bank to pull from. If the bank doesn't exist yet, it will be created
 	 * @param player The player to look up in the specified bank
 	 * @return An inventory for the player (a new one, if it didn't exist but the bank does),
-	 * or null if either parameter is null
+	 * or null if either parameter is null, the account can't be read, or banks are locked
 	 */
 	public Inventory getInventory(String bankKey, QuestPlayer player) {
-		if (bankKey == null || player == null) {
+		if (bankKey == null || player == null || locked) {
 			return null;
 		}
-		
-		if (!storageMap.containsKey(bankKey)) {
-			storageMap.put(bankKey, new BankStorage(bankKey));
+
+		UUID owner = player.getPlayer().getUniqueId();
+
+		//if it's already open, hand out the same inventory so nothing gets duplicated
+		for (Map.Entry<Inventory, Account> entry : openAccounts.entrySet()) {
+			if (entry.getValue().bankKey.equals(bankKey) && entry.getValue().owner.equals(owner)) {
+				return entry.getKey();
+			}
 		}
-		
-		BankStorage store = storageMap.get(bankKey);
-		
-		Inventory inv = store.getInventory(player.getPlayer().getUniqueId());
-		
-		if (inv == null) {
-			inv = Bukkit.createInventory(null, 54, "Bank");//"QM_bank_" + bankKey + "_" + player.getIDString());
-			store.setInventory(player.getPlayer().getUniqueId(), inv);
+
+		Map<UUID, byte[]> accounts = storageMap.get(bankKey);
+		if (accounts == null) {
+			accounts = new HashMap<>();
+			storageMap.put(bankKey, accounts);
 		}
-		
+
+		byte[] data = accounts.get(owner);
+		ItemStack[] contents = null;
+		if (data != null) {
+			try {
+				contents = decode(data);
+			} catch (IOException | ClassNotFoundException e) {
+				//refuse to open it. An inventory missing items would be stored back over the good copy
+				e.printStackTrace();
+				QuestManagerPlugin.logger.warning("Unable to decode bank account " + owner + " in bank "
+						+ bankKey + "; refusing to open it");
+				return null;
+			}
+		}
+
+		Inventory inv = Bukkit.createInventory(null, BANK_SIZE, BANK_TITLE);
+		if (contents != null) {
+			inv.setContents(contents);
+		}
+
+		openAccounts.put(inv, new Account(bankKey, owner));
 		return inv;
 	}
-	
-	public void save(File file) {
-		if (storageMap.isEmpty()) {
+
+	/**
+	 * Opens the player's account in the given bank
+	 */
+	public void openBank(String bankKey, QuestPlayer player) {
+		if (!player.getPlayer().isOnline()) {
+			return;
+		}
+
+		Inventory inv = getInventory(bankKey, player);
+		if (inv == null) {
+			player.getPlayer().getPlayer().sendMessage(BAD_ACCOUNT_MESSAGE);
+			return;
+		}
+
+		player.getPlayer().getPlayer().openInventory(inv);
+	}
+
+	@EventHandler
+	public void onInventoryClose(InventoryCloseEvent e) {
+		Inventory inv = e.getInventory();
+		Account account = openAccounts.get(inv);
+		if (account == null) {
 			return;
 		}
-		
-		YamlConfiguration config = new YamlConfiguration();
-		List<BankStorage> list = new LinkedList<>();
 
-		list.addAll(storageMap.values());
-		
-		config.set("banks", list);
-		
+		if (!storeContents(inv, account)) {
+			//keep it open so the items aren't lost; the next save tries again
+			return;
+		}
+
+		//someone else (staff) may still be looking at it
+		for (HumanEntity viewer : inv.getViewers()) {
+			if (viewer != e.getPlayer()) {
+				return;
+			}
+		}
+
+		openAccounts.remove(inv);
+	}
+
+	/**
+	 * Encodes the inventory's contents into the account, if they changed.
+	 * If they can't be encoded, the account keeps what it had before.
+	 * @return false if the contents couldn't be encoded
+	 */
+	private boolean storeContents(Inventory inv, Account account) {
+		Map<UUID, byte[]> accounts = storageMap.get(account.bankKey);
+		if (accounts == null) {
+			accounts = new HashMap<>();
+			storageMap.put(account.bankKey, accounts);
+		}
+
+		byte[] data;
 		try {
-			config.save(file);
+			data = encode(inv.getContents());
 		} catch (IOException e) {
 			e.printStackTrace();
-			QuestManagerPlugin.logger.warning("Ditch string: ["
-					+ config.saveToString() + "]");
+			QuestManagerPlugin.logger.warning("Unable to encode bank account " + account.owner + " in bank "
+					+ account.bankKey + "; keeping its last saved contents");
+			return false;
+		}
+
+		byte[] old = accounts.get(account.owner);
+		if (old == null ? Arrays.equals(data, EMPTY_ACCOUNT) : Arrays.equals(data, old)) {
+			return true;
+		}
+
+		accounts.put(account.owner, data);
+		dirty = true;
+		return true;
+	}
+
+	/**
+	 * Pulls the contents of any open bank inventories into their accounts
+	 */
+	private void storeOpenAccounts() {
+		for (Map.Entry<Inventory, Account> entry : openAccounts.entrySet()) {
+			storeContents(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Saves all banks to the given file, waiting for the write to finish
+	 */
+	public void save(File file) {
+		if (locked) {
+			QuestManagerPlugin.logger.warning("Not saving banks, as the bank file couldn't be loaded");
+			return;
+		}
+
+		storeOpenAccounts();
+		if (storageMap.isEmpty() || !dirty) {
+			return;
+		}
+
+		QuestManagerPlugin.questManagerPlugin.getSaveService().writeNow(file, snapshot());
+		dirty = false;
+	}
+
+	@Override
+	public void autosave(SaveService service) {
+		if (locked) {
+			return;
+		}
+
+		storeOpenAccounts();
+		if (storageMap.isEmpty() || !dirty || bankDataFile == null) {
+			return;
+		}
+
+		service.write(bankDataFile, snapshot());
+		dirty = false;
+	}
+
+	/**
+	 * Lays out all banks in the bank file format. Accounts are already encoded, so this is
+	 * only a copy.
+	 */
+	private byte[] snapshot() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(storageMap.size());
+			for (Map.Entry<String, Map<UUID, byte[]>> bank : storageMap.entrySet()) {
+				out.writeUTF(bank.getKey());
+				out.writeInt(bank.getValue().size());
+				for (Map.Entry<UUID, byte[]> account : bank.getValue().entrySet()) {
+					out.writeLong(account.getKey().getMostSignificantBits());
+					out.writeLong(account.getKey().getLeastSignificantBits());
+					out.writeInt(account.getValue().length);
+					out.write(account.getValue());
+				}
+			}
+		} catch (IOException e) {
+			//can't happen writing to memory
+			e.printStackTrace();
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Encodes the non-empty slots of an inventory
+	 * @throws IOException if any item can't be serialized
+	 */
+	private static byte[] encode(ItemStack[] contents) throws IOException {
+		List<Integer> slots = new ArrayList<>();
+		for (int i = 0; i < contents.length; i++) {
+			if (contents[i] != null && contents[i].getType() != Material.AIR) {
+				slots.add(i);
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeShort(slots.size());
+			for (int slot : slots) {
+				byte[] item = encodeItem(contents[slot]);
+				out.writeShort(slot);
+				out.writeInt(item.length);
+				out.write(item);
+			}
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static byte[] encodeItem(ItemStack item) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+			out.writeObject(item);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes an account into bank inventory contents. Nothing is returned unless the whole
+	 * account can be read.
+	 */
+	private static ItemStack[] decode(byte[] data) throws IOException, ClassNotFoundException {
+		ItemStack[] contents = new ItemStack[BANK_SIZE];
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			int count = in.readShort();
+			for (int i = 0; i < count; i++) {
+				int slot = in.readShort();
+				byte[] item = new byte[in.readInt()];
+				in.readFully(item);
+				if (slot >= 0 && slot < BANK_SIZE) {
+					contents[slot] = decodeItem(item);
+				}
+			}
+		}
+
+		return contents;
+	}
+
+	private static ItemStack decodeItem(byte[] data) throws IOException, ClassNotFoundException {
+		try (BukkitObjectInputStream in = new BukkitObjectInputStream(new ByteArrayInputStream(data))) {
+			return (ItemStack) in.readObject();
 		}
 	}
 }
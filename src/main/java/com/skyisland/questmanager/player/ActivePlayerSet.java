@@ -0,0 +1,181 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+
+/**
+ * The QuestPlayers that are online and in a quest world, kept up to date as players join, leave,
+ * change worlds and change titles.
+ * <p>
+ * Periodic passes over players should go through this set rather than every QuestPlayer in
+ * memory, so they only cost as much as the number of players actually around. Players are
+ * also indexed by the world they're in and the title they're wearing.
+ * </p>
+ */
+public class ActivePlayerSet {
+	
+	private Map<UUID, QuestPlayer> players;
+	
+	private Map<String, Set<QuestPlayer>> byWorld;
+	
+	private Map<String, Set<QuestPlayer>> byTitle;
+	
+	/**
+	 * The world and title each player is indexed under, for removing them again
+	 */
+	private Map<UUID, String> indexedWorlds, indexedTitles;
+	
+	public ActivePlayerSet() {
+		players = new LinkedHashMap<>();
+		byWorld = new HashMap<>();
+		byTitle = new HashMap<>();
+		indexedWorlds = new HashMap<>();
+		indexedTitles = new HashMap<>();
+	}
+	
+	/**
+	 * Brings the player's entry up to date with where they are and what title they have.
+	 * Players that are offline or outside of the quest worlds are removed.
+	 */
+	public void update(QuestPlayer player) {
+		if (player == null) {
+			return;
+		}
+		
+		UUID id = player.getPlayer().getUniqueId();
+		Player online = player.getPlayer().getPlayer();
+		if (online == null || !QuestManagerPlugin.questManagerPlugin.getPluginConfiguration()
+				.isQuestWorld(online.getWorld())) {
+			remove(id);
+			return;
+		}
+		
+		unindex(id);
+		players.put(id, player);
+		
+		String world = online.getWorld().getName();
+		index(byWorld, world, player);
+		indexedWorlds.put(id, world);
+		
+		String title = player.getTitle();
+		if (title != null) {
+			index(byTitle, title, player);
+			indexedTitles.put(id, title);
+		}
+	}
+	
+	public void remove(UUID id) {
+		unindex(id);
+		players.remove(id);
+	}
+	
+	public void clear() {
+		players.clear();
+		byWorld.clear();
+		byTitle.clear();
+		indexedWorlds.clear();
+		indexedTitles.clear();
+	}
+	
+	public boolean contains(UUID id) {
+		return players.containsKey(id);
+	}
+	
+	public int size() {
+		return players.size();
+	}
+	
+	/**
+	 * Returns every active player
+	 */
+	public Collection<QuestPlayer> getPlayers() {
+		return Collections.unmodifiableCollection(players.values());
+	}
+	
+	/**
+	 * Returns the active players in the given world
+	 */
+	public Collection<QuestPlayer> getPlayers(World world) {
+		return view(byWorld.get(world.getName()));
+	}
+	
+	/**
+	 * Returns the active players wearing exactly the given title
+	 */
+	public Collection<QuestPlayer> getPlayersWithTitle(String title) {
+		return view(byTitle.get(title));
+	}
+	
+	/**
+	 * Returns the titles worn by at least one active player
+	 */
+	public Set<String> getTitles() {
+		return Collections.unmodifiableSet(byTitle.keySet());
+	}
+	
+	private static Collection<QuestPlayer> view(Set<QuestPlayer> set) {
+		return (set == null ? Collections.<QuestPlayer>emptySet() : Collections.unmodifiableSet(set));
+	}
+	
+	private void unindex(UUID id) {
+		QuestPlayer player = players.get(id);
+		if (player == null) {
+			return;
+		}
+		
+		unindex(byWorld, indexedWorlds.remove(id), player);
+		unindex(byTitle, indexedTitles.remove(id), player);
+	}
+	
+	private static void index(Map<String, Set<QuestPlayer>> map, String key, QuestPlayer player) {
+		Set<QuestPlayer> set = map.get(key);
+		if (set == null) {
+			set = new LinkedHashSet<>();
+			map.put(key, set);
+		}
+		set.add(player);
+	}
+	
+	private static void unindex(Map<String, Set<QuestPlayer>> map, String key, QuestPlayer player) {
+		if (key == null) {
+			return;
+		}
+		
+		Set<QuestPlayer> set = map.get(key);
+		if (set != null) {
+			set.remove(player);
+			if (set.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+}
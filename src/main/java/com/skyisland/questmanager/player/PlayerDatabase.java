@@ -0,0 +1,122 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.player;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.SaveService;
+
+/**
+ * On-disk store of {@link QuestPlayer QuestPlayers}, with one file per player UUID.
+ * <p>
+ * Players are serialized on the calling (main) thread, since serializing touches Bukkit state.
+ * The resulting data is dumped to YAML and written out by the {@link SaveService}.
+ * </p>
+ */
+public class PlayerDatabase {
+
+	private static final String PLAYER_KEY = "player";
+
+	private static final String EXTENSION = ".yml";
+
+	private File directory;
+
+	private SaveService saveService;
+
+	public PlayerDatabase(File directory, SaveService saveService) {
+		this.directory = directory;
+		this.saveService = saveService;
+		if (!directory.exists()) {
+			directory.mkdirs();
+		}
+	}
+
+	public File getFile(UUID id) {
+		return new File(directory, id.toString() + EXTENSION);
+	}
+
+	/**
+	 * Checks whether there is a saved record for the given player
+	 */
+	public boolean contains(UUID id) {
+		return getFile(id).exists();
+	}
+
+	/**
+	 * Loads the player with the given ID from their file.
+	 * @return the player, or null if there is no record or it couldn't be read
+	 */
+	public QuestPlayer load(UUID id) {
+		File file = getFile(id);
+		if (!file.exists()) {
+			return null;
+		}
+
+		YamlConfiguration config = new YamlConfiguration();
+		try {
+			config.load(file);
+		} catch (IOException | InvalidConfigurationException e) {
+			e.printStackTrace();
+			QuestManagerPlugin.logger.warning("Unable to load player record " + file.getName());
+			return null;
+		}
+
+		QuestPlayer player = (QuestPlayer) config.get(PLAYER_KEY);
+		if (player != null) {
+			player.clearDirty();
+		}
+
+		return player;
+	}
+
+	/**
+	 * Serializes the player's current state. Must be called on the main thread.
+	 */
+	public SaveService.YamlSnapshot snapshot(QuestPlayer player) {
+		YamlConfiguration config = new YamlConfiguration();
+		config.set(PLAYER_KEY, player);
+		return SaveService.snapshot(config);
+	}
+
+	/**
+	 * Saves the player right away, waiting for the record to be written
+	 */
+	public void save(QuestPlayer player) {
+		SaveService.YamlSnapshot data = snapshot(player);
+		player.clearDirty();
+		saveService.writeNow(getFile(player.getPlayer().getUniqueId()), data);
+	}
+
+	/**
+	 * Takes a snapshot of the player on the calling thread, then writes it to disk in the background
+	 * @return a future that completes once the record has been written
+	 */
+	public Future<?> saveAsync(QuestPlayer player) {
+		SaveService.YamlSnapshot data = snapshot(player);
+		player.clearDirty();
+		return saveService.write(getFile(player.getPlayer().getUniqueId()), data);
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerEditBookEvent;
+import org.bukkit.event.player.PlayerExpChangeEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.projectiles.ProjectileSource;
+
+import com.onarandombox.MultiversePortals.event.MVPortalEvent;
+import com.skyisland.questmanager.PlayerManager;
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.player.skill.event.CombatEvent;
+
+/**
+ * Single listener that forwards player events to the {@link QuestPlayer} they concern.
+ * <p>
+ * QuestPlayers used to register themselves as listeners, which meant every event was handed to
+ * every player ever recorded. Instead, this router keeps an index of the QuestPlayers that are
+ * currently online and looks up the affected player(s) by UUID.
+ * </p>
+ */
+public class PlayerEventRouter implements Listener {
+
+	private PlayerManager manager;
+
+	/**
+	 * QuestPlayers belonging to players that are currently online
+	 */
+	private Map<UUID, QuestPlayer> online;
+
+	public PlayerEventRouter(PlayerManager manager) {
+		this.manager = manager;
+		this.online = new HashMap<>();
+
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+	}
+
+	/**
+	 * Adds the player to the online index.
+	 * Players that aren't actually online are ignored.
+	 */
+	public void track(QuestPlayer player) {
+		if (player == null || !player.getPlayer().isOnline()) {
+			return;
+		}
+
+		online.put(player.getPlayer().getUniqueId(), player);
+		manager.getActivePlayers().update(player);
+	}
+
+	public void untrack(UUID id) {
+		online.remove(id);
+		manager.getActivePlayers().remove(id);
+	}
+
+	/**
+	 * Looks up the online QuestPlayer with the given ID.
+	 * @return the player, or null if no online player with that id has a QuestPlayer record
+	 */
+	public QuestPlayer getOnlinePlayer(UUID id) {
+		return online.get(id);
+	}
+
+	public Collection<QuestPlayer> getOnlinePlayers() {
+		return Collections.unmodifiableCollection(online.values());
+	}
+
+	private QuestPlayer lookup(Entity entity) {
+		if (!(entity instanceof Player)) {
+			return null;
+		}
+
+		return online.get(entity.getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onPlayerJoin(PlayerJoinEvent e) {
+		QuestPlayer qp = manager.getPlayer(e.getPlayer().getUniqueId());
+		track(qp);
+		qp.onPlayerJoin(e);
+	}
+
+	@EventHandler
+	public void onPlayerQuit(PlayerQuitEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			qp.onPlayerQuit(e);
+		}
+	}
+
+	/**
+	 * Players are dropped from the index only once every other listener has seen them leave.
+	 * This is also when their record is handed back to the manager to be saved.
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerQuitMonitor(PlayerQuitEvent e) {
+		untrack(e.getPlayer().getUniqueId());
+		manager.onPlayerLeave(e.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onWorldChange(PlayerChangedWorldEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			manager.getActivePlayers().update(qp);
+		}
+	}
+
+	@EventHandler
+	public void onPortal(MVPortalEvent e) {
+		QuestPlayer qp = lookup(e.getTeleportee());
+		if (qp != null) {
+			qp.onPortal(e);
+		}
+	}
+
+	@EventHandler
+	public void onExp(PlayerExpChangeEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			qp.onExp(e);
+		}
+	}
+
+	@EventHandler
+	public void onPlayerInteract(PlayerInteractEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			qp.onPlayerInteract(e);
+		}
+	}
+
+	@EventHandler
+	public void onPlayerDeath(PlayerDeathEvent e) {
+		QuestPlayer qp = lookup(e.getEntity());
+		if (qp != null) {
+			qp.onPlayerDeath(e);
+		}
+	}
+
+	@EventHandler
+	public void onPlayerRespawn(PlayerRespawnEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			qp.onPlayerRespawn(e);
+		}
+	}
+
+	@EventHandler
+	public void onPlayerInteractWithPlayer(PlayerInteractEntityEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			qp.onPlayerInteractWithPlayer(e);
+		}
+	}
+
+	@EventHandler
+	public void onPlayerRuinJournal(PlayerEditBookEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			qp.onPlayerRuinJournal(e);
+		}
+	}
+
+	@EventHandler
+	public void onEntityDeath(EntityDeathEvent e) {
+		QuestPlayer qp = lookup(e.getEntity().getKiller());
+		if (qp != null) {
+			qp.onEntityDeathEvent(e);
+		}
+	}
+
+	@EventHandler
+	public void onFoodEat(PlayerItemConsumeEvent e) {
+		QuestPlayer qp = lookup(e.getPlayer());
+		if (qp != null) {
+			qp.onFoodEat(e);
+		}
+	}
+
+	@EventHandler
+	public void onCombatEvent(CombatEvent e) {
+		QuestPlayer qp = lookup(e.getTarget());
+		if (qp != null) {
+			qp.onCombatEvent(e);
+		}
+	}
+
+	/**
+	 * Damage events concern up to two players: the one who got hurt, and the one doing the
+	 * hurting (either directly or through a projectile they shot).
+	 */
+	@EventHandler(priority = EventPriority.HIGHEST)
+	public void onPlayerDamage(EntityDamageByEntityEvent e) {
+		QuestPlayer victim = lookup(e.getEntity());
+		if (victim != null) {
+			victim.onPlayerDamage(e);
+		}
+
+		Entity damager = e.getDamager();
+		if (damager instanceof Projectile) {
+			ProjectileSource source = ((Projectile) damager).getShooter();
+			damager = (source instanceof Entity ? (Entity) source : null);
+		}
+
+		QuestPlayer attacker = lookup(damager);
+		if (attacker != null && attacker != victim) {
+			attacker.onPlayerDamage(e);
+		}
+	}
+}
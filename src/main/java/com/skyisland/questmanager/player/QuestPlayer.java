@@ -19,14 +19,17 @@
 package com.skyisland.questmanager.player;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 
@@ -45,9 +48,6 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.entity.Villager;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.bukkit.event.entity.EntityDeathEvent;
@@ -85,6 +85,7 @@ import com.skyisland.questmanager.magic.spell.SpellWeavingSpell;
 import com.skyisland.questmanager.magic.spell.effect.DamageEffect;
 import com.skyisland.questmanager.magic.spell.status.MagicStatusEffect;
 import com.skyisland.questmanager.player.skill.Skill;
+import com.skyisland.questmanager.player.skill.SkillManager;
 import com.skyisland.questmanager.player.skill.defaults.ImbuementSkill;
 import com.skyisland.questmanager.player.skill.event.CombatEvent;
 import com.skyisland.questmanager.player.utils.Compass;
@@ -95,6 +96,7 @@ import com.skyisland.questmanager.player.utils.QuestLog;
 import com.skyisland.questmanager.player.utils.Recaller;
 import com.skyisland.questmanager.player.utils.SpellHolder;
 import com.skyisland.questmanager.quest.Goal;
+import com.skyisland.questmanager.quest.Prerequisite;
 import com.skyisland.questmanager.quest.Quest;
 import com.skyisland.questmanager.quest.history.History;
 import com.skyisland.questmanager.quest.history.HistoryEvent;
@@ -118,15 +120,19 @@ import com.skyisland.questmanager.ui.menu.inventory.BasicInventory;
 import com.skyisland.questmanager.ui.menu.inventory.BasicInventoryItem;
 import com.skyisland.questmanager.ui.menu.inventory.ContributionInventory;
 import com.skyisland.questmanager.ui.menu.message.PlainMessage;
+import com.skyisland.questmanager.util.Polygon;
 
 import io.puharesource.mc.titlemanager.api.TitleObject;
 
 /**
  * Player wrapper to store questing information and make saving player quest status
- * easier
- *
+ * easier.
+ * <p>
+ * QuestPlayers do not listen for events themselves; events are forwarded to them by
+ * the {@link PlayerEventRouter}.
+ * </p>
  */
-public class QuestPlayer implements Participant, Listener, MagicUser, Comparable<QuestPlayer> {
+public class QuestPlayer implements Participant, MagicUser, Comparable<QuestPlayer> {
 	
 	public static final String DAMAGE_MESSAGE = ChatColor.GRAY + "%s "
 			+ ChatColor.DARK_GRAY + "did " + ChatColor.DARK_RED + "%.2f damage"
@@ -155,6 +161,11 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	
 	public static final Sound MARK_SOUND = Sound.ENTITY_ENDERMEN_TELEPORT;
 	
+	/**
+	 * Marks a skill the player has no level in yet
+	 */
+	private static final int NO_SKILL_LEVEL = Integer.MIN_VALUE;
+	
 	/**
 	 * Quests requirements are a little more dynamic than they used to be. Instead of just having a 'did they do this
 	 * quest' requirement, you have either a 'did they do this quest' or 'are they currently doing this quest' requirement.
@@ -197,69 +208,13 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	 * @return
 	 */
 	public static boolean meetsRequirement(QuestPlayer player, String requirement) {
-		requirement = requirement.trim();
-		if (requirement.contains("|")) {
-			String[] reqs = requirement.split("\\|");
-			for (String req : reqs) {
-				if (meetsRequirement(player, req)) {
-					return true;
-				}
-			}
-			
-			return false;
-		}
-		
-		if (requirement.contains("&")) {
-			String[] reqs = requirement.split("&");
-			for (String req : reqs) {
-				if (!meetsRequirement(player, req))
-					return false;
-			}
-			
-			return true;
-		}
-		//"Driven.a"  6
-		if (requirement.contains(".")) {
-			int pos = requirement.indexOf(".");
-			String name = requirement.substring(0, pos);
-			String keys = requirement.substring(pos + 1);
-			if (!hasKey(player, name, keys))
-				return false;
-			return meetsRequirement(player, name);
-		}
-		
-		if (requirement.startsWith("*")) {
-			String req = requirement.substring(1);
-			for (Quest q : player.getCurrentQuests()) {
-				if (q.getName().equals(req)) {
-					return true;
-				}
-			}
-			
-			return false;
-		}
-		
-		//not |'s or *----, so regular
-		return player.getCompletedQuests().contains(requirement);
+		return Prerequisite.compile(requirement).isMet(player);
 	}
 	
 	public static boolean hasKey(QuestPlayer player, String questName, String key) {
 		if (questName.startsWith("*"))
 			questName = questName.substring(1);
-		System.out.println("check haskey. Quest: [" + questName + "] key: [" + key + "]");
-		if (player.questKeys.containsKey(questName)) {
-			String keys = player.questKeys.get(questName);
-			if (key.length() > 1) {
-				for (int i = 0; i < key.length(); i++)
-				if (!hasKey(player, questName, "" + key.charAt(i)))
-					return false;
-				
-				return true;
-			}
-			
-			return keys.contains(key);
-		}
-		return false;
+		return player.hasKeys(questName, Prerequisite.toKeySet(key));
 	}
 	
 	private UUID playerID;
@@ -272,8 +227,18 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	
 	private List<String> completedQuests;
 	
+	/**
+	 * Same quests as {@link #completedQuests}, for quick lookups
+	 */
+	private Set<String> completedQuestSet;
+	
 	private Map<String, String> questKeys;
 	
+	/**
+	 * Keys from {@link #questKeys} as sets of characters, built as they're needed
+	 */
+	private Map<String, BitSet> questKeySets;
+	
 	private String focusQuest;
 	
 	private List<String> journalNotes;
@@ -317,12 +282,24 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	
 	private Imbuement currentImbuement;
 	
-	private Map<Skill, Integer> skillLevels;
+	/**
+	 * Skill levels, by skill {@link Skill#getOrdinal() ordinal}. Skills the player hasn't used
+	 * yet hold {@link #NO_SKILL_LEVEL}
+	 */
+	private int[] skillLevels;
 	
-	private Map<Skill, Float> skillXP;
+	/**
+	 * Skill experience, by skill ordinal. Skills without any recorded hold NaN
+	 */
+	private float[] skillXP;
 	
 	private List<MagicStatusEffect> currentMagicEffects;
 	
+	/**
+	 * Whether this player has changed since it was last saved
+	 */
+	private boolean dirty;
+	
 	/**
 	 * Registers this class as configuration serializable with all defined 
 	 * {@link aliases aliases}
@@ -375,11 +352,10 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		this.storedSpells = new HashMap<>();
 		this.storedImbuements = new HashMap<>();
 		this.pylons = new LinkedList<>();
-		this.skillLevels = new HashMap<>();
-		this.skillXP = new HashMap<>();
+		this.skillLevels = new int[0];
+		this.skillXP = new float[0];
 		this.markLocation = null;
 		this.currentMagicEffects = new LinkedList<>();
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
 	}
 	
 	/**
@@ -392,8 +368,11 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		this.playerID = player.getUniqueId();
 		this.currentQuests = new LinkedList<>();
 		this.completedQuests = new LinkedList<>();
+		this.completedQuestSet = new HashSet<>();
 		this.questKeys = new HashMap<>();
+		this.questKeySets = new HashMap<>();
 		this.history = new History();
+		this.dirty = true;
 		
 		if (player.isOnline()) {
 			Player p = player.getPlayer();
@@ -429,6 +408,17 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	 * If the user does not have abook already or has discarded it, this method will do nothing.
 	 */
 	public void updateQuestBook(boolean silent) {
+		QuestManagerPlugin.questManagerPlugin.getBookService().invalidateQuests(this);
+		QuestLog.updateQuestlog(this, silent);
+		updateCompass(true);
+	}
+	
+	/**
+	 * Updates the players quest book after only the given quest has changed.
+	 * Pages for their other quests are reused from the last update.
+	 */
+	public void updateQuestPage(Quest quest, boolean silent) {
+		QuestManagerPlugin.questManagerPlugin.getBookService().invalidate(this, quest);
 		QuestLog.updateQuestlog(this, silent);
 		updateCompass(true);
 	}
@@ -468,7 +458,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	}
 	
 	public boolean hasCompleted(String name) {
-		return completedQuests.contains(name);
+		return completedQuestSet.contains(name);
 	}
 	
 	/**
@@ -499,10 +489,38 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			base = questKeys.get(quest);
 		
 		questKeys.put(quest, base + key);
+		questKeySets.remove(quest);
+		markDirty();
+	}
+	
+	/**
+	 * Checks whether the player has every one of the given keys from the quest.
+	 * The player must have at least one key from the quest, even if none are asked for.
+	 */
+	public boolean hasKeys(String quest, BitSet keys) {
+		BitSet have = questKeySets.get(quest);
+		if (have == null) {
+			String owned = questKeys.get(quest);
+			if (owned == null) {
+				return false;
+			}
+			
+			have = Prerequisite.toKeySet(owned);
+			questKeySets.put(quest, have);
+		}
+		
+		for (int i = keys.nextSetBit(0); i >= 0; i = keys.nextSetBit(i + 1)) {
+			if (!have.get(i)) {
+				return false;
+			}
+		}
+		
+		return true;
 	}
 	
 	public void addQuest(Quest quest) {
 		currentQuests.add(quest);
+		markDirty();
 		history.addHistoryEvent(new HistoryEvent("Accepted the quest " + ChatColor.DARK_PURPLE + quest.getName()));
 		if (focusQuest == null) {
 			setFocusQuest(quest.getName());
@@ -523,6 +541,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			Quest q = it.next();
 			if (q.equals(quest)) {
 				it.remove();
+				markDirty();
 				if (focusQuest.equals(quest.getName())) {
 					if (currentQuests.isEmpty()) {
 						focusQuest = null;
@@ -539,9 +558,10 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	}
 	
 	public void completeQuest(Quest quest) {
-		if (!completedQuests.contains(quest.getName())) {
+		if (completedQuestSet.add(quest.getName())) {
 			completedQuests.add(quest.getName());			
 		}
+		markDirty();
 		removeQuest(quest);
 		
 		history.addHistoryEvent(
@@ -574,10 +594,12 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		if (fame > 0) {
 			this.alphaFame += fame;
 		}
+		markDirty();
 	}
 	
 	public void setFame(int fame) {
 		this.fame = fame;
+		markDirty();
 	}
 	
 	public Party getParty() {
@@ -630,6 +652,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	 */
 	public void setMoney(int money) {
 		this.money = money;
+		markDirty();
 		if (getPlayer().isOnline())
 		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration()
 					.getWorlds().contains(getPlayer().getPlayer().getWorld().getName())) {
@@ -642,6 +665,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	 */
 	public void addMoney(int money) {
 		this.money += money;
+		markDirty();
 		if (getPlayer().isOnline())
 			if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration()
 						.getWorlds().contains(getPlayer().getPlayer().getWorld().getName())) {
@@ -654,6 +678,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		maxHp += hpIncrease;
 		maxMp += mpIncrease;
 		mp = maxMp;
+		markDirty();
 		if (getPlayer().isOnline()) {
 			Player p = getPlayer().getPlayer();
 			p.setMaxHealth(maxHp);
@@ -673,6 +698,11 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 
 	public void setTitle(String title) {
 		this.title = title;
+		markDirty();
+		
+		if (QuestManagerPlugin.questManagerPlugin.getPlayerManager() != null) {
+			QuestManagerPlugin.questManagerPlugin.getPlayerManager().getActivePlayers().update(this);
+		}
 	}
 	
 	public void addTitle(String title) {
@@ -680,6 +710,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			return;
 		}
 		this.unlockedTitles.add(title);
+		markDirty();
 		
 		if (!getPlayer().isOnline()) {
 			return;
@@ -707,6 +738,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			return;
 		}
 		this.spells.add(spellName);
+		markDirty();
 		
 		if (!getPlayer().isOnline()) {
 			return;
@@ -773,15 +805,21 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		map.put("storedimbuements", imbs);
 		
 		Map<String, Map<String, Object>> skillMap = new TreeMap<>();
-		if (!skillLevels.isEmpty()) {
-			for (Skill skill : skillLevels.keySet()) {
-				Map<String, Object> detailMap = new TreeMap<>();
-				detailMap.put("level", skillLevels.get(skill));
-				detailMap.put("xp", skillXP.get(skill));
-				
-				skillMap.put(skill.getConfigKey(), detailMap);
+		SkillManager skills = QuestManagerPlugin.questManagerPlugin.getSkillManager();
+		for (int i = 0; i < skillLevels.length; i++) {
+			Skill skill = skills.getSkill(i);
+			if (skill == null || skillLevels[i] == NO_SKILL_LEVEL) {
+				continue;
 			}
 			
+			Map<String, Object> detailMap = new TreeMap<>();
+			detailMap.put("level", skillLevels[i]);
+			detailMap.put("xp", Float.isNaN(skillXP[i]) ? null : skillXP[i]);
+			
+			skillMap.put(skill.getConfigKey(), detailMap);
+		}
+		
+		if (!skillMap.isEmpty()) {
 			map.put("skills", skillMap);
 		}
 		
@@ -881,24 +919,22 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		if (map.containsKey("skills")) {
 			Map<String, Object> skillMap = (Map<String, Object>) map.get("skills");
 			for (String skillName : skillMap.keySet()) {
-				for (Skill skill : QuestManagerPlugin.questManagerPlugin.getSkillManager().getAllSkills()) {
-					if (skill.getConfigKey().equals(skillName)) {
-						try {
-							Map<String, Object> detailMap = (Map<String, Object>) skillMap.get(skillName);
-							qp.setSkillLevel(skill, (int) detailMap.get("level"));
-							if (detailMap.get("xp") == null) {
-								qp.setSkillExperience(skill, 0f);
-							} else {
-								qp.setSkillExperience(skill,(float) ((double) detailMap.get("xp")));
-							}
-						} catch (Exception e) {
-							e.printStackTrace();
-							QuestManagerPlugin.logger.warning("Failed to load skill configuration for skill " + skillName);
-						}
-						
-						break;
-						
+				Skill skill = QuestManagerPlugin.questManagerPlugin.getSkillManager().getSkill(skillName);
+				if (skill == null) {
+					continue;
+				}
+				
+				try {
+					Map<String, Object> detailMap = (Map<String, Object>) skillMap.get(skillName);
+					qp.setSkillLevel(skill, (int) detailMap.get("level"));
+					if (detailMap.get("xp") == null) {
+						qp.setSkillExperience(skill, 0f);
+					} else {
+						qp.setSkillExperience(skill,(float) ((double) detailMap.get("xp")));
 					}
+				} catch (Exception e) {
+					e.printStackTrace();
+					QuestManagerPlugin.logger.warning("Failed to load skill configuration for skill " + skillName);
 				}
 			}
 		}
@@ -936,6 +972,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		if (qp.completedQuests == null) {
 			qp.completedQuests = new LinkedList<>();
 		}
+		qp.completedQuestSet = new HashSet<>(qp.completedQuests);
 		
 		if (qp.unlockedTitles == null) {
 			qp.unlockedTitles = new LinkedList<>();
@@ -945,6 +982,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			qp.journalNotes = new LinkedList<>();
 		}
 		
+		qp.clearDirty();
 		return qp;
 	}
 
@@ -952,6 +990,34 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	public String getIDString() {
 		return getPlayer().getUniqueId().toString();
 	}
+	
+	/**
+	 * Flags this player as having changes that haven't been saved yet
+	 */
+	public void markDirty() {
+		this.dirty = true;
+	}
+	
+	public boolean isDirty() {
+		return dirty;
+	}
+	
+	/**
+	 * Marks this player as saved. Called by the player database once the player's state
+	 * has been written out.
+	 */
+	public void clearDirty() {
+		this.dirty = false;
+	}
+	
+	/**
+	 * Checks whether anything else in the plugin may still be holding on to this player, such as
+	 * an active quest, a party or spell pylons. Players that are held can't safely be unloaded,
+	 * as a fresh copy loaded later would not be the one those holders refer to.
+	 */
+	public boolean isHeld() {
+		return !currentQuests.isEmpty() || party != null || !pylons.isEmpty();
+	}
 
 	/**
 	 * @return the questPortal
@@ -965,9 +1031,9 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	 */
 	public void setQuestPortal(Location questPortal) {
 		this.questPortal = questPortal;
+		markDirty();
 	}
 	
-	@EventHandler
 	public void onPortal(MVPortalEvent e) {
 		
 		if (!QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getUsePortals()) {
@@ -985,7 +1051,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		}
 			
 		if (e.getTeleportee().equals(getPlayer())) {
-			List<String> qworlds = QuestManagerPlugin.questManagerPlugin.getPluginConfiguration()
+			Set<String> qworlds = QuestManagerPlugin.questManagerPlugin.getPluginConfiguration()
 					.getWorlds();
 			if (qworlds.contains(e.getFrom().getWorld().getName())) {
 				
@@ -997,6 +1063,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 				
 				//we're leaving a quest world, so save the portal!
 				this.questPortal = e.getFrom();
+				markDirty();
 				
 				//player quit
 				onPlayerQuit();
@@ -1008,6 +1075,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 					//this is our first time coming in, so just let the portal take us
 					//and save where it plops us out at
 					this.questPortal = e.getDestination().getLocation(getPlayer().getPlayer());
+					markDirty();
 					return;
 				}
 				
@@ -1018,7 +1086,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		}
 	}
 
-	@EventHandler
 	public void onExp(PlayerExpChangeEvent e) {
 		if (!QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getXPMoney()) {
 			return;
@@ -1050,7 +1117,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		e.setAmount(0);
 	}
 	
-	@EventHandler
 	public void onPlayerInteract(PlayerInteractEvent e) {
 		
 		if (!getPlayer().isOnline()) {
@@ -1189,7 +1255,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		
 	}
 	
-	@EventHandler
 	public void onPlayerDeath(PlayerDeathEvent e) {
 		if (!getPlayer().isOnline()) {
 			return;
@@ -1248,7 +1313,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		
 	}
 	
-	@EventHandler
 	public void onPlayerRespawn(PlayerRespawnEvent e) {
 
 		if (!getPlayer().getUniqueId().equals(e.getPlayer().getUniqueId())) {
@@ -1282,7 +1346,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		
 	}
 	
-	@EventHandler
 	public void onPlayerQuit(PlayerQuitEvent e) {
 		if (e.getPlayer().getUniqueId().equals(getPlayer().getUniqueId())) {
 			onPlayerQuit();
@@ -1305,7 +1368,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		}
 	}
 	
-	@EventHandler
 	public void onPlayerInteractWithPlayer(PlayerInteractEntityEvent e) {
 		if (!getPlayer().isOnline()) {
 			return;
@@ -1333,7 +1395,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	
 	}
 	
-	@EventHandler
 	public void onPlayerRuinJournal(PlayerEditBookEvent e) {
 		if (!getPlayer().isOnline()) {
 			return;
@@ -1360,6 +1421,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			}
 			pageNum++;
 			this.journalNotes.clear();
+			markDirty();
 			if (pageNum > newMeta.getPageCount()) {
 				//we went beyond what we have
 			} else {
@@ -1582,6 +1644,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			skill.perform(this, imbuement == null);
 		}
 		this.storedImbuements.put(Short.toUnsignedInt(holder.getDurability()), imbuement);
+		markDirty();
 	}
 	
 	public OfflinePlayer getPlayer() {
@@ -1610,6 +1673,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		for (Quest q : currentQuests) {
 			if (q.getName().equals(questName)) {
 				focusQuest = questName;
+				markDirty();
 				break;
 			}
 		}
@@ -1753,6 +1817,7 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 	@Override
 	public void addMP(double amount) {
 		mp = Math.max(Math.min(maxMp, mp + amount), 0);
+		markDirty();
 		
 		if (getPlayer().isOnline()) {
 			Player p = (Player) getPlayer();
@@ -1793,7 +1858,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		}
 	}
 	
-	@EventHandler
 	public void onEntityDeathEvent(EntityDeathEvent e) {
 		
 		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getMagicEnabled()
@@ -1807,7 +1871,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		}
 	}
 	
-	@EventHandler
 	public void onFoodEat(PlayerItemConsumeEvent e) {
 		if (e.getPlayer().getUniqueId().equals(getPlayer().getUniqueId())) {
 			//do mana regen, if it counts as food
@@ -1845,7 +1908,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		}
 	}
 	
-	@EventHandler
 	public void onPlayerJoin(PlayerJoinEvent e) {
 		if (e.getPlayer().getUniqueId().equals(this.playerID)) {
 			refreshPlayer();
@@ -1925,8 +1987,37 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		spell.cast(this);
 	}
 	
+	/**
+	 * Makes sure the skill arrays have room for the given skill ordinal
+	 */
+	private void ensureSkillCapacity(int ordinal) {
+		if (ordinal < skillLevels.length) {
+			return;
+		}
+		
+		int size = Math.max(ordinal + 1,
+				QuestManagerPlugin.questManagerPlugin.getSkillManager().getSkillCount());
+		int old = skillLevels.length;
+		skillLevels = Arrays.copyOf(skillLevels, size);
+		skillXP = Arrays.copyOf(skillXP, size);
+		Arrays.fill(skillLevels, old, size, NO_SKILL_LEVEL);
+		Arrays.fill(skillXP, old, size, Float.NaN);
+	}
+	
+	private static int ordinalOf(Skill skill) {
+		int ordinal = skill.getOrdinal();
+		if (ordinal < 0) {
+			throw new IllegalArgumentException("Skill " + skill.getName() + " has not been registered!");
+		}
+		
+		return ordinal;
+	}
+	
 	public void setSkillLevel(Skill skill, int level) {
-		this.skillLevels.put(skill, level);
+		int ordinal = ordinalOf(skill);
+		ensureSkillCapacity(ordinal);
+		this.skillLevels[ordinal] = level;
+		markDirty();
 	}
 	
 	public void setSkillExperience(Skill skill, float progress) {
@@ -1936,27 +2027,33 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 			progress = 0f;
 		}
 		
-		this.skillXP.put(skill, progress);
+		int ordinal = ordinalOf(skill);
+		ensureSkillCapacity(ordinal);
+		this.skillXP[ordinal] = progress;
+		markDirty();
 		QuestLog.updateQuestlog(this, true);
 	}
 	
 	public int getSkillLevel(Skill skill) {
-		if (!skillLevels.containsKey(skill)) {
-			skillLevels.put(skill, skill.getStartingLevel());
+		int ordinal = ordinalOf(skill);
+		ensureSkillCapacity(ordinal);
+		if (skillLevels[ordinal] == NO_SKILL_LEVEL) {
+			skillLevels[ordinal] = skill.getStartingLevel();
 		}
 		
-		return skillLevels.get(skill);
+		return skillLevels[ordinal];
 	}
 	
 	public float getSkillExperience(Skill skill) {
-		if (!skillXP.containsKey(skill)) {
-			skillXP.put(skill, 0.0f);
+		int ordinal = ordinalOf(skill);
+		ensureSkillCapacity(ordinal);
+		if (Float.isNaN(skillXP[ordinal])) {
+			skillXP[ordinal] = 0.0f;
 		}
 		
-		return skillXP.get(skill);
+		return skillXP[ordinal];
 	}
 	
-	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onPlayerDamage(EntityDamageByEntityEvent e) {
 		if (e.isCancelled()) {
 			return;
@@ -2084,7 +2181,6 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		}
 	}
 	
-	@EventHandler
 	public void onCombatEvent(CombatEvent e) {
 		if (e.getTarget() instanceof Player)
 		if (((Player) e.getTarget()).getUniqueId().equals(playerID)) {
@@ -2213,166 +2309,64 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		
 		addMP(-spell.getCost());
 		
+		Polygon bound = getSpellBound(points);
+		
 		switch (spell.getTargetType()) {
 		case ENTITY:
-			spell.castOnEntities(this, getEntitiesInBound(points));
+			spell.castOnEntities(this, getEntitiesInBound(bound));
 			break;
 		case BLOCK:
-			spell.castOnLocations(this, getBlocksInBound(points));
+			spell.castOnLocations(this, getBlocksInBound(bound));
 			break;
 		case BOTH:
-			spell.castOnAll(this, getEntitiesInBound(points), getBlocksInBound(points));
+			spell.castOnAll(this, getEntitiesInBound(bound), getBlocksInBound(bound));
 			break;
 		}
 		
 	}
 	
 	/**
-	 * Returns a list of all entities in the custom multi-point bounding poly provided.
-	 * Behavior is undefined when all listed points are not in the same world (as we use
-	 * one of the points' world to get a list of entities to check!)
+	 * Makes the bounding poly for a spell weaving spell out of the pylon locations.
+	 * Behavior is undefined when all listed points are not in the same world.
+	 * @return the bound, or null if there are no points or they're too far apart
 	 */
-	private List<Entity> getEntitiesInBound(List<Location> points) {
-		List<Entity> list = new LinkedList<>();
+	private Polygon getSpellBound(List<Location> points) {
+		if (points == null || points.isEmpty()) {
+			return null;
+		}
 		
 		//prelim area check. Can't be over config values
-		Location last = null;
+		Location first = points.get(0);
 		double maxDistance = QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getMaxPylonDistance();
 		for (Location l : points) {
-			if (last == null) {
-				last = l;
-				continue;
-			}
-			
-			if (l.distance(last) > maxDistance) {
-				return list; //cancel everything. just stop, cause it's gonna be too big.
+			if (l.distance(first) > maxDistance) {
+				return null; //cancel everything. just stop, cause it's gonna be too big.
 			}
 		}
 		
-		if (points == null || points.isEmpty()) {
-			return list;
+		return Polygon.around(points);
+	}
+	
+	/**
+	 * Returns a list of all entities in the custom multi-point bounding poly provided.
+	 */
+	private List<Entity> getEntitiesInBound(Polygon bound) {
+		if (bound == null) {
+			return new LinkedList<>();
 		}
 		
-		//optimizations: get absolute min, max for initial discard of entities
-		//               get center
-		double minx = 0, minz = 0, maxx = 0, maxz = 0;
-		double centerx = 0, centerz = 0;
-		boolean flip = false;
-		for (Location loc : points) {
-			centerx += loc.getX();
-			centerz += loc.getY();
-			
-			if (!flip) {
-				flip = true;
-				minx = maxx = loc.getX();
-				minz = maxz = loc.getZ();
-				continue;
-			}
-			
-			
-			if (loc.getX() < minx)
-				minx = loc.getX();
-			if (loc.getX() > maxx)
-				maxx = loc.getX();
-			if (loc.getZ() < minz)
-				minz = loc.getZ();
-			if (loc.getZ() > maxz)
-				maxz = loc.getZ();
-		}
-		
-		//finish center calculation
-		centerx = centerx / points.size();
-		centerz = centerz / points.size();
-		
-		final double centx = centerx, centz = centerz;
-		
-		//sort points for convext-ivity
-		Collections.sort(points, (o1, o2) -> {
-            //Code taken from
-            //http://stackoverflow.com/questions/6989100/sort-points-in-clockwise-order
-            if (o1.getX() - centx >= 0 && o2.getX() - centx < 0)
-                return -1;
-            if (o1.getX() - centx < 0 && o2.getX() - centx >= 0)
-                return 1;
-            if (o1.getX() - centx == 0 && o2.getX() - centx == 0) {
-                if (o1.getY() - centz >= 0 || o2.getY() - centz >= 0)
-                    return Double.compare(o2.getY(), o1.getY());
-                return Double.compare(o1.getY(), o2.getY());
-            }
-
-            // compute the cross product of vectors (center -> a) x (center -> b)
-            double det = (o1.getX() - centx) * (o2.getY() - centz) - (o2.getX() - centx) * (o1.getY() - centz);
-            if (det < 0)
-                return -1;
-            if (det > 0)
-                return 1;
-
-            // points a and b are on the same line from the center
-            // check which point is closer to the center
-            double d1 = (o1.getX() - centx) * (o1.getX() - centx) + (o1.getY() - centz) * (o1.getY() - centz);
-            double d2 = (o2.getX() - centx) * (o2.getX() - centx) + (o2.getY() - centz) * (o2.getY() - centz);
-            return Double.compare(d2,d1);
-        });
-		
-		for (Entity entity : points.get(0).getWorld().getEntities()) {
-			if (   entity.getLocation().getX() < minx
-				|| entity.getLocation().getZ() < minz
-				|| entity.getLocation().getX() > maxx
-				|| entity.getLocation().getZ() > maxz) {
-				continue; //early elimination based on abs max, min
-			}
-			
-			
-			//get line closest
-			double minDist = 0, dist;
-			double x0, x1, x2, z0, z1, z2;
-			x0 = entity.getLocation().getX();
-			z0 = entity.getLocation().getZ();
-			flip = true;
-			Location l1, l2, minl1 = null, minl2 = null;
-			l1 = null;
-			Iterator<Location> it = points.iterator();
-			l2 = points.get(points.size() - 1);
-			while (it.hasNext()) {
-				l1 = l2;
-				l2 = it.next();
-				
-				x1 = l1.getX(); z1 = l1.getZ();
-				x2 = l2.getX(); z2 = l2.getZ();
-				
-				dist = (
-						Math.abs(
-								  ((x1 - x0) * (z2 - z1)) - ((x1 - x2) * (z0 - z1))
-								)
-						/
-						Math.sqrt(
-						  Math.pow(z2 - z1, 2)
-						  +
-						  Math.pow(x2 - x1, 2)
-						)
-						);
-				
-				if (flip || dist < minDist) {
-					flip = false;
-					minDist = dist;
-					minl1 = l1; minl2 = l2;
-				}
-			}
-			
-			//minl1, minl2 are points with minimum distance. 
-			//all we need to do now is return if we're on the same side as the center (the inside)
-			if(((z0 - centerz)*(minl1.getX() - x0) + (centerx - x0)*(minl1.getZ() - z0))
-					* ((z0 - centerz)*(minl2.getX() - x0) + (centerx - x0)*(minl2.getZ() - z0)) < 0) {
-				list.add(entity);
-			}
-		}
-				
-		return list;
+		return bound.getEntities();
 	}
 	
-	private List<Location> getBlocksInBound(List<Location> points) {
-		//TODO
-		return null;
+	/**
+	 * Returns the locations of all blocks in the custom multi-point bounding poly provided
+	 */
+	private List<Location> getBlocksInBound(Polygon bound) {
+		if (bound == null) {
+			return new LinkedList<>();
+		}
+		
+		return bound.getBlocks();
 	}
 
 	public Imbuement getCurrentImbuement() {
@@ -2433,12 +2427,15 @@ public class QuestPlayer implements Participant, Listener, MagicUser, Comparable
 		ef.play(p, p.getLocation());
 		p.playSound(p.getLocation(), Sound.BLOCK_PORTAL_TRAVEL, 1, 1);
 		
-		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().singleRecall())
+		if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().singleRecall()) {
 			markLocation = null;
+			markDirty();
+		}
 	}
 	
 	public void mark(Location loc) {
 		markLocation = loc.clone();
+		markDirty();
 		if (getPlayer().isOnline()) {
 			Player p = getPlayer().getPlayer();
 			p.sendMessage(MARK_MESSAGE);
@@ -0,0 +1,142 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.player.skill;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * Identifies an item for recipe matching: its material, data value and display name with colors
+ * stripped. Amounts, lore and anything else about the item are ignored.
+ * <p>
+ * Keys are immutable and compare by value, so they can be used in hash maps.
+ * </p>
+ */
+public final class ItemKey implements Comparable<ItemKey> {
+	
+	/**
+	 * Key for an empty slot, whether it held null or air
+	 */
+	public static final ItemKey EMPTY = new ItemKey(Material.AIR, (short) 0, null);
+	
+	private final Material type;
+	
+	private final short data;
+	
+	/**
+	 * Display name without color codes, or null if the item isn't named
+	 */
+	private final String name;
+	
+	private final int hash;
+	
+	private ItemKey(Material type, short data, String name) {
+		this.type = type;
+		this.data = data;
+		this.name = name;
+		
+		int h = type.hashCode();
+		h = 31 * h + data;
+		h = 31 * h + (name == null ? 0 : name.hashCode());
+		this.hash = h;
+	}
+	
+	/**
+	 * Makes the key for the given item. Null and air both give {@link #EMPTY}.
+	 */
+	public static ItemKey of(ItemStack item) {
+		if (item == null || item.getType() == Material.AIR) {
+			return EMPTY;
+		}
+		
+		String name = null;
+		if (item.hasItemMeta()) {
+			ItemMeta meta = item.getItemMeta();
+			if (meta.hasDisplayName()) {
+				name = ChatColor.stripColor(meta.getDisplayName());
+			}
+		}
+		
+		return new ItemKey(item.getType(), item.getDurability(), name);
+	}
+	
+	public Material getType() {
+		return type;
+	}
+	
+	public short getData() {
+		return data;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public boolean isEmpty() {
+		return this == EMPTY;
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof ItemKey)) {
+			return false;
+		}
+		
+		ItemKey other = (ItemKey) o;
+		return hash == other.hash && type == other.type && data == other.data
+				&& (name == null ? other.name == null : name.equals(other.name));
+	}
+	
+	/**
+	 * Orders keys by material, then data, then name. Used to put sets of keys in a canonical order.
+	 */
+	@Override
+	public int compareTo(ItemKey o) {
+		int c = Integer.compare(type.ordinal(), o.type.ordinal());
+		if (c != 0) {
+			return c;
+		}
+		
+		c = Short.compare(data, o.data);
+		if (c != 0) {
+			return c;
+		}
+		
+		if (name == null || o.name == null) {
+			return name == null ? (o.name == null ? 0 : -1) : 1;
+		}
+		
+		return name.compareTo(o.name);
+	}
+	
+	@Override
+	public String toString() {
+		return type + ":" + data + (name == null ? "" : "[" + name + "]");
+	}
+}
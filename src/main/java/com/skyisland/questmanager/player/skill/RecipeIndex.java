@@ -0,0 +1,158 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.player.skill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Looks up recipes by the items that go into them, in any order.
+ * <p>
+ * Each recipe is filed under the multiset of its inputs' {@link ItemKey ItemKeys}. The multiset's
+ * hash doesn't depend on the order of the inputs, so finding the recipes for a set of items is a
+ * single hash lookup no matter how many recipes there are. Recipes filed under the same inputs are
+ * kept in the order they were added.
+ * </p>
+ *
+ * @param <R> The type of recipe
+ */
+public class RecipeIndex<R> {
+	
+	/**
+	 * A multiset of item keys. The keys are sorted, so two multisets with the same keys
+	 * in a different order are equal.
+	 */
+	private static final class Inputs {
+		
+		private final ItemKey[] keys;
+		
+		private final int hash;
+		
+		private Inputs(ItemKey[] keys) {
+			Arrays.sort(keys);
+			this.keys = keys;
+			
+			//sum of mixed element hashes, so order doesn't matter
+			int h = keys.length;
+			for (ItemKey key : keys) {
+				int k = key.hashCode() * 0x9E3779B9;
+				h += k ^ (k >>> 16);
+			}
+			this.hash = h;
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Inputs)) {
+				return false;
+			}
+			
+			Inputs other = (Inputs) o;
+			return hash == other.hash && Arrays.equals(keys, other.keys);
+		}
+	}
+	
+	private Map<Inputs, List<R>> recipes;
+	
+	private int size;
+	
+	public RecipeIndex() {
+		this.recipes = new HashMap<>();
+		this.size = 0;
+	}
+	
+	/**
+	 * Files the recipe under the given inputs. Null inputs count as {@link ItemKey#EMPTY empty} slots.
+	 */
+	public void add(R recipe, ItemStack ... inputs) {
+		add(recipe, Arrays.asList(inputs));
+	}
+	
+	/**
+	 * Files the recipe under the given inputs. Null inputs count as {@link ItemKey#EMPTY empty} slots.
+	 */
+	public void add(R recipe, Collection<ItemStack> inputs) {
+		Inputs key = toInputs(inputs);
+		List<R> list = recipes.get(key);
+		if (list == null) {
+			list = new ArrayList<>(1);
+			recipes.put(key, list);
+		}
+		
+		list.add(recipe);
+		size++;
+	}
+	
+	/**
+	 * Returns the first recipe added with exactly the given inputs, in any order.
+	 * Null inputs count as {@link ItemKey#EMPTY empty} slots.
+	 * @return the recipe, or null if there isn't one
+	 */
+	public R get(ItemStack ... inputs) {
+		List<R> list = recipes.get(toInputs(Arrays.asList(inputs)));
+		return list == null ? null : list.get(0);
+	}
+	
+	/**
+	 * Returns every recipe added with exactly the given inputs, in any order, in the order they
+	 * were added. Null inputs count as {@link ItemKey#EMPTY empty} slots.
+	 */
+	public List<R> getAll(Collection<ItemStack> inputs) {
+		List<R> list = recipes.get(toInputs(inputs));
+		return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public void clear() {
+		recipes.clear();
+		size = 0;
+	}
+	
+	private static Inputs toInputs(Collection<ItemStack> items) {
+		ItemKey[] keys = new ItemKey[items.size()];
+		int i = 0;
+		for (ItemStack item : items) {
+			keys[i++] = ItemKey.of(item);
+		}
+		
+		return new Inputs(keys);
+	}
+}
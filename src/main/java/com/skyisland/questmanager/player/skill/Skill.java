@@ -52,6 +52,12 @@ public abstract class Skill implements Comparable<Skill> {
 	//Courtesy RANDOM
 	public static final Random RANDOM = new Random();
 	
+	/**
+	 * Index handed out by the {@link SkillManager} on registration, used to store per-player
+	 * skill information in arrays. -1 until registered
+	 */
+	private int ordinal = -1;
+	
 	/**
 	 * Adds experience to the skill, standardized as the specified amount for performing an action of
 	 * level <i>actionLevel</i> and either succeeding or failing, as determiend by <i>fail</i>
@@ -164,6 +170,18 @@ public abstract class Skill implements Comparable<Skill> {
 		attribute.addModifier(new AttributeModifier(name, amt, AttributeModifier.Operation.ADD_SCALAR));
 	}
 	
+	/**
+	 * Returns the index this skill was given when registered with the {@link SkillManager},
+	 * or -1 if it hasn't been registered
+	 */
+	public final int getOrdinal() {
+		return ordinal;
+	}
+	
+	void setOrdinal(int ordinal) {
+		this.ordinal = ordinal;
+	}
+	
 	@Override
 	public int compareTo(Skill o) {
 		return getName().compareTo(o.getName());
@@ -18,7 +18,11 @@
 
 package com.skyisland.questmanager.player.skill;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -30,13 +34,58 @@ public class SkillManager {
 	
 	private Set<Skill> skills;
 	
+	/**
+	 * Registered skills, by ordinal
+	 */
+	private List<Skill> ordered;
+	
+	private Map<String, Skill> byKey;
 	
 	public SkillManager() {
 		skills = new HashSet<>();
+		ordered = new ArrayList<>();
+		byKey = new HashMap<>();
 	}
 	
+	/**
+	 * Registers the skill, and gives it the next free {@link Skill#getOrdinal() ordinal}.
+	 * Registering a skill equal to one already registered gives it the same ordinal.
+	 */
 	public void registerSkill(Skill skill) {
+		for (Skill registered : ordered) {
+			if (registered.equals(skill)) {
+				skill.setOrdinal(registered.getOrdinal());
+				return;
+			}
+		}
+		
+		skill.setOrdinal(ordered.size());
+		ordered.add(skill);
 		skills.add(skill);
+		byKey.put(skill.getConfigKey(), skill);
+	}
+	
+	/**
+	 * Returns the number of skills registered, which is one more than the highest ordinal handed out
+	 */
+	public int getSkillCount() {
+		return ordered.size();
+	}
+	
+	/**
+	 * Looks up a registered skill by its ordinal
+	 * @return the skill, or null if no skill has that ordinal
+	 */
+	public Skill getSkill(int ordinal) {
+		return (ordinal < 0 || ordinal >= ordered.size() ? null : ordered.get(ordinal));
+	}
+	
+	/**
+	 * Looks up a registered skill by its {@link Skill#getConfigKey() config key}
+	 * @return the skill, or null if none is registered under that key
+	 */
+	public Skill getSkill(String configKey) {
+		return byKey.get(configKey);
 	}
 	
 	public Set<Skill> getAllSkills() {
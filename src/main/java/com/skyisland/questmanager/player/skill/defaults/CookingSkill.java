@@ -20,7 +20,6 @@ package com.skyisland.questmanager.player.skill.defaults;
 
 import java.io.File;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +48,7 @@ import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.player.skill.CraftingSkill;
 import com.skyisland.questmanager.player.skill.FoodItem;
 import com.skyisland.questmanager.player.skill.LogSkill;
+import com.skyisland.questmanager.player.skill.RecipeIndex;
 import com.skyisland.questmanager.player.skill.Skill;
 import com.skyisland.questmanager.player.skill.SkillRecipe;
 import com.skyisland.questmanager.player.skill.event.CraftEvent;
@@ -280,6 +280,10 @@ public class CookingSkill extends LogSkill implements Listener, CraftingSkill {
 	
 	private List<CombineRecipe> cRecipes;
 	
+	private RecipeIndex<OvenRecipe> ovenIndex;
+	
+	private RecipeIndex<CombineRecipe> mixingIndex;
+	
 	private List<Material> foodBlacklist;
 	
 	private double hungerRate;
@@ -307,6 +311,9 @@ public class CookingSkill extends LogSkill implements Listener, CraftingSkill {
 		this.hungerRate = config.getDouble("hungerRate", .005);
 		
 		this.oRecipes = new LinkedList<>();
+		this.cRecipes = new LinkedList<>();
+		this.ovenIndex = new RecipeIndex<>();
+		this.mixingIndex = new RecipeIndex<>();
 		if (!config.contains("oven")) {
 			QuestManagerPlugin.logger.warning("Didn't find any oven recipe table"
 					+ "for CookingSkill even though it's enabled!");
@@ -319,10 +326,12 @@ public class CookingSkill extends LogSkill implements Listener, CraftingSkill {
 				}
 				
 				try {
-					oRecipes.add(new OvenRecipe(
+					OvenRecipe recipe = new OvenRecipe(
 							sex.getInt(key + ".difficulty"), sex.getItemStack(key + ".input"),
 							new FoodItem(sex.getItemStack(key + ".output"), sex.getInt(key + ".food"))
-							));
+							);
+					oRecipes.add(recipe);
+					ovenIndex.add(recipe, recipe.input);
 				} catch (Exception e) {
 					e.printStackTrace();
 					QuestManagerPlugin.logger.warning("Skipping that one! ^");
@@ -330,7 +339,6 @@ public class CookingSkill extends LogSkill implements Listener, CraftingSkill {
 			}
 		}
 		
-		this.cRecipes = new LinkedList<>();
 		if (!config.contains("mixing")) {
 			QuestManagerPlugin.logger.warning("Didn't find any mixing recipe table"
 					+ "for CookingSkill even though it's enabled!");
@@ -343,12 +351,14 @@ public class CookingSkill extends LogSkill implements Listener, CraftingSkill {
 				}
 				
 				try {
-					cRecipes.add(new CombineRecipe(
+					CombineRecipe recipe = new CombineRecipe(
 							sex.getInt(key + ".difficulty"), sex.getItemStack(key + ".input1"),
 							(sex.contains(key + ".input2") ? sex.getItemStack(key + ".input2") : null),
 							(sex.contains(key + ".input3") ? sex.getItemStack(key + ".input3") : null),
 							new FoodItem(sex.getItemStack(key + ".output"), sex.getInt(key + ".food"))
-							));
+							);
+					cRecipes.add(recipe);
+					mixingIndex.add(recipe, recipe.input1, recipe.input2, recipe.input3);
 				} catch (Exception e) {
 					e.printStackTrace();
 					QuestManagerPlugin.logger.warning("Skipping that one! ^");
@@ -527,57 +537,21 @@ public class CookingSkill extends LogSkill implements Listener, CraftingSkill {
 	}
 
 	/**
-	 * Scans the available recipes given the provided input and returns the first matching recipe.
+	 * Looks up the recipe for the provided input.
 	 * If multiple recipes are defined with the same input, the first registered is returned.
 	 * @return A recipe with the same input as given, if one exists. Null otherwise
 	 */
 	public OvenRecipe getOvenRecipe(ItemStack input) {
-		if (oRecipes.isEmpty()) {
-			return null;
-		}
-		
-		for (OvenRecipe recipe : oRecipes) {
-			if (isMatch(recipe.input, input)) {
-				return recipe;
-			}
-		}
-		
-		return null;
+		return ovenIndex.get(input);
 	}
 
 	/**
 	 * With the provided inputs, looks for a combine recipe with the same constraints.
-	 * The recipe provided must match all constraints. This included names
+	 * The recipe provided must match all constraints. This included names, but not the order of the inputs
 	 * @return A recipe with the same input as given, if one exists. Null otherwise
 	 */
 	public CombineRecipe getMixingRecipe(ItemStack input1, ItemStack input2, ItemStack input3) {
-		if (oRecipes.isEmpty()) {
-			return null;
-		}
-		
-		List<ItemStack> args, inputs;
-		Iterator<ItemStack> it;
-		inputs = Lists.newArrayList(input1, input2, input3);
-		for (CombineRecipe recipe : cRecipes) {
-			int size = inputs.size();
-			args = Lists.newArrayList(recipe.input1, recipe.input2, recipe.input3);
-			for (ItemStack item : inputs) {
-				size--;
-				it = args.iterator();
-				while (it.hasNext()) {
-					if (isMatch(it.next(), item)) {
-						it.remove();
-						break;
-					}
-				}
-				if (size < args.size())
-					break;
-			}
-			if (args.isEmpty())
-				return recipe;
-		}
-		
-		return null;
+		return mixingIndex.get(input1, input2, input3);
 	}
 	
 	public double getCombineChance(QuestPlayer player, CombineRecipe recipe) {
@@ -585,48 +559,6 @@ public class CookingSkill extends LogSkill implements Listener, CraftingSkill {
 		return 1.0 - Math.max(0, Math.min(1, combineDifficultyRate * ((double) (recipe.difficulty - level))));
 	}
 	
-	private boolean isMatch(ItemStack i1, ItemStack i2) {
-		if (i1 == null && i2 == null)
-			return true;
-		
-		if (i1 == null || i2 == null) {
-			return false;
-		}
-		
-		if (i1.getType() != i2.getType() || i1.getDurability() != i2.getDurability())
-			return false;
-		
-//		if (!i1.hasItemMeta() && !i2.hasItemMeta())
-//			return true;
-//		
-//		if (!i1.hasItemMeta() || !i2.hasItemMeta())
-//			return false;
-//		
-//		ItemMeta m1 = i1.getItemMeta(), m2 = i2.getItemMeta();
-//		
-//		if (m1.getDisplayName() == null && m2.getDisplayName() == null)
-//			return true;
-//		
-//		if (m1.getDisplayName() == null || m2.getDisplayName() == null)
-//			return false;
-		
-		String name1, name2;
-		name1 = name2 = null;
-		if (i1.hasItemMeta() && i1.getItemMeta().hasDisplayName())
-			name1 = i1.getItemMeta().getDisplayName();
-		if (i2.hasItemMeta() && i2.getItemMeta().hasDisplayName())
-			name2 = i2.getItemMeta().getDisplayName();
-		
-		if (name1 == null && name2 == null)
-			return true;
-		
-		if (name1 == null || name2 == null)
-			return false;
-		
-		
-		return ChatColor.stripColor(name1).equals(ChatColor.stripColor(name2));
-	}
-	
 	public void unregisterOven(Location location) {
 		furnaceMap.remove(location);
 	}
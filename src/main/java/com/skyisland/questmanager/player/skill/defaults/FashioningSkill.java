@@ -44,6 +44,7 @@ import com.skyisland.questmanager.configuration.utils.YamlWriter;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.player.skill.CraftingSkill;
 import com.skyisland.questmanager.player.skill.LogSkill;
+import com.skyisland.questmanager.player.skill.RecipeIndex;
 import com.skyisland.questmanager.player.skill.Skill;
 import com.skyisland.questmanager.player.skill.SkillRecipe;
 import com.skyisland.questmanager.player.skill.event.CraftEvent;
@@ -158,6 +159,8 @@ public class FashioningSkill extends LogSkill implements Listener, CraftingSkill
 	
 	private List<FashioningRecipe> recipes;
 	
+	private RecipeIndex<FashioningRecipe> index;
+	
 	public FashioningSkill() {
 		File configFile = new File(QuestManagerPlugin.questManagerPlugin.getDataFolder(),
 				QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getSkillPath() + CONFIG_NAME);
@@ -174,6 +177,7 @@ public class FashioningSkill extends LogSkill implements Listener, CraftingSkill
 		
 		
 		this.recipes = new LinkedList<>();
+		this.index = new RecipeIndex<>();
 		if (!config.contains("recipes")) {
 			QuestManagerPlugin.logger.warning("Didn't find any oven recipe table"
 					+ "for FashioningSkill even though it's enabled!");
@@ -186,10 +190,12 @@ public class FashioningSkill extends LogSkill implements Listener, CraftingSkill
 				}
 				
 				try {
-					recipes.add(new FashioningRecipe(
+					FashioningRecipe recipe = new FashioningRecipe(
 							sex.getInt(key + ".difficulty"), sex.getItemStack(key + ".input1"),
 							sex.getItemStack(key + ".input2"), sex.getItemStack(key + ".output")
-							));
+							);
+					recipes.add(recipe);
+					index.add(recipe, recipe.input1, recipe.input2);
 				} catch (Exception e) {
 					e.printStackTrace();
 					QuestManagerPlugin.logger.warning("Skipping that one! ^");
@@ -306,22 +312,12 @@ public class FashioningSkill extends LogSkill implements Listener, CraftingSkill
 	}
 
 	/**
-	 * Scans the available recipes given the provided input and returns the first matching recipe.
+	 * Looks up the recipe for the provided inputs, in either order.
 	 * If multiple recipes are defined with the same input, the first registered is returned.
 	 * @return A recipe with the same input as given, if one exists. Null otherwise
 	 */
 	public FashioningRecipe getRecipe(ItemStack input1, ItemStack input2) {
-		if (recipes.isEmpty()) {
-			return null;
-		}
-		
-		for (FashioningRecipe recipe : recipes) {
-			if ((isMatch(recipe.input1, input1) && isMatch(recipe.input2, input2))
-			 || (isMatch(recipe.input1, input2) && isMatch(recipe.input2, input1)))
-				return recipe;
-		}
-		
-		return null;
+		return index.get(input1, input2);
 	}
 	
 	public double getFashioningChance(QuestPlayer player, FashioningRecipe recipe) {
@@ -329,34 +325,6 @@ public class FashioningSkill extends LogSkill implements Listener, CraftingSkill
 		return 1.0 - Math.max(0, Math.min(1, difficultyRate * ((double) (recipe.difficulty - level))));
 	}
 	
-	private boolean isMatch(ItemStack i1, ItemStack i2) {
-		if (i1 == null && i2 == null)
-			return true;
-		
-		if (i1 == null || i2 == null) {
-			return false;
-		}
-		
-		if (i1.getType() != i2.getType() || i1.getDurability() != i2.getDurability())
-			return false;
-		
-		if (!i1.hasItemMeta() && !i2.hasItemMeta())
-			return true;
-		
-		if (!i1.hasItemMeta() || !i2.hasItemMeta())
-			return false;
-		
-		ItemMeta m1 = i1.getItemMeta(), m2 = i2.getItemMeta();
-		
-		if (m1.getDisplayName() == null && m2.getDisplayName() == null)
-			return true;
-		
-		if (m1.getDisplayName() == null || m2.getDisplayName() == null)
-			return false;
-		
-		return ChatColor.stripColor(m1.getDisplayName()).equals(ChatColor.stripColor(m2.getDisplayName()));
-	}
-	
 	public void unregisterBench(Location location) {
 		tableMap.remove(location);
 	}
@@ -19,10 +19,7 @@
 package com.skyisland.questmanager.player.skill.defaults;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 import org.bukkit.Bukkit;
@@ -50,6 +47,7 @@ import com.skyisland.questmanager.region.Region;
 import com.skyisland.questmanager.region.RegionManager;
 import com.skyisland.questmanager.ui.menu.InventoryMenu;
 import com.skyisland.questmanager.ui.menu.inventory.minigames.FishingGui;
+import com.skyisland.questmanager.util.GatheringTable;
 
 public class FishingSkill extends LogSkill implements Listener {
 	
@@ -156,7 +154,7 @@ public class FishingSkill extends LogSkill implements Listener {
 	
 	private boolean restrictLower;
 	
-	private List<FishRecord> fishRecords;
+	private GatheringTable<FishRecord> fishRecords;
 	
 	public FishingSkill() {
 		File configFile = new File(QuestManagerPlugin.questManagerPlugin.getDataFolder(),
@@ -186,7 +184,7 @@ public class FishingSkill extends LogSkill implements Listener {
 		this.qualityRate = config.getDouble("qualityRate", 0.01);
 		this.restrictLower = config.getBoolean("restrictLower", false);
 		
-		this.fishRecords = new LinkedList<>();
+		this.fishRecords = new GatheringTable<>();
 		if (!config.contains("fish")) {
 			QuestManagerPlugin.logger.warning("Didn't find any fish table"
 					+ "for FishingSkill even though it's enabled!");
@@ -200,12 +198,13 @@ public class FishingSkill extends LogSkill implements Listener {
 				}
 				
 				try {
-					fishRecords.add(new FishRecord(
+					FishRecord record = new FishRecord(
 							sex.getInt(key + ".difficulty"), sex.getDouble(key + ".weight", 1.0), 
 							sex.getItemStack(key + ".icon", new ItemStack(Material.RAW_FISH)),
 							rManager.getRegion(sex.contains(key + ".region") ? 
 									(sex.get(key + ".region") == null ? null : ((LocationState) sex.get(key + ".region")).getLocation())
-									: null)));
+									: null));
+					fishRecords.add(record, record.difficulty, record.weight, record.region);
 				} catch (Exception e) {
 					e.printStackTrace();
 					QuestManagerPlugin.logger.warning("Skipping that one! ^");
@@ -356,40 +355,12 @@ public class FishingSkill extends LogSkill implements Listener {
 	}
 
 	/**
-	 * Finds and returns a fish (if one exists) within {@link #maxDifficultyRange} of the provided
-	 * difficulty.
+	 * Finds and returns a random fish (if one exists) within {@link #maxDifficultyRange} of the provided
+	 * difficulty, picked by weight. Unless {@link #restrictLower} is set, any easier fish is also allowed.
 	 * @return A fish record within the provided limits, or null if none were found
 	 */
 	private FishRecord getFish(int difficulty, Location bobberLocation) {
-		if (fishRecords.isEmpty()) {
-			return null;
-		}
-		
-		List<FishRecord> applicable = new LinkedList<>();
-		double sum = 0;
-		Collections.shuffle(fishRecords);
-		for (FishRecord record : fishRecords) {
-			if ((!restrictLower && record.difficulty < difficulty) ||
-					Math.abs(record.difficulty - difficulty) <= maxDifficultyRange)
-			if (record.region == null || record.region.isIn(bobberLocation)) {
-				//return record;
-				applicable.add(record);
-				sum += record.weight;
-			}
-		}
-		
-		//have a list of applicable. get random based on weight
-		if (applicable.isEmpty())
-			return null;
-
-		double index = RANDOM.nextDouble() * sum;
-		for (FishRecord record : applicable) {
-			index -= record.weight;
-			if (index <= 0)
-				return record;
-		}
-		
-		//shouldn't ever get here. If it does, just return last in list
-		return applicable.get(applicable.size() - 1);
+		return fishRecords.getRandom(restrictLower ? difficulty - maxDifficultyRange : Integer.MIN_VALUE,
+				difficulty + maxDifficultyRange, bobberLocation);
 	}
 }
@@ -19,9 +19,7 @@
 package com.skyisland.questmanager.player.skill.defaults;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -56,6 +54,7 @@ import com.skyisland.questmanager.player.skill.event.WoodChopEvent;
 import com.skyisland.questmanager.region.Region;
 import com.skyisland.questmanager.region.RegionManager;
 import com.skyisland.questmanager.ui.actionsequence.LumberjackSequence;
+import com.skyisland.questmanager.util.GatheringTable;
 
 public class LumberjackSkill extends LogReducedSkill implements Listener {
 	
@@ -97,15 +96,6 @@ public class LumberjackSkill extends LogReducedSkill implements Listener {
 			this.region = region;
 		}
 		
-		public boolean isValid(Block block) {
-			if (region != null)
-			if (!region.isIn(block.getLocation()))
-					return false;
-			
-			
-			return block.getState().getData().equals(woodType);
-		}
-		
 	}
 
 	public Type getType() {
@@ -180,7 +170,10 @@ public class LumberjackSkill extends LogReducedSkill implements Listener {
 	
 	private boolean restrictLower;
 	
-	private List<TreeRecord> treeRecords;
+	/**
+	 * Tree records by the {@link #getWoodKey(Material, byte) key} of the wood they're found in
+	 */
+	private Map<Integer, GatheringTable<TreeRecord>> treeRecords;
 	
 	private Map<UUID, LumberjackSequence> activeSessions;
 	
@@ -213,7 +206,7 @@ public class LumberjackSkill extends LogReducedSkill implements Listener {
 		
 		this.activeSessions = new HashMap<>();
 		this.lastLocations = new HashMap<>();
-		this.treeRecords = new LinkedList<>();
+		this.treeRecords = new HashMap<>();
 		if (!config.contains("trees")) {
 			QuestManagerPlugin.logger.warning("Didn't find any tree table"
 					+ "for LumberjackSkill even though it's enabled!");
@@ -238,13 +231,21 @@ public class LumberjackSkill extends LogReducedSkill implements Listener {
 				subsex = sex.getConfigurationSection(key);
 				try {
 					Wood wood = new Wood(Material.LOG, TreeSpecies.valueOf(subsex.getString("treeType").toUpperCase()));
-					treeRecords.add(new TreeRecord(
+					TreeRecord record = new TreeRecord(
 							subsex.getInt("difficulty"), key,
 							subsex.getItemStack("reward"), subsex.getInt("woodCount"),
 							wood, rManager.getRegion(subsex.contains("region") ? 
 									(subsex.get("region") == null ? null : ((LocationState) subsex.get("region")).getLocation())
 									: null)
-							));
+							);
+					
+					int woodKey = getWoodKey(wood.getItemType(), wood.getData());
+					GatheringTable<TreeRecord> table = treeRecords.get(woodKey);
+					if (table == null) {
+						table = new GatheringTable<>();
+						treeRecords.put(woodKey, table);
+					}
+					table.add(record, record.difficulty, 1.0, record.region);
 				} catch (Exception e) {
 					e.printStackTrace();
 					QuestManagerPlugin.logger.warning("Skipping that one! ^");
@@ -429,34 +430,27 @@ public class LumberjackSkill extends LogReducedSkill implements Listener {
 	}
 
 	/**
-	 * Finds and returns a fish (if one exists) within {@link #maxDifficultyRange} of the provided
-	 * difficulty.
-	 * @return A fish record within the provided limits, or null if none were found
+	 * Finds and returns a random tree (if one exists) matching the clicked wood, within
+	 * {@link #maxDifficultyRange} of the provided difficulty. Unless {@link #restrictLower} is set,
+	 * any easier tree is also allowed.
+	 * @return A tree record within the provided limits, or null if none were found
 	 */
+	@SuppressWarnings("deprecation")
 	private TreeRecord getTree(Block clickedBlock, int difficulty) {
-		if (treeRecords.isEmpty()) {
-			return null;
-		}
-		
-		List<TreeRecord> list = new LinkedList<>();
-		for (TreeRecord record : treeRecords) {
-			if (record.isValid(clickedBlock))
-				list.add(record);
-		}
-		
-		if (list == null || list.isEmpty()) {
+		GatheringTable<TreeRecord> table = treeRecords.get(getWoodKey(clickedBlock.getType(), clickedBlock.getData()));
+		if (table == null) {
 			return null;
 		}
 		
-		Collections.shuffle(list);
-		for (TreeRecord record : list) {
-			if ((!restrictLower && record.difficulty < difficulty) || 
-					Math.abs(record.difficulty - difficulty) <= maxDifficultyRange) {
-				return record;
-			}
-		}
-		
-		return null;
+		return table.getRandom(restrictLower ? difficulty - maxDifficultyRange : Integer.MIN_VALUE,
+				difficulty + maxDifficultyRange, clickedBlock.getLocation());
+	}
+	
+	/**
+	 * Packs a block type and data value into one key, matching the way wood material data is compared
+	 */
+	private static int getWoodKey(Material type, byte data) {
+		return (type.ordinal() << 8) | (data & 0xFF);
 	}
 	
 	private void playerMillEvent(PlayerInteractEvent e) {
@@ -19,9 +19,7 @@
 package com.skyisland.questmanager.player.skill.defaults;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -31,7 +29,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
-import org.bukkit.block.BlockState;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.event.EventHandler;
@@ -49,10 +46,9 @@ import com.skyisland.questmanager.player.skill.LogReducedSkill;
 import com.skyisland.questmanager.player.skill.QualityItem;
 import com.skyisland.questmanager.player.skill.Skill;
 import com.skyisland.questmanager.player.skill.event.MineEvent;
-import com.skyisland.questmanager.scheduling.IntervalScheduler;
-import com.skyisland.questmanager.scheduling.Tickable;
 import com.skyisland.questmanager.ui.menu.InventoryMenu;
 import com.skyisland.questmanager.ui.menu.inventory.minigames.MiningGui;
+import com.skyisland.questmanager.util.GatheringTable;
 
 public class MiningSkill extends LogReducedSkill implements Listener {
 	
@@ -84,65 +80,12 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 		
 	}
 	
-	private static int FIELD_ID = 50;
-	
 	/**
-	 * Holds an ore location and a time until it is replenished
+	 * What a mined vein of ore becomes until it is replenished
 	 */
-	private class FieldRecord implements Tickable {
-		
-		private final Material DRY_MATERIAL = Material.STONE;
-		
-		private final byte DRY_DATA = 5;
-		
-		private int countdown;
-		
-		private BlockState memory;
-		
-		private int id;
-		
-		@SuppressWarnings("deprecation")
-		public FieldRecord(Block block, int countdown) {
-			id = FIELD_ID++;
-			memory = block.getState();
-			this.countdown = countdown;
-			block.setType(DRY_MATERIAL);
-			block.setData(DRY_DATA);
-			
-			IntervalScheduler.getScheduler().register(this);
-		}
-
-		@Override
-		public boolean tick() {
-			countdown--;
-			if (countdown <= 0) {
-				revert();
-				return true;
-			}
-			
-			return false;
-		}
-		
-		@Override
-		public boolean equals(Object o) {
-			if (o instanceof MiningSkill.FieldRecord)
-				return ((FieldRecord) o).id == id;
-			
-			return false;
-		}
-		
-		@Override
-		public int hashCode() {
-			return 1837
-					+ id * 17;
-		}
-		
-		public void revert() {
-			memory.update(true);
-			//IntervalScheduler.getScheduler().unregister(this);
-			fieldRecords.remove(this);
-		}
-	}
+	private static final Material DRY_MATERIAL = Material.STONE;
+	
+	private static final byte DRY_DATA = 5;
 
 	public Type getType() {
 		return Skill.Type.TRADE;
@@ -220,12 +163,10 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 	
 	private boolean restrictLower;
 	
-	private Map<Material, List<OreRecord>> oreRecords;
+	private Map<Material, GatheringTable<OreRecord>> oreRecords;
 	
 	private double cooldownTime;
 	
-	private List<FieldRecord> fieldRecords;
-	
 	public MiningSkill() {
 		File configFile = new File(QuestManagerPlugin.questManagerPlugin.getDataFolder(),
 				QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getSkillPath() + CONFIG_NAME);
@@ -235,7 +176,6 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 		if (!config.getBoolean("enabled", true)) {
 			return;
 		}
-		fieldRecords = new LinkedList<>();
 		
 		this.startingLevel = config.getInt("startingLevel", 0);
 		this.baseHardness = (float) config.getDouble("baseHardness", 1);
@@ -263,7 +203,7 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 		} else {
 			ConfigurationSection sex = config.getConfigurationSection("ore"), subsex;
 			Material type = null;
-			List<OreRecord> list;
+			GatheringTable<OreRecord> table;
 			for (String key : sex.getKeys(false)) {
 				if (key.startsWith("==")) {
 					continue;
@@ -277,20 +217,21 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 				}
 				
 				subsex = sex.getConfigurationSection(key);
-				list = new LinkedList<>();
+				table = new GatheringTable<>();
 				for (String name : subsex.getKeys(false)) {
 					try {
-						list.add(new OreRecord(
+						OreRecord record = new OreRecord(
 								subsex.getInt(name + ".difficulty"), subsex.getItemStack(name + ".item", new ItemStack(Material.COAL_ORE)),
 								subsex.getInt(name + ".oreCount"), subsex.getInt(name + ".iconCount"), subsex.getInt(name + ".rows")
-								));
+								);
+						table.add(record, record.difficulty);
 					} catch (Exception e) {
 						e.printStackTrace();
 						QuestManagerPlugin.logger.warning("Skipping that one! ^");
 					}
 				}
 				
-				oreRecords.put(type, list);
+				oreRecords.put(type, table);
 				
 			}
 		}
@@ -423,9 +364,10 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 			return;
 		}
 		
-		int intervals = (int) (cooldownTime * 20);
-		intervals /= IntervalScheduler.getScheduler().getDelay();
-		fieldRecords.add(new FieldRecord(e.getClickedBlock(), intervals));
+		Block vein = e.getClickedBlock();
+		QuestManagerPlugin.questManagerPlugin.getBlockJournal().record(vein, cooldownTime);
+		vein.setType(DRY_MATERIAL);
+		vein.setData(DRY_DATA);
 		
 		int deltaDifficulty = Math.max(0, record.difficulty - level);
 		float averageHardness;
@@ -472,29 +414,18 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 	}
 
 	/**
-	 * Finds and returns a fish (if one exists) within {@link #maxDifficultyRange} of the provided
-	 * difficulty.
-	 * @return A fish record within the provided limits, or null if none were found
+	 * Finds and returns a random ore (if one exists) within {@link #maxDifficultyRange} of the provided
+	 * difficulty. Unless {@link #restrictLower} is set, any easier ore is also allowed.
+	 * @return An ore record within the provided limits, or null if none were found
 	 */
 	private OreRecord getOre(Material type, int difficulty) {
-		if (oreRecords.isEmpty()) {
+		GatheringTable<OreRecord> table = oreRecords.get(type);
+		if (table == null) {
 			return null;
 		}
 		
-		List<OreRecord> list = oreRecords.get(type);
-		if (list == null || list.isEmpty()) {
-			return null;
-		}
-		
-		Collections.shuffle(list);
-		for (OreRecord record : list) {
-			if ((!restrictLower && record.difficulty < difficulty) ||
-					Math.abs(record.difficulty - difficulty) <= maxDifficultyRange) {
-				return record;
-			}
-		}
-		
-		return null;
+		return table.getRandom(restrictLower ? difficulty - maxDifficultyRange : Integer.MIN_VALUE,
+				difficulty + maxDifficultyRange, null);
 	}
 	
 	private void playerSmeltEvent(PlayerInteractEvent e) {
@@ -589,8 +520,4 @@ public class MiningSkill extends LogReducedSkill implements Listener {
 		QualityItem result = new QualityItem(smeltItem.clone(), sum);
 		e.getPlayer().getInventory().addItem(result.getItem());
 	}
-	
-	public void revertOres() {
-		fieldRecords.forEach(FieldRecord::revert);
-	}
 }
@@ -52,6 +52,7 @@ import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.player.skill.CraftingSkill;
 import com.skyisland.questmanager.player.skill.LogSkill;
 import com.skyisland.questmanager.player.skill.QualityItem;
+import com.skyisland.questmanager.player.skill.RecipeIndex;
 import com.skyisland.questmanager.player.skill.Skill;
 import com.skyisland.questmanager.player.skill.SkillRecipe;
 import com.skyisland.questmanager.player.skill.event.CraftEvent;
@@ -293,53 +294,12 @@ public class SmithingSkill extends LogSkill implements Listener, CraftingSkill {
 		}
 
 		/**
-		 * Checks and returns whether the given combination matched this recipe
+		 * Checks and returns whether the given forging steps match this recipe.
+		 * Inputs are matched by the recipe index before this is checked.
 		 */
-		public boolean isMatch(int hammerHits, boolean cut, boolean quelched, Metal base, List<ItemStack> inputs) {
-			//easiest part first: check ints and bools
-			if (hammerHits != hammerTimes || cut != needsCut || quelched != needsQuelch || !base.name.equals(this.base.name))
-				return false;
-			
-			//go through inputs, marking them off as we go
-			//gonna just reuse Metal recipe
-			//check input types first just to make sure
-			Map<ItemStack, ItemStack> matchMap = new HashMap<>();
-			int matsLeft = this.inputs.size();
-			Iterator<ItemStack> in = inputs.iterator();
-			ItemStack input, match;
-			while (in.hasNext()) {
-				input = in.next();
-				if (input == null)
-					continue;
-
-				if (matsLeft <= 0)
-					return false; //ran out of recipe items but have more inputs
-				
-				match = null;
-				for (ItemStack item : this.inputs) {
-					if (matchMap.containsKey(item))
-						continue; //already matched
-					
-					if (item.getType() == input.getType() && item.getDurability() == input.getDurability())
-					if ((!item.hasItemMeta() && !input.hasItemMeta()) 
-						|| (!item.getItemMeta().hasDisplayName() && !input.getItemMeta().hasDisplayName())
-						|| (item.getItemMeta().getDisplayName().equals(input.getItemMeta().getDisplayName()))) {
-						match = item;
-						break;
-					}
-				}
-				
-				if (match == null)
-					return false;
-				
-				matchMap.put(match, input);
-				matsLeft--;
-			}
-			
-			if (matsLeft != 0) 
-				return false;
-			
-			return true;
+		public boolean matchesProcess(int hammerHits, boolean cut, boolean quelched, Metal base) {
+			return hammerHits == hammerTimes && cut == needsCut && quelched == needsQuelch
+					&& base.name.equals(this.base.name);
 		}
 
 		@Override
@@ -478,6 +438,11 @@ public class SmithingSkill extends LogSkill implements Listener, CraftingSkill {
 	
 	private List<ForgeRecipe> forgeRecipes;
 	
+	/**
+	 * Forge recipes by their extra inputs
+	 */
+	private RecipeIndex<ForgeRecipe> forgeIndex;
+	
 	private Map<String, Metal> metals;
 	
 	private Material toolType;
@@ -556,6 +521,7 @@ public class SmithingSkill extends LogSkill implements Listener, CraftingSkill {
 		}
 		
 		this.forgeRecipes = new LinkedList<>();
+		this.forgeIndex = new RecipeIndex<>();
 		if (metals.isEmpty()) {
 			QuestManagerPlugin.logger.warning("Since there are no defined metals, recipes are "
 					+ "not being read in.");
@@ -593,9 +559,11 @@ public class SmithingSkill extends LogSkill implements Listener, CraftingSkill {
 							continue;
 						}
 						
-						forgeRecipes.add(new ForgeRecipe(key, subsex.getInt("difficulty"), metals.get(subsex.getString("base")),
+						ForgeRecipe recipe = new ForgeRecipe(key, subsex.getInt("difficulty"), metals.get(subsex.getString("base")),
 								inputs, subsex.getItemStack("output"), subsex.getInt("hammerTimes"),
-								subsex.getBoolean("cut"), subsex.getBoolean("quelch")));
+								subsex.getBoolean("cut"), subsex.getBoolean("quelch"));
+						forgeRecipes.add(recipe);
+						forgeIndex.add(recipe, recipe.inputs);
 					} catch (Exception e) {
 						e.printStackTrace();
 						QuestManagerPlugin.logger.warning("Skipping that one! ^");
@@ -1143,8 +1111,15 @@ public class SmithingSkill extends LogSkill implements Listener, CraftingSkill {
 		if (forgeRecipes.isEmpty()) 
 			return null;
 		
-		for (ForgeRecipe recipe : forgeRecipes) {
-			if (recipe.isMatch(hits, cut, quelch, base, inputs))
+		//empty input slots don't count towards the recipe
+		List<ItemStack> extras = new ArrayList<>(inputs.size());
+		for (ItemStack input : inputs) {
+			if (input != null)
+				extras.add(input);
+		}
+		
+		for (ForgeRecipe recipe : forgeIndex.getAll(extras)) {
+			if (recipe.matchesProcess(hits, cut, quelch, base))
 				return recipe;
 		}
 		
@@ -33,6 +33,7 @@ import org.bukkit.inventory.ItemStack;
 import com.google.common.collect.Lists;
 import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.configuration.utils.YamlWriter;
+import com.skyisland.questmanager.enemy.EnemyAttributes;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.player.skill.LogSkill;
 import com.skyisland.questmanager.player.skill.Skill;
@@ -154,32 +155,8 @@ public class SwordsmanshipSkill extends LogSkill implements Listener {
 		int actionLevel = lvl;
 		if (useEnemyLevel) {
 			actionLevel = -1;
-			if (e.getTarget().getCustomName() != null)
 			if (e.getTarget().getKiller() != null)
-			if (e.getTarget().getCustomName().contains("(Lvl ")) {
-				//level'ed entity!
-				String cache = e.getTarget().getCustomName();
-				int pos = cache.indexOf("(Lvl ");
-				//advance pos by 5 to get the number
-				pos += 5;
-				String tail = cache.substring(pos);
-				int length = 0;
-				for (char c : tail.toCharArray()) {
-					if (Character.isDigit(c)) {
-						length += 1;
-					} else {
-						break;
-					}
-				}
-				
-				if (length == 0) {
-					System.out.println("Error when finding level! Expected a number, got:  " + tail.charAt(0));
-					return;
-				}
-				
-				String slvl = tail.substring(0, length);
-				actionLevel = Integer.valueOf(slvl);
-			}
+				actionLevel = EnemyAttributes.getLevel(e.getTarget());
 			
 			if (actionLevel == -1)
 				actionLevel = lvl;
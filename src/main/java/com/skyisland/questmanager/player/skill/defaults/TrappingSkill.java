@@ -1,7 +1,6 @@
 package com.skyisland.questmanager.player.skill.defaults;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -45,6 +44,7 @@ import com.skyisland.questmanager.region.Region;
 import com.skyisland.questmanager.region.RegionManager;
 import com.skyisland.questmanager.scheduling.Alarm;
 import com.skyisland.questmanager.scheduling.Alarmable;
+import com.skyisland.questmanager.util.GatheringTable;
 
 public class TrappingSkill extends Skill implements Listener {
 	
@@ -138,6 +138,7 @@ public class TrappingSkill extends Skill implements Listener {
 			this.trap = trap;
 			this.result = result;
 			this.difficulty = difficulty;
+			this.region = region;
 		}
 	}
 	
@@ -208,7 +209,10 @@ public class TrappingSkill extends Skill implements Listener {
 		
 		private Block block;
 		
-		private Material memory;
+		/**
+		 * Journal id of the block change made when the trap was set
+		 */
+		private long changeID;
 		
 		private boolean isDone;
 		
@@ -223,7 +227,7 @@ public class TrappingSkill extends Skill implements Listener {
 			isDone = false;
 			Alarm.getScheduler().schedule(this, 0, Math.max(1.0, time));
 			
-			memory = block.getType();
+			changeID = QuestManagerPlugin.questManagerPlugin.getBlockJournal().record(block);
 			block.setType(trapMaterial);
 		}
 		
@@ -247,7 +251,7 @@ public class TrappingSkill extends Skill implements Listener {
 		}
 		
 		public void remove() {
-			block.setType(memory);
+			QuestManagerPlugin.questManagerPlugin.getBlockJournal().restore(changeID);
 		}
 	}
 	
@@ -259,7 +263,10 @@ public class TrappingSkill extends Skill implements Listener {
 	
 	private Map<UUID, List<Trap>> activeTraps;
 	
-	private List<GameRecord> records;
+	/**
+	 * Game records by the name of the trap type that catches them
+	 */
+	private Map<String, GatheringTable<GameRecord>> records;
 	
 	private List<TrapType> trapTypes;
 	
@@ -313,7 +320,7 @@ public class TrappingSkill extends Skill implements Listener {
 			}
 		}
 		
-		this.records = new LinkedList<>();
+		this.records = new HashMap<>();
 		if (!config.contains("game")) {
 			QuestManagerPlugin.logger.warning("No game are defined, making the Trapping skill worthless!");
 			return;
@@ -340,11 +347,18 @@ public class TrappingSkill extends Skill implements Listener {
 				Region region = rManager.getRegion(subsex.contains("region") ? 
 						(subsex.get("region") == null ? null : ((LocationState) subsex.get("region")).getLocation())
 						: null);
-				records.add(new GameRecord(
+				GameRecord record = new GameRecord(
 						region, subsex.getInt("difficulty"),
 						subsex.getDouble("trapTime"), subsex.getDouble("trapDeviation"),
 						type, subsex.getItemStack("result")
-						));
+						);
+				
+				GatheringTable<GameRecord> table = records.get(type.name);
+				if (table == null) {
+					table = new GatheringTable<>();
+					records.put(type.name, table);
+				}
+				table.add(record, record.difficulty, 1.0, region);
 			} catch (Exception e) {
 				QuestManagerPlugin.logger.warning("Skipping game " + key);
 			}
@@ -636,16 +650,12 @@ public class TrappingSkill extends Skill implements Listener {
 	 * @return
 	 */
 	private GameRecord getRecord(Location trapLocation, TrapType trapType, int level) {
-		Collections.shuffle(records);
-		for (GameRecord record : records) {
-			if (record.trap.name.equals(trapType.name))
-			if (Math.abs(record.difficulty - level) <= maxLevelDifference)
-			if (record.region == null || record.region.isIn(trapLocation)) {
-				return record;
-			}
+		GatheringTable<GameRecord> table = records.get(trapType.name);
+		if (table == null) {
+			return null;
 		}
 		
-		return null;
+		return table.getRandom(level - maxLevelDifference, level + maxLevelDifference, trapLocation);
 	}
 	
 	protected void trapCatch(Trap trap) {
@@ -25,6 +25,7 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Slime;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.player.ActivePlayerSet;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.scheduling.Alarm;
 import com.skyisland.questmanager.scheduling.Alarmable;
@@ -68,13 +69,15 @@ public class TitleEffect implements Alarmable<Integer> {
 	
 	@Override
 	public void alarm(Integer key) {
-		for (QuestPlayer qp : QuestManagerPlugin.questManagerPlugin.getPlayerManager().getPlayers()) {
-			if (qp.getPlayer().isOnline())
-			if (qp.getTitle() != null)
-			if (qp.getTitle().contains("Slime King")) {
-				TitleEffectType.SLIMEKING.getEffect().run(qp.getPlayer().getPlayer().getLocation());
+		ActivePlayerSet active = QuestManagerPlugin.questManagerPlugin.getPlayerManager().getActivePlayers();
+		for (String title : active.getTitles()) {
+			if (!title.contains("Slime King")) {
 				continue;
 			}
+			
+			for (QuestPlayer qp : active.getPlayersWithTitle(title)) {
+				TitleEffectType.SLIMEKING.getEffect().run(qp.getPlayer().getPlayer().getLocation());
+			}
 		}
 		
 		Alarm.getScheduler().schedule(this, 1, 120);
@@ -0,0 +1,174 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.player.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.player.QuestPlayer;
+import com.skyisland.questmanager.quest.Quest;
+
+/**
+ * Collects requests to update players' {@link QuestLog quest logs} and {@link QuestJournal journals},
+ * and writes each book at most once per tick.
+ * <p>
+ * Quest log pages are cached per player. Quest pages are only rendered again once the quest has
+ * been {@link #invalidate(QuestPlayer, Quest) invalidated}, and the skills pages only once the
+ * player's skills or skill options have changed.
+ * </p>
+ */
+public class QuestBookService implements Runnable, Listener {
+	
+	/**
+	 * Books waiting to be written for one player
+	 */
+	private static final class Pending {
+		
+		private final QuestPlayer player;
+		
+		private boolean log, journal;
+		
+		/**
+		 * Only silent if every request was
+		 */
+		private boolean logSilent, journalSilent;
+		
+		private Pending(QuestPlayer player) {
+			this.player = player;
+			this.logSilent = true;
+			this.journalSilent = true;
+		}
+	}
+	
+	private Map<UUID, Pending> pending;
+	
+	private Map<UUID, QuestLog.PageCache> caches;
+	
+	private boolean scheduled;
+	
+	public QuestBookService() {
+		this.pending = new LinkedHashMap<>();
+		this.caches = new HashMap<>();
+		this.scheduled = false;
+		
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+	}
+	
+	/**
+	 * Queues the player's quest log to be written next tick
+	 */
+	public void updateLog(QuestPlayer player, boolean silent) {
+		Pending entry = getPending(player);
+		entry.log = true;
+		entry.logSilent &= silent;
+	}
+	
+	/**
+	 * Queues the player's journal to be written next tick
+	 */
+	public void updateJournal(QuestPlayer player, boolean silent) {
+		Pending entry = getPending(player);
+		entry.journal = true;
+		entry.journalSilent &= silent;
+	}
+	
+	/**
+	 * Drops the player's cached page for the quest, so it's rendered again on the next write
+	 */
+	public void invalidate(QuestPlayer player, Quest quest) {
+		QuestLog.PageCache cache = caches.get(player.getPlayer().getUniqueId());
+		if (cache != null) {
+			cache.invalidate(quest);
+		}
+	}
+	
+	/**
+	 * Drops all of the player's cached quest pages
+	 */
+	public void invalidateQuests(QuestPlayer player) {
+		QuestLog.PageCache cache = caches.get(player.getPlayer().getUniqueId());
+		if (cache != null) {
+			cache.invalidateQuests();
+		}
+	}
+	
+	private Pending getPending(QuestPlayer player) {
+		UUID id = player.getPlayer().getUniqueId();
+		Pending entry = pending.get(id);
+		if (entry == null) {
+			entry = new Pending(player);
+			pending.put(id, entry);
+		}
+		
+		if (!scheduled) {
+			scheduled = true;
+			Bukkit.getScheduler().runTask(QuestManagerPlugin.questManagerPlugin, this);
+		}
+		
+		return entry;
+	}
+	
+	@Override
+	public void run() {
+		scheduled = false;
+		if (pending.isEmpty()) {
+			return;
+		}
+		
+		List<Pending> batch = new ArrayList<>(pending.values());
+		pending.clear();
+		
+		for (Pending entry : batch) {
+			if (entry.log) {
+				QuestLog.writeQuestlog(entry.player, entry.logSilent, getCache(entry.player));
+			}
+			if (entry.journal) {
+				QuestJournal.writeQuestJournal(entry.player, entry.journalSilent);
+			}
+		}
+	}
+	
+	private QuestLog.PageCache getCache(QuestPlayer player) {
+		UUID id = player.getPlayer().getUniqueId();
+		QuestLog.PageCache cache = caches.get(id);
+		if (cache == null) {
+			cache = new QuestLog.PageCache();
+			caches.put(id, cache);
+		}
+		
+		return cache;
+	}
+	
+	@EventHandler(priority=EventPriority.MONITOR)
+	public void onPlayerQuit(PlayerQuitEvent e) {
+		caches.remove(e.getPlayer().getUniqueId());
+		pending.remove(e.getPlayer().getUniqueId());
+	}
+}
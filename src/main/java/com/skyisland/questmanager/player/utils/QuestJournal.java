@@ -18,9 +18,9 @@
 
 package com.skyisland.questmanager.player.utils;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Instrument;
 import org.bukkit.Material;
@@ -29,6 +29,7 @@ import org.bukkit.Note.Tone;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.BookMeta;
 
@@ -100,7 +101,15 @@ public class QuestJournal {
 		updateQuestJournal(qp, true);
 	}
 	
+	/**
+	 * Queues the player's journal to be rewritten. Requests made during the same tick are
+	 * written together by the {@link QuestBookService}.
+	 */
 	public static void updateQuestJournal(QuestPlayer qp, boolean silent) {
+		QuestManagerPlugin.questManagerPlugin.getBookService().updateJournal(qp, silent);
+	}
+	
+	static void writeQuestJournal(QuestPlayer qp, boolean silent) {
 		if (!qp.getPlayer().isOnline()) {
 			return;
 		}
@@ -112,6 +121,7 @@ public class QuestJournal {
 		Player play = qp.getPlayer().getPlayer();
 		Inventory inv = play.getInventory();
 		ItemStack book = null;
+		BookMeta meta = null;
 		int slot = 0;
 		
 		for (slot = 0; slot <= 35; slot++) {
@@ -120,7 +130,7 @@ public class QuestJournal {
 				continue;
 			}
 			if (item.hasItemMeta() && item.getType() == Material.BOOK_AND_QUILL) {
-				BookMeta meta = (BookMeta) item.getItemMeta();
+				meta = (BookMeta) item.getItemMeta();
 				if (meta.hasTitle() && meta.getTitle().equals("Journal")
 						&& meta.hasAuthor() && meta.getAuthor().equals(play.getName())
 						&& item.getEnchantmentLevel(Enchantment.LUCK) == 5) {
@@ -135,20 +145,12 @@ public class QuestJournal {
 			return;
 		}
 		
-		String builder = "replaceitem entity ";
-		builder += play.getName() + " ";
-		
-		builder += getSlotString(slot) + " writable_book 1 0 ";
-		
-		//now start putting pages
-		builder += "{display:{Name: \"Journal\"},pages:[";
+		List<String> pages = new ArrayList<>();
 		
 		//get title page
 		FancyMessage title = new FancyMessage("      Journal\n  " + play.getName() + "\n\n  My own journal with details about my active quest")
 				.color(ChatColor.BLACK);
-		builder += generatePage(title.toOldMessageFormat());
-		
-		builder += ",";
+		addPage(pages, title.toOldMessageFormat());
 		
 		//get recent page
 		title = new FancyMessage("    Recent events:\n")
@@ -167,45 +169,44 @@ public class QuestJournal {
 			}
 		}
 		
-		builder += generatePage(title.toOldMessageFormat());
+		addPage(pages, title.toOldMessageFormat());
 		
 		//add quests
 		if (qp.getFocusQuest() == null) {
-			builder += ",";
-			builder += generatePage("\nYou are not focused on any quest!");
+			addPage(pages, "\nYou are not focused on any quest!");
 		} else {
-			builder += ",";
-			builder += generatePage("Your current focus:\n\n" + ChatColor.DARK_PURPLE + qp.getFocusQuest().getName());
+			addPage(pages, "Your current focus:\n\n" + ChatColor.DARK_PURPLE + qp.getFocusQuest().getName());
 			for (HistoryEvent event : qp.getFocusQuest().getHistory().events())  {
-				builder += ",";
-				builder += generatePage(event.getDescription());
+				addPage(pages, event.getDescription());
 			}
 		}
 		
-		builder += ",";
-		
 		//add player notes title
 		title = new FancyMessage("\n  Player Notes\n\n\n")
 				.color(ChatColor.BLACK)
 			.then("  Notes left after this page will be kept")
 				.color(ChatColor.BLACK);
 		
-		builder += generatePage(title.toOldMessageFormat());
+		addPage(pages, title.toOldMessageFormat());
 		
 		if (qp.getPlayerNotes() != null && !qp.getPlayerNotes().isEmpty()) {
 			for (String page : qp.getPlayerNotes()) {
 				if (page.trim().isEmpty()) {
 					continue;
 				}
-				builder += ",";
-				builder += generatePage(page);
+				addPage(pages, page);
 			}
 		}
 		
 		//bind
-		builder += "], title:\"Journal\",author:" + play.getName() + ",ench:[{id:61s,lvl:5s}],HideFlags:1}";
-
-		Bukkit.dispatchCommand(Bukkit.getServer().getConsoleSender(), builder);
+		meta.setPages(pages);
+		meta.setTitle("Journal");
+		meta.setAuthor(play.getName());
+		meta.setDisplayName("Journal");
+		meta.addItemFlags(ItemFlag.HIDE_ENCHANTS);
+		book.setItemMeta(meta);
+		book.addUnsafeEnchantment(Enchantment.LUCK, 5);
+		inv.setItem(slot, book);
 		
 		if (!silent) {
 			play.sendMessage(ChatColor.GRAY + "Your "
@@ -217,37 +218,19 @@ public class QuestJournal {
 		}
 	}
 	
-	private static String getSlotString(int rawslot) {
-		if (rawslot < 0) {
-			return "invalid.slot";
-		}
-		if (rawslot < 9) {
-			return "slot.hotbar." + rawslot;
-		}
-		
-		return "slot.inventory." + (rawslot - 9);
-	}
-	
 	/**
-	 * Used to build pages for primitive strings
+	 * Adds pages for primitive strings, splitting anything too long for one page
 	 */
-	private static String generatePage(String line) {
+	private static void addPage(List<String> pages, String line) {
 		if (line == null) {
-			return "\"\"";	
-		}
-			String ret;
-
-		if (line.length() > 260) {
-			ret = generatePage(line.substring(0, 260));
-			ret += ",";
-			ret += generatePage(line.substring(260));
-		} else {
-			ret = "\"";
-			ret += line;
-			ret += "\"";
+			pages.add("");
+			return;
 		}
 		
-		
-		return ret;
+		while (line.length() > 260) {
+			pages.add(line.substring(0, 260));
+			line = line.substring(260);
+		}
+		pages.add(line);
 	}
 }
@@ -18,9 +18,11 @@
 
 package com.skyisland.questmanager.player.utils;
 
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -109,7 +111,42 @@ public class QuestLog {
 		updateQuestlog(qp, true);
 	}
 	
+	/**
+	 * Queues the player's quest log to be rewritten. Requests made during the same tick are
+	 * written together by the {@link QuestBookService}.
+	 */
 	public static void updateQuestlog(QuestPlayer qp, boolean silent) {
+		QuestManagerPlugin.questManagerPlugin.getBookService().updateLog(qp, silent);
+	}
+	
+	/**
+	 * Pages already rendered for one player's quest log.
+	 * Skill pages are kept until the player's skills or skill options change, and quest pages
+	 * until the quest is invalidated.
+	 */
+	static final class PageCache {
+		
+		private int skillsFingerprint;
+		
+		private List<String> skillPages;
+		
+		private Map<Quest, String> questPages;
+		
+		PageCache() {
+			this.skillPages = null;
+			this.questPages = new IdentityHashMap<>();
+		}
+		
+		void invalidate(Quest quest) {
+			questPages.remove(quest);
+		}
+		
+		void invalidateQuests() {
+			questPages.clear();
+		}
+	}
+	
+	static void writeQuestlog(QuestPlayer qp, boolean silent, PageCache cache) {
 		if (!qp.getPlayer().isOnline()) {
 			return;
 		}
@@ -144,23 +181,75 @@ public class QuestLog {
 			return;
 		}
 		
-		String builder = "replaceitem entity ";
-		builder += play.getName() + " ";
-		
-		builder += getSlotString(slot) + " written_book 1 0 ";
-		
-		//now start putting pages
-		builder += "{pages:[";
+		StringBuilder builder = new StringBuilder("{pages:[");
 		
 		//get title page
 		FancyMessage title = new FancyMessage("      Quest Log\n\n\n  This book details your current quest progress & history.")
 				.color(ChatColor.BLACK);
-		builder += generatePageJSON(title.toJSONString().replace("\"", escq));
+		builder.append(generatePageJSON(title.toJSONString().replace("\"", escq)));
+		
+		builder.append(",");
+		builder.append(generateStatsPage(qp));
+		
+		if (qp.getOptions().getOption(PlayerOptions.Key.SKILL_LIST)) {
+			int fingerprint = getSkillsFingerprint(qp);
+			if (cache.skillPages == null || cache.skillsFingerprint != fingerprint) {
+				cache.skillPages = generateSkillPages(qp);
+				cache.skillsFingerprint = fingerprint;
+			}
+			
+			for (String page : cache.skillPages) {
+				builder.append(", ");
+				builder.append(page);
+			}
+		}
 		
-		builder += ",";
+		//13 lines
 		
-		//get stats page
-		title = new FancyMessage(qp.getPlayer().getName())
+		//add quests
+		if (qp.getCurrentQuests().isEmpty()) {
+			builder.append(",");
+			builder.append(generatePage("\nYou do not have any active quests!"));
+			cache.questPages.clear();
+		} else {
+			//only keep pages for quests still in the log
+			Map<Quest, String> pages = new IdentityHashMap<>();
+			for (Quest quest : qp.getCurrentQuests())  {
+				String page = cache.questPages.get(quest);
+				if (page == null) {
+					page = generatePageJSON(quest.getJSONDescription().replace("\"", escq));
+				}
+				pages.put(quest, page);
+				builder.append(",");
+				builder.append(page);
+			}
+			cache.questPages = pages;
+		}
+		
+		
+		//bind
+		builder.append("], title:\"Quest Log\",author:\"").append(play.getName())
+				.append("\",ench:[{id:61s,lvl:5s}],HideFlags:1}");
+		
+		//written directly instead of through /replaceitem; BookMeta can't hold click events
+		ItemStack written = Bukkit.getUnsafe().modifyItemStack(new ItemStack(Material.WRITTEN_BOOK), builder.toString());
+		inv.setItem(slot, written);
+		
+		if (!silent) {
+			play.sendMessage(ChatColor.GRAY + "Your "
+					+ ChatColor.DARK_GREEN + "Quest Log" + ChatColor.GRAY + " has been"
+					+ " updated!" + ChatColor.RESET);
+
+			play.playNote(play.getLocation(), Instrument.PIANO, Note.natural(1, Tone.D));
+			play.playNote(play.getLocation(), Instrument.PIANO, Note.natural(1, Tone.G));
+			play.playNote(play.getLocation(), Instrument.PIANO, Note.natural(1, Tone.B));
+		}
+		
+		play.setLevel(qp.getMoney());
+	}
+	
+	private static String generateStatsPage(QuestPlayer qp) {
+		FancyMessage title = new FancyMessage(qp.getPlayer().getName())
 				.color(ChatColor.DARK_PURPLE)
 			.then("\n")
 			.then(qp.getTitle())
@@ -181,165 +270,138 @@ public class QuestLog {
 				.tooltip(ChatColor.BLUE + "Click to manage options")
 				.command("/player options");
 		
-		builder += generatePageJSON(title.toJSONString().replace("\"", escq));
+		return generatePageJSON(title.toJSONString().replace("\"", escq));
+	}
+	
+	/**
+	 * Hashes everything the skill pages are drawn from, so they're only rendered again when it changes
+	 */
+	private static int getSkillsFingerprint(QuestPlayer qp) {
+		int hash = qp.getOptions().getOption(PlayerOptions.Key.SKILL_REVEAL) ? 1 : 0;
+		for (Skill.Type type : Skill.Type.values()) {
+			for (Skill s : QuestManagerPlugin.questManagerPlugin.getSkillManager().getSkills(type)) {
+				hash = 31 * hash + qp.getSkillLevel(s);
+				hash = 31 * hash + Float.floatToIntBits(qp.getSkillExperience(s));
+			}
+		}
 		
+		return hash;
+	}
+	
+	private static List<String> generateSkillPages(QuestPlayer qp) {
+		List<String> pages = new LinkedList<>();
+		FancyMessage title = new FancyMessage("        Skills")
+				.color(ChatColor.BLACK)
+				.tooltip(ChatColor.BLUE + "Click here to open the skills menu")
+				.command("/player skills");
+		int lines = 0;
+		boolean spoil = qp.getOptions().getOption(PlayerOptions.Key.SKILL_REVEAL);
 		
-		if (qp.getOptions().getOption(PlayerOptions.Key.SKILL_LIST)) {
-			title = new FancyMessage("        Skills")
-					.color(ChatColor.BLACK)
-					.tooltip(ChatColor.BLUE + "Click here to open the skills menu")
-					.command("/player skills");
-			int lines = 0;
+		//combat skills
+		for (Skill.Type type : Skill.Type.values()) {
 			
-			
-			//combat skills
-			for (Skill.Type type : Skill.Type.values()) {
+			title.then("\n\n" + toNormalCase(type.name()))
+				.color(ChatColor.DARK_RED).style(ChatColor.BOLD);
+			lines += 2;
+			for (Skill s : QuestManagerPlugin.questManagerPlugin.getSkillManager().getSkills(type)) {
+				if (!spoil && qp.getSkillLevel(s) <= 0 && qp.getSkillExperience(s) <= 0) {
+					continue;
+				}
 				
-				title.then("\n\n" + toNormalCase(type.name()))
-					.color(ChatColor.DARK_RED).style(ChatColor.BOLD);
-				lines += 2;
-				boolean spoil = qp.getOptions().getOption(PlayerOptions.Key.SKILL_REVEAL);
-				for (Skill s : QuestManagerPlugin.questManagerPlugin.getSkillManager().getSkills(type)) {
-					//get a formatted description. (Code from QuestPlayer's magic menu)
-					
-					if (!spoil && qp.getSkillLevel(s) <= 0 && qp.getSkillExperience(s) <= 0) {
-						continue;
-					}
-					
-					List<String> descList = new LinkedList<>();
-					String desc;
-					desc = s.getDescription(qp);
-					
-					String mid;
-					int pos;
-					while (desc.length() > 30) {
-						
-						desc = desc.trim();
-						
-						//first, check for newline before 30 limit
-						pos = desc.substring(0, 30).indexOf("\n");
-						if (pos != -1) {
-							//there's a newline, so split before it
-							//[and some sting\nwith a newline]
-							mid = desc.substring(0, pos);
-							mid = mid.substring(0, 1 + mid.length() - (("\n").length())); //chop off the \n
-							descList.add(mid);
-							desc = desc.substring(pos);
-							continue;
-						}
-						
-						//find first space before 30
-						mid = desc.substring(0, 30);
-						pos = mid.lastIndexOf(" ");
-						if (pos == -1) {
-							descList.add(mid);
-							desc = desc.substring(30);
-							continue;
-						}
-						//else we found a space
-						descList.add(mid.substring(0, pos));
-						desc = desc.substring(pos);
-					}
-					
-					descList.add(desc.trim());
+				String desc = wrapDescription(s.getDescription(qp));
+				
+				if (lines > 12) {
+					//not enough room on the page
+					//write page, continue
+					pages.add(generatePageJSON(title.toJSONString().replace("\"", escq)));
+					lines = 1;
+					title = new FancyMessage("\n  " + s.getName())
+							.color(ChatColor.BLACK);
 					
-					desc = "";
-					for (int i = 0; i < descList.size() - 1; i++) {
-						desc += descList.get(i) + "\n";
+					if (s instanceof CraftingSkill) {
+						title.tooltip(desc + "\n\n" + ChatColor.BLUE + "Click here for recipes")
+						.command("/player recipe " + s.getName());
+					} else if (s instanceof MagerySkill) {
+						title.tooltip(desc + "\n\n" + ChatColor.BLUE + "Click here to see your spells")
+						.command("/player spells");
+					} else {
+						title.tooltip(desc);
 					}
-					desc += descList.get(descList.size() - 1);
 					
+					title.then(" " + qp.getSkillLevel(s) + "."
+							+ ((int) (qp.getSkillExperience(s)*100)) + "")
+							.color(ChatColor.DARK_GREEN);
+				} else {
+					title.then("\n  " + s.getName())
+							.color(ChatColor.BLACK);
 					
-					if (lines > 12) {
-						//not enough room on the page
-						//write page, continue
-						builder += ", ";
-						builder += generatePageJSON(title.toJSONString().replace("\"", escq));
-						lines = 1;
-						title = new FancyMessage("\n  " + s.getName())
-								.color(ChatColor.BLACK);
-						
-						if (s instanceof CraftingSkill) {
-							title.tooltip(desc + "\n\n" + ChatColor.BLUE + "Click here for recipes")
-							.command("/player recipe " + s.getName());
-						} else if (s instanceof MagerySkill) {
-							title.tooltip(desc + "\n\n" + ChatColor.BLUE + "Click here to see your spells")
-							.command("/player spells");
-						} else {
-							title.tooltip(desc);
-						}
-						
-						title.then(" " + qp.getSkillLevel(s) + "."
-								+ ((int) (qp.getSkillExperience(s)*100)) + "")
-								.color(ChatColor.DARK_GREEN);
+					if (s instanceof CraftingSkill) {
+						title.tooltip(desc + "\n\n" + ChatColor.BLUE + "Click here for recipes")
+						.command("/player recipe " + s.getName());
 					} else {
-						title.then("\n  " + s.getName())
-								.color(ChatColor.BLACK);
-						
-						if (s instanceof CraftingSkill) {
-							title.tooltip(desc + "\n\n" + ChatColor.BLUE + "Click here for recipes")
-							.command("/player recipe " + s.getName());
-						} else {
-							title.tooltip(desc);
-						}
-						
-						title.then(" " + qp.getSkillLevel(s) + "."
-								+ ((int) (qp.getSkillExperience(s)*100)) + "")
-								.color(ChatColor.DARK_GREEN);
-						lines++;
+						title.tooltip(desc);
 					}
+					
+					title.then(" " + qp.getSkillLevel(s) + "."
+							+ ((int) (qp.getSkillExperience(s)*100)) + "")
+							.color(ChatColor.DARK_GREEN);
+					lines++;
 				}
 			}
-		builder += ", ";
-		builder += generatePageJSON(title.toJSONString().replace("\"", escq));
 		}
 		
-		
-		
-		//13 lines
-		
-		//add quests
-		if (qp.getCurrentQuests().isEmpty()) {
-			builder += ",";
-			builder += generatePage("\nYou do not have any active quests!");
-		} else {
-			for (Quest quest : qp.getCurrentQuests())  {
-				builder += ",";
-				builder += generatePageJSON(quest.getJSONDescription().replace("\"", escq));
+		pages.add(generatePageJSON(title.toJSONString().replace("\"", escq)));
+		return pages;
+	}
+	
+	/**
+	 * Breaks a skill description into lines of at most 30 characters.
+	 * (Code from QuestPlayer's magic menu)
+	 */
+	private static String wrapDescription(String desc) {
+		List<String> descList = new LinkedList<>();
+		String mid;
+		int pos;
+		while (desc.length() > 30) {
+			
+			desc = desc.trim();
+			
+			//first, check for newline before 30 limit
+			pos = desc.substring(0, 30).indexOf("\n");
+			if (pos != -1) {
+				//there's a newline, so split before it
+				//[and some sting\nwith a newline]
+				mid = desc.substring(0, pos);
+				mid = mid.substring(0, 1 + mid.length() - (("\n").length())); //chop off the \n
+				descList.add(mid);
+				desc = desc.substring(pos);
+				continue;
+			}
+			
+			//find first space before 30
+			mid = desc.substring(0, 30);
+			pos = mid.lastIndexOf(" ");
+			if (pos == -1) {
+				descList.add(mid);
+				desc = desc.substring(30);
+				continue;
 			}
+			//else we found a space
+			descList.add(mid.substring(0, pos));
+			desc = desc.substring(pos);
 		}
 		
+		descList.add(desc.trim());
 		
-		//bind
-		builder += "], title:\"Quest Log\",author:" + play.getName() + ",ench:[{id:61s,lvl:5s}],HideFlags:1}";
-
-		Bukkit.dispatchCommand(Bukkit.getServer().getConsoleSender(), builder);
-		
-		if (!silent) {
-			play.sendMessage(ChatColor.GRAY + "Your "
-					+ ChatColor.DARK_GREEN + "Quest Log" + ChatColor.GRAY + " has been"
-					+ " updated!" + ChatColor.RESET);
-
-			play.playNote(play.getLocation(), Instrument.PIANO, Note.natural(1, Tone.D));
-			play.playNote(play.getLocation(), Instrument.PIANO, Note.natural(1, Tone.G));
-			play.playNote(play.getLocation(), Instrument.PIANO, Note.natural(1, Tone.B));
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < descList.size() - 1; i++) {
+			builder.append(descList.get(i)).append("\n");
 		}
+		builder.append(descList.get(descList.size() - 1));
 		
-		play.setLevel(qp.getMoney());
+		return builder.toString();
 	}
 	
-	private static String getSlotString(int rawslot) {
-		if (rawslot < 0) {
-			return "invalid.slot";
-		}
-		if (rawslot < 9) {
-			return "slot.hotbar." + rawslot;
-		}
-		
-		return "slot.inventory." + (rawslot - 9);
-	}
-	
-	
 	private static String generatePageJSON(String JSON) {
 		String ret = "\"[" + escq + escq + ",";
 		
@@ -66,63 +66,13 @@ public class Goal {
 //	}
 	
 	/**
-	 * Creates a goal from the provided goal configuration
+	 * Creates a goal from the provided goal configuration.
+	 * Quests loaded through a {@link com.skyisland.questmanager.configuration.QuestConfiguration QuestConfiguration}
+	 * keep a compiled {@link GoalTemplate} instead of parsing the section each time.
 	 * @throws InvalidConfigurationException 
 	 */
 	public static Goal fromConfig(Quest quest, int index, ConfigurationSection config) throws InvalidConfigurationException {
-		/* goal construction configuration involves:
-		 * Goal name, description
-		 * The requirements that are in it
-		 * 
-		 * The req's are in a list, with each element being a con section with the
-		 * key being the type of req and the value being the config section for setting
-		 * up the req
-		 */
-		
-		if (!config.contains("type") || !config.getString("type").equals("goalcnf")) {
-			if (config.getString("type").equals("juncnf"))
-				return Junction.fromConfig(quest, index, config);
-			throw new InvalidConfigurationException();
-		}
-		
-		String name, description;
-		Integer nextIndex;
-		String key;
-		
-		name = config.getString("name");
-		description = config.getString("description");
-		nextIndex = (config.contains("next") ? config.getInt("next") : null);
-		key = (config.contains("questKey") ? config.getString("questKey") : null);
-		
-
-		Goal goal = new Goal(quest, index, nextIndex, name, description);
-		goal.goalKey = key;
-		
-		List<ConfigurationSection> reqs = new LinkedList<>();
-		for (String requirementKey : config.getConfigurationSection("requirements").getKeys(false)) {
-			reqs.add( config.getConfigurationSection("requirements")
-					.getConfigurationSection(requirementKey));
-		}
-		
-		for (ConfigurationSection req : reqs) {
-			String type = req.getKeys(false).iterator().next();
-			
-			ConfigurationSection conf = req.getConfigurationSection(type);
-			
-			
-			Requirement r = QuestManagerPlugin.questManagerPlugin.getRequirementManager()
-					.instanceRequirement(type, goal, conf);
-			
-			if (r == null) {
-				QuestManagerPlugin.logger
-					.warning("    Invalid requirement type for goal: " + goal.name);
-			}
-			
-			goal.addRequirement(r);
-		}
-		
-		return goal;
-		
+		return GoalTemplate.compile(index, config).instance(quest);
 	}
 	
 	public Goal(Quest quest, int index, Integer nextGoal, String name, String description) {
@@ -206,6 +156,13 @@ public class Goal {
 		requirements.add(requirement);
 	}
 	
+	/**
+	 * Sets the quest key added to the player's key list when this goal is complete
+	 */
+	void setGoalKey(String goalKey) {
+		this.goalKey = goalKey;
+	}
+	
 	public List<Requirement> getRequirements() {
 		return requirements;
 	}
@@ -273,6 +230,7 @@ public class Goal {
 			if (req instanceof StatekeepingRequirement) {
 				((StatekeepingRequirement) req).stop();
 			}
+			QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().unregister(req);
 			if (req instanceof Listener) {
 				HandlerList.unregisterAll((Listener) req);
 			}
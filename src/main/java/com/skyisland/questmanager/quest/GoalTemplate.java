@@ -0,0 +1,272 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.quest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.quest.requirements.Requirement;
+import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
+
+/**
+ * The parsed layout of a {@link Goal} or {@link Junction}, read from the quest configuration once
+ * when the quest is loaded.
+ * <p>
+ * Templates are checked as they're compiled, so a missing or malformed section stops the quest
+ * from loading, instead of breaking it when a player reaches that goal. Each requirement section
+ * is read once by its factory's {@link RequirementFactory#compile(ConfigurationSection) compile},
+ * so {@link #instance(Quest)} only has to build the goal and its requirements for the new quest.
+ * </p>
+ * <p>
+ * Requirement types can be registered by other plugins after quests are loaded. A requirement
+ * whose type isn't known yet is compiled the first time it's needed instead, and only fails
+ * then if its type still isn't registered.
+ * </p>
+ */
+public final class GoalTemplate {
+	
+	private static final String GOAL_TYPE = "goalcnf";
+	
+	private static final String JUNCTION_TYPE = "juncnf";
+	
+	/**
+	 * One requirement in a goal or path: its type, the section it's made from and, once its
+	 * factory is known, the compiled section
+	 */
+	private static final class RequirementTemplate {
+		
+		private final String type;
+		
+		private final ConfigurationSection config;
+		
+		private RequirementFactory.Template<?> compiled;
+		
+		private RequirementTemplate(String type, ConfigurationSection config) {
+			this.type = type;
+			this.config = config;
+		}
+		
+		/**
+		 * Compiles the section if the requirement's type has been registered
+		 * @return whether the section is compiled
+		 * @throws InvalidConfigurationException if the section is malformed
+		 */
+		private boolean compile(String goalName) throws InvalidConfigurationException {
+			if (compiled != null) {
+				return true;
+			}
+			
+			RequirementFactory<?> factory = QuestManagerPlugin.questManagerPlugin.getRequirementManager()
+					.getFactory(type);
+			if (factory == null) {
+				return false;
+			}
+			
+			try {
+				compiled = factory.compile(config);
+			} catch (RuntimeException e) {
+				throw new InvalidConfigurationException("Malformed requirement of type [" + type
+						+ "] in goal " + goalName + ": " + e);
+			}
+			
+			return true;
+		}
+		
+		private Requirement instance(Goal goal) throws InvalidConfigurationException {
+			if (!compile(goal.getName())) {
+				throw new InvalidConfigurationException("Invalid requirement type [" + type
+						+ "] for goal: " + goal.getName());
+			}
+			
+			return compiled.instance(goal);
+		}
+	}
+	
+	/**
+	 * One way out of a junction
+	 */
+	private static final class PathTemplate {
+		
+		private final List<RequirementTemplate> requirements;
+		
+		private final Integer resultIndex;
+		
+		private final String questKey;
+		
+		private PathTemplate(List<RequirementTemplate> requirements, Integer resultIndex, String questKey) {
+			this.requirements = requirements;
+			this.resultIndex = resultIndex;
+			this.questKey = questKey;
+		}
+	}
+	
+	private final int index;
+	
+	private final String name;
+	
+	private final String description;
+	
+	private final Integer nextIndex;
+	
+	private final String questKey;
+	
+	/**
+	 * Requirements of a plain goal. Empty for junctions
+	 */
+	private final List<RequirementTemplate> requirements;
+	
+	/**
+	 * Paths of a junction, or null for plain goals
+	 */
+	private final List<PathTemplate> paths;
+	
+	private GoalTemplate(int index, String name, String description, Integer nextIndex, String questKey,
+			List<RequirementTemplate> requirements, List<PathTemplate> paths) {
+		this.index = index;
+		this.name = name;
+		this.description = description;
+		this.nextIndex = nextIndex;
+		this.questKey = questKey;
+		this.requirements = requirements;
+		this.paths = paths;
+	}
+	
+	/**
+	 * Reads a goal or junction from its configuration section.
+	 * <p>
+	 * A goal section holds the goal name, description, next goal index, quest key and its
+	 * requirements. Requirements are a list of sections, each with the key being the type of
+	 * requirement and the value being the section for setting up the requirement. A junction
+	 * holds a list of paths instead, each with its own requirements, result index and quest key.
+	 * </p>
+	 * @throws InvalidConfigurationException if the section isn't a goal or junction, or any of its
+	 * requirements are malformed
+	 */
+	public static GoalTemplate compile(int index, ConfigurationSection config) throws InvalidConfigurationException {
+		String type = config.getString("type");
+		String name = config.getString("name");
+		String description = config.getString("description");
+		
+		if (GOAL_TYPE.equals(type)) {
+			Integer nextIndex = (config.contains("next") ? config.getInt("next") : null);
+			String key = (config.contains("questKey") ? config.getString("questKey") : null);
+			
+			return new GoalTemplate(index, name, description, nextIndex, key,
+					compileRequirements(name, config.getConfigurationSection("requirements")), null);
+		}
+		
+		if (JUNCTION_TYPE.equals(type)) {
+			ConfigurationSection psex = config.getConfigurationSection("paths");
+			if (psex == null) {
+				throw new InvalidConfigurationException("Junction " + name + " has no paths");
+			}
+			
+			List<PathTemplate> paths = new ArrayList<>();
+			for (String key : psex.getKeys(false)) {
+				//each key is junk. But the section after is a list of paths
+				ConfigurationSection section = psex.getConfigurationSection(key);
+				if (section == null) {
+					throw new InvalidConfigurationException("Malformed path " + key + " in junction " + name);
+				}
+				
+				paths.add(new PathTemplate(
+						compileRequirements(name, section.getConfigurationSection("requirements")),
+						(section.contains("resultIndex") ? section.getInt("resultIndex") : null),
+						(section.contains("questKey") ? section.getString("questKey") : null)));
+			}
+			
+			return new GoalTemplate(index, name, description, null, null,
+					Collections.<RequirementTemplate>emptyList(), Collections.unmodifiableList(paths));
+		}
+		
+		throw new InvalidConfigurationException("Unknown goal type [" + type + "] for goal " + index);
+	}
+	
+	private static List<RequirementTemplate> compileRequirements(String goalName, ConfigurationSection section)
+			throws InvalidConfigurationException {
+		if (section == null) {
+			throw new InvalidConfigurationException("Goal " + goalName + " has no requirements section");
+		}
+		
+		List<RequirementTemplate> list = new ArrayList<>();
+		for (String requirementKey : section.getKeys(false)) {
+			ConfigurationSection req = section.getConfigurationSection(requirementKey);
+			if (req == null || req.getKeys(false).isEmpty()) {
+				throw new InvalidConfigurationException("Malformed requirement " + requirementKey
+						+ " in goal " + goalName);
+			}
+			
+			String type = req.getKeys(false).iterator().next();
+			RequirementTemplate template = new RequirementTemplate(type, req.getConfigurationSection(type));
+			
+			//types registered later are compiled when first needed
+			template.compile(goalName);
+			list.add(template);
+		}
+		
+		return Collections.unmodifiableList(list);
+	}
+	
+	public int getIndex() {
+		return index;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public boolean isJunction() {
+		return paths != null;
+	}
+	
+	/**
+	 * Makes a new goal from this template for the given quest
+	 * @throws InvalidConfigurationException if one of the goal's requirements is of a type that
+	 * still isn't registered, or is malformed
+	 */
+	public Goal instance(Quest quest) throws InvalidConfigurationException {
+		if (isJunction()) {
+			Junction junction = new Junction(quest, index, name, description);
+			for (PathTemplate path : paths) {
+				List<Requirement> reqs = new LinkedList<>();
+				for (RequirementTemplate req : path.requirements) {
+					reqs.add(req.instance(junction));
+				}
+				
+				junction.addPath(new Junction.Path(reqs, path.resultIndex, path.questKey));
+			}
+			
+			return junction;
+		}
+		
+		Goal goal = new Goal(quest, index, nextIndex, name, description);
+		goal.setGoalKey(questKey);
+		for (RequirementTemplate req : requirements) {
+			goal.addRequirement(req.instance(goal));
+		}
+		
+		return goal;
+	}
+}
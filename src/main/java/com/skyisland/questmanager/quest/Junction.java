@@ -37,8 +37,13 @@ public class Junction extends Goal {
 		private String questKey;
 		
 		public Path(List<Requirement> requirements, Integer resultIndex) {
+			this(requirements, resultIndex, null);
+		}
+		
+		public Path(List<Requirement> requirements, Integer resultIndex, String questKey) {
 			this.requirements = requirements;
 			this.resultIndex = resultIndex;
+			this.questKey = questKey;
 		}
 		
 		public List<Requirement> getRequirements() {
@@ -63,71 +68,17 @@ public class Junction extends Goal {
 	private List<Path> paths;
 	
 	/**
-	 * Creates a goal from the provided goal configuration
+	 * Creates a junction from the provided goal configuration
+	 * @see Goal#fromConfig(Quest, int, ConfigurationSection)
 	 * @throws InvalidConfigurationException 
 	 */
 	public static Junction fromConfig(Quest quest, int index, ConfigurationSection config) throws InvalidConfigurationException {
-		/* goal construction configuration involves:
-		 * Goal name, description
-		 * A list of requirements mapped to a result index.
-		 * 
-		 * The req's are in a list, with each element being a con section with the
-		 * key being the type of req and the value being the config section for setting
-		 * up the req
-		 */
-		
-		if (!config.contains("type") || !config.getString("type").equals("juncnf")) {
+		GoalTemplate template = GoalTemplate.compile(index, config);
+		if (!template.isJunction()) {
 			throw new InvalidConfigurationException();
 		}
 		
-		String name, description;
-		
-		name = config.getString("name");
-		description = config.getString("description");
-		
-		Junction goal = new Junction(quest, index, name, description);
-		
-		//List<Path> paths = new LinkedList<>();
-		ConfigurationSection psex = config.getConfigurationSection("paths");
-		
-		
-		for (String key : psex.getKeys(false)) {
-			//each key is junk. But the section after is a list of paths
-			ConfigurationSection section = psex.getConfigurationSection(key);
-				
-			List<Requirement> requirements = new LinkedList<>();
-			List<ConfigurationSection> reqs = new LinkedList<>();
-			for (String requirementKey : section.getConfigurationSection("requirements").getKeys(false)) {
-				reqs.add( section.getConfigurationSection("requirements." + requirementKey));
-			}
-			
-			for (ConfigurationSection req : reqs) {
-				String type = req.getKeys(false).iterator().next();
-				
-				ConfigurationSection conf = req.getConfigurationSection(type);
-				
-				
-				Requirement r = QuestManagerPlugin.questManagerPlugin.getRequirementManager()
-						.instanceRequirement(type, goal, conf);
-				
-				if (r == null) {
-					QuestManagerPlugin.logger
-						.warning("    Invalid requirement type for goal: " + goal.getName());
-				}
-				
-				requirements.add(r);
-			}
-			Integer next = (section.contains("resultIndex") ? section.getInt("resultIndex") : null);
-			String questKey = (section.contains("questKey") ? section.getString("questKey") : null);
-			
-			Path p = new Path(requirements, next);
-			p.questKey = questKey;
-			//paths.add(p);
-			goal.addPath(p);
-		}
-
-		return goal;
-		
+		return (Junction) template.instance(quest);
 	}
 	
 	public Junction(Quest quest, int index, String name, String description) {
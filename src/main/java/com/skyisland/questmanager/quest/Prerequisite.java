@@ -0,0 +1,215 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.quest;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.skyisland.questmanager.player.QuestPlayer;
+
+/**
+ * A quest prerequisite expression, parsed once and kept as a tree.
+ * <p>
+ * See {@link QuestPlayer#meetsRequirement(QuestPlayer, String)} for the syntax. Compiled
+ * expressions are cached by their text, since the same few are checked over and over.
+ * </p>
+ */
+public abstract class Prerequisite {
+	
+	private static final Map<String, Prerequisite> cache = new HashMap<>();
+	
+	/**
+	 * Parses the requirement, or returns the already-parsed expression if it's been seen before
+	 */
+	public static Prerequisite compile(String requirement) {
+		Prerequisite prereq = cache.get(requirement);
+		if (prereq == null) {
+			prereq = parse(requirement);
+			cache.put(requirement, prereq);
+		}
+		
+		return prereq;
+	}
+	
+	public static List<Prerequisite> compile(List<String> requirements) {
+		List<Prerequisite> list = new ArrayList<>(requirements == null ? 0 : requirements.size());
+		if (requirements != null) {
+			for (String requirement : requirements) {
+				list.add(compile(requirement));
+			}
+		}
+		
+		return list;
+	}
+	
+	/**
+	 * Checks whether the player meets every one of the prerequisites
+	 */
+	public static boolean allMet(QuestPlayer player, List<Prerequisite> prerequisites) {
+		for (Prerequisite prereq : prerequisites) {
+			if (!prereq.isMet(player)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Turns a string of quest keys into the set of key characters
+	 */
+	public static BitSet toKeySet(String keys) {
+		BitSet set = new BitSet();
+		if (keys != null) {
+			for (int i = 0; i < keys.length(); i++) {
+				set.set(keys.charAt(i));
+			}
+		}
+		
+		return set;
+	}
+	
+	private static Prerequisite parse(String requirement) {
+		requirement = requirement.trim();
+		if (requirement.contains("|")) {
+			List<Prerequisite> options = new ArrayList<>();
+			for (String req : requirement.split("\\|")) {
+				options.add(parse(req));
+			}
+			return new Any(options.toArray(new Prerequisite[options.size()]));
+		}
+		
+		if (requirement.contains("&")) {
+			List<Prerequisite> parts = new ArrayList<>();
+			for (String req : requirement.split("&")) {
+				parts.add(parse(req));
+			}
+			return new All(parts.toArray(new Prerequisite[parts.size()]));
+		}
+		
+		if (requirement.contains(".")) {
+			int pos = requirement.indexOf(".");
+			String name = requirement.substring(0, pos).trim();
+			String quest = (name.startsWith("*") ? name.substring(1) : name);
+			return new All(new Prerequisite[]{
+					new Keys(quest, toKeySet(requirement.substring(pos + 1))),
+					parse(name)
+			});
+		}
+		
+		if (requirement.startsWith("*")) {
+			return new Current(requirement.substring(1));
+		}
+		
+		return new Completed(requirement);
+	}
+	
+	/**
+	 * Checks the expression against the player's current and completed quests and quest keys
+	 */
+	public abstract boolean isMet(QuestPlayer player);
+	
+	private static final class Any extends Prerequisite {
+		
+		private final Prerequisite[] options;
+		
+		private Any(Prerequisite[] options) {
+			this.options = options;
+		}
+		
+		@Override
+		public boolean isMet(QuestPlayer player) {
+			for (Prerequisite option : options) {
+				if (option.isMet(player)) {
+					return true;
+				}
+			}
+			
+			return false;
+		}
+	}
+	
+	private static final class All extends Prerequisite {
+		
+		private final Prerequisite[] parts;
+		
+		private All(Prerequisite[] parts) {
+			this.parts = parts;
+		}
+		
+		@Override
+		public boolean isMet(QuestPlayer player) {
+			for (Prerequisite part : parts) {
+				if (!part.isMet(player)) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+	}
+	
+	private static final class Current extends Prerequisite {
+		
+		private final String quest;
+		
+		private Current(String quest) {
+			this.quest = quest;
+		}
+		
+		@Override
+		public boolean isMet(QuestPlayer player) {
+			return player.isInQuest(quest);
+		}
+	}
+	
+	private static final class Completed extends Prerequisite {
+		
+		private final String quest;
+		
+		private Completed(String quest) {
+			this.quest = quest;
+		}
+		
+		@Override
+		public boolean isMet(QuestPlayer player) {
+			return player.hasCompleted(quest);
+		}
+	}
+	
+	private static final class Keys extends Prerequisite {
+		
+		private final String quest;
+		
+		private final BitSet keys;
+		
+		private Keys(String quest, BitSet keys) {
+			this.quest = quest;
+			this.keys = keys;
+		}
+		
+		@Override
+		public boolean isMet(QuestPlayer player) {
+			return player.hasKeys(quest, keys);
+		}
+	}
+}
@@ -607,7 +607,7 @@ public class Quest implements Listener {
 			update();
 
 			for (QuestPlayer p : participant.getParticipants()) {
-				p.updateQuestBook(false);
+				p.updateQuestPage(this, false);
 			}
 		}
 	}
@@ -18,14 +18,10 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
@@ -44,7 +40,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * It only requires that someone get there at some point.
  * @see PositionRequirement
  */
-public class ArriveRequirement extends Requirement implements Listener, StatekeepingRequirement, CompassTrackable {
+public class ArriveRequirement extends Requirement implements StatekeepingRequirement, CompassTrackable {
 	
 	public static class ArriveFactory extends RequirementFactory<ArriveRequirement> {
 
@@ -59,6 +55,13 @@ public class ArriveRequirement extends Requirement implements Listener, Statekee
 			return req;
 		}
 		
+		@Override
+		public Template<ArriveRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			ArriveRequirement settings = new ArriveRequirement();
+			settings.fromConfig(config);
+			return goal -> new ArriveRequirement(goal, settings);
+		}
+		
 	}
 		
 	
@@ -80,6 +83,23 @@ public class ArriveRequirement extends Requirement implements Listener, Statekee
 		//Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
 	}
 	
+	/**
+	 * Holds the settings {@link ArriveFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private ArriveRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private ArriveRequirement(Goal goal, ArriveRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.targetRange = settings.targetRange;
+		this.destination = settings.destination.clone();
+	}
+	
 	public ArriveRequirement(Goal goal, String description, Participant participants, Location location, double range) {
 		this(goal);
 		
@@ -91,7 +111,7 @@ public class ArriveRequirement extends Requirement implements Listener, Statekee
 	
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 
 	/**
@@ -115,7 +135,6 @@ public class ArriveRequirement extends Requirement implements Listener, Statekee
 		return targetRange;
 	}
 	
-	@EventHandler
 	public void onPlayerMove(PlayerMoveEvent e) {
 		if (participants == null) {
 			return;
@@ -147,7 +166,7 @@ public class ArriveRequirement extends Requirement implements Listener, Statekee
 				updateQuest();
 				
 				//unregister listener, cause we'll never switch to unsatisfied
-				HandlerList.unregisterAll(this);
+				deactivate();
 				return;
 			}
 		}
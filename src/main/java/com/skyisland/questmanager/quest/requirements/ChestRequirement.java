@@ -18,14 +18,11 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.Inventory;
 
@@ -42,7 +39,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * Requirement that a participant must interact (right click or left click or both) a certain block.
  *
  */
-public class ChestRequirement extends Requirement implements Listener, StatekeepingRequirement, CompassTrackable {
+public class ChestRequirement extends Requirement implements StatekeepingRequirement, CompassTrackable {
 	
 	public static class ChestRequirementFactory extends RequirementFactory<ChestRequirement> {
 		
@@ -78,7 +75,7 @@ public class ChestRequirement extends Requirement implements Listener, Statekeep
 	@Override
 	public void activate() {
 		chest.getLocation().getBlock().setType(chest.getMaterial());
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 
 	public void setChest(Chest chest) {
@@ -89,7 +86,6 @@ public class ChestRequirement extends Requirement implements Listener, Statekeep
 	/**
 	 * Catches a player's interaction and sees if it's with our 'chest'
 	 */
-	@EventHandler
 	public void onInteract(PlayerInteractEvent e) {
 		
 		if (e.getClickedBlock() == null) {
@@ -30,7 +30,7 @@ import com.skyisland.questmanager.configuration.state.StatekeepingRequirement;
 import com.skyisland.questmanager.player.Participant;
 import com.skyisland.questmanager.quest.Goal;
 import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
-import com.skyisland.questmanager.scheduling.IntervalScheduler;
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
 import com.skyisland.questmanager.scheduling.Tickable;
 
 /**
@@ -51,6 +51,13 @@ public class CountdownRequirement extends Requirement implements Tickable, State
 			}
 			return req;
 		}
+		
+		@Override
+		public Template<CountdownRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			CountdownRequirement settings = new CountdownRequirement();
+			settings.fromConfig(config);
+			return goal -> new CountdownRequirement(goal, settings);
+		}
 	}
 	
 	private Date targetTime;
@@ -61,6 +68,22 @@ public class CountdownRequirement extends Requirement implements Tickable, State
 		super(goal);
 	}
 	
+	/**
+	 * Holds the settings {@link CountdownFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private CountdownRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private CountdownRequirement(Goal goal, CountdownRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.delay = settings.delay;
+	}
+	
 	public CountdownRequirement(Participant participants, Goal goal, String description, Date targetTime) {
 		super(goal, description);
 		state = false;
@@ -76,7 +99,7 @@ public class CountdownRequirement extends Requirement implements Tickable, State
 		cal.setTime(new Date());
 		cal.add(Calendar.SECOND, delay);
 		this.targetTime = cal.getTime();
-		IntervalScheduler.getScheduler().register(this);
+		BudgetedScheduler.getScheduler().register(this);
 	}
 	
 	/**
@@ -18,14 +18,10 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.configuration.state.RequirementState;
@@ -40,7 +36,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * Requirement that a participant must craft a certain item
  *
  */
-public class CraftRequirement extends Requirement implements Listener, StatekeepingRequirement {
+public class CraftRequirement extends Requirement implements StatekeepingRequirement {
 	
 	public static class CraftRequirementFactory extends RequirementFactory<CraftRequirement> {
 		
@@ -53,6 +49,13 @@ public class CraftRequirement extends Requirement implements Listener, Statekeep
 			}
 			return req;
 		}
+		
+		@Override
+		public Template<CraftRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			CraftRequirement settings = new CraftRequirement();
+			settings.fromConfig(config);
+			return goal -> new CraftRequirement(goal, settings);
+		}
 	}
 	
 	private String craftName;
@@ -68,6 +71,24 @@ public class CraftRequirement extends Requirement implements Listener, Statekeep
 		count = 0;
 	}
 	
+	/**
+	 * Holds the settings {@link CraftRequirementFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private CraftRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private CraftRequirement(Goal goal, CraftRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.craftType = settings.craftType;
+		this.craftName = settings.craftName;
+		this.targetCount = settings.targetCount;
+	}
+	
 	public CraftRequirement(Goal goal, Material craftType, String craftName, int targetCount) {
 		this(goal);
 		this.state = false;
@@ -78,18 +99,17 @@ public class CraftRequirement extends Requirement implements Listener, Statekeep
 
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 	
 
 	/**
 	 * Catches player crafts and checks to see if they match what we need
 	 */
-	@EventHandler
 	public void onCraft(CraftEvent e) {
 		
 		if (state) {
-			HandlerList.unregisterAll(this);
+			deactivate();
 			return;
 		}
 
@@ -112,7 +132,7 @@ public class CraftRequirement extends Requirement implements Listener, Statekeep
 		
 		if (count >= targetCount) {
 			state = true;
-			HandlerList.unregisterAll(this);
+			deactivate();
 			updateQuest();
 		}
 	}
@@ -139,7 +159,7 @@ public class CraftRequirement extends Requirement implements Listener, Statekeep
 	}
 	
 	public void stop() {
-		HandlerList.unregisterAll(this);
+		deactivate();
 	}
 	
 	@Override
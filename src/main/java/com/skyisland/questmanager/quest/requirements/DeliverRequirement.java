@@ -23,9 +23,6 @@ import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerPickupItemEvent;
 import org.bukkit.inventory.Inventory;
@@ -43,7 +40,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * Requirement specification that checks for an itemstack and removes it when it's there
  *
  */
-public class DeliverRequirement extends Requirement implements Listener, StatekeepingRequirement {
+public class DeliverRequirement extends Requirement implements StatekeepingRequirement {
 	
 	public static class DeliverFactory extends RequirementFactory<DeliverRequirement> {
 		
@@ -57,6 +54,13 @@ public class DeliverRequirement extends Requirement implements Listener, Stateke
 			}
 			return req;
 		}
+		
+		@Override
+		public Template<DeliverRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			DeliverRequirement settings = new DeliverRequirement();
+			settings.fromConfig(config);
+			return goal -> new DeliverRequirement(goal, settings);
+		}
 	}
 	
 	private Material itemType;
@@ -69,6 +73,24 @@ public class DeliverRequirement extends Requirement implements Listener, Stateke
 		super(goal);
 	}
 	
+	/**
+	 * Holds the settings {@link DeliverFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private DeliverRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private DeliverRequirement(Goal goal, DeliverRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.itemType = settings.itemType;
+		this.itemCount = settings.itemCount;
+		this.itemName = settings.itemName;
+	}
+	
 	public DeliverRequirement(Participant participants, Goal goal, Material itemType) {
 		this(participants, goal, "", itemType, 1);
 	}
@@ -97,7 +119,7 @@ public class DeliverRequirement extends Requirement implements Listener, Stateke
 	
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 
 	/**
@@ -114,7 +136,6 @@ public class DeliverRequirement extends Requirement implements Listener, Stateke
 		return itemCount;
 	}
 	
-	@EventHandler
 	public void onInventoryChange(PlayerPickupItemEvent e) {
 		if (this.participants == null) {
 			return;
@@ -134,7 +155,6 @@ public class DeliverRequirement extends Requirement implements Listener, Stateke
 		}
 	}
 	
-	@EventHandler
 	public void onInventoryChange(PlayerDropItemEvent e) {
 		if (this.participants == null) {
 			return;
@@ -221,7 +241,7 @@ public class DeliverRequirement extends Requirement implements Listener, Stateke
 							}
 						}
 					
-					HandlerList.unregisterAll(this);
+					deactivate();
 					updateQuest();
 				}
 				return;
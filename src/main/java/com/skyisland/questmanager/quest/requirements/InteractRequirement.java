@@ -18,15 +18,11 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.block.BlockFace;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 
@@ -43,7 +39,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * Requirement that a participant must interact (right click or left click or both) a certain block.
  *
  */
-public class InteractRequirement extends Requirement implements Listener, StatekeepingRequirement, CompassTrackable {
+public class InteractRequirement extends Requirement implements StatekeepingRequirement, CompassTrackable {
 	
 	public static class InteractFactory extends RequirementFactory<InteractRequirement> {
 		
@@ -56,6 +52,13 @@ public class InteractRequirement extends Requirement implements Listener, Statek
 			}
 			return req;
 		}
+		
+		@Override
+		public Template<InteractRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			InteractRequirement settings = new InteractRequirement();
+			settings.fromConfig(config);
+			return goal -> new InteractRequirement(goal, settings);
+		}
 	}
 	
 	private Location location;
@@ -68,6 +71,24 @@ public class InteractRequirement extends Requirement implements Listener, Statek
 		super(goal);
 	}
 	
+	/**
+	 * Holds the settings {@link InteractFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private InteractRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private InteractRequirement(Goal goal, InteractRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.face = settings.face;
+		this.action = settings.action;
+		this.location = settings.location.clone();
+	}
+	
 	public InteractRequirement(Goal goal, Location blockLocation) {
 		this(goal, blockLocation, null);
 	}
@@ -91,7 +112,7 @@ public class InteractRequirement extends Requirement implements Listener, Statek
 
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 	
 	public BlockFace getFace() {
@@ -117,11 +138,10 @@ public class InteractRequirement extends Requirement implements Listener, Statek
 	/**
 	 * Catches a player's interaction and sees if it's the one we've been waiting for
 	 */
-	@EventHandler
 	public void onInteract(PlayerInteractEvent e) {
 		
 		if (state) {
-			HandlerList.unregisterAll(this);
+			deactivate();
 			return;
 		}
 
@@ -136,7 +156,7 @@ public class InteractRequirement extends Requirement implements Listener, Statek
 					if (actionsMatch(e.getAction()))
 					if (e.getClickedBlock() != null && e.getClickedBlock().getLocation().equals(location.getBlock().getLocation())){
 						state = true;
-						HandlerList.unregisterAll(this);
+						deactivate();
 						updateQuest();
 					}
 				}
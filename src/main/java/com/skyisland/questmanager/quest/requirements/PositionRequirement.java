@@ -18,12 +18,9 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
@@ -41,7 +38,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * be satisfied!
  * @see ArriveRequirement
  */
-public class PositionRequirement extends Requirement implements Listener, CompassTrackable {
+public class PositionRequirement extends Requirement implements CompassTrackable {
 	
 	public static class PositionFactory extends RequirementFactory<PositionRequirement> {
 		
@@ -54,6 +51,13 @@ public class PositionRequirement extends Requirement implements Listener, Compas
 			}
 			return req;
 		}
+		
+		@Override
+		public Template<PositionRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			PositionRequirement settings = new PositionRequirement();
+			settings.fromConfig(config);
+			return goal -> new PositionRequirement(goal, settings);
+		}
 	}
 	
 	
@@ -71,6 +75,23 @@ public class PositionRequirement extends Requirement implements Listener, Compas
 		super(goal);
 	}
 	
+	/**
+	 * Holds the settings {@link PositionFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private PositionRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private PositionRequirement(Goal goal, PositionRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.targetRange = settings.targetRange;
+		this.destination = settings.destination.clone();
+	}
+	
 	public PositionRequirement(Goal goal, String description, Participant participants, Location destination, double range) {
 		super(goal, description);
 		this.participants = participants;
@@ -82,7 +103,7 @@ public class PositionRequirement extends Requirement implements Listener, Compas
 	
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 
 	/**
@@ -106,7 +127,6 @@ public class PositionRequirement extends Requirement implements Listener, Compas
 		return targetRange;
 	}
 	
-	@EventHandler
 	public void onPlayerMove(PlayerMoveEvent e) {
 		if (participants == null) {
 			return;
@@ -18,12 +18,9 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerPickupItemEvent;
 import org.bukkit.inventory.Inventory;
@@ -40,7 +37,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * This requirement can also check whether or not the name of the item matches one given to it
  *
  */
-public class PossessRequirement extends Requirement implements Listener {
+public class PossessRequirement extends Requirement {
 	
 	public static class PossessFactory extends RequirementFactory<PossessRequirement> {
 		
@@ -54,6 +51,13 @@ public class PossessRequirement extends Requirement implements Listener {
 			}
 			return req;
 		}
+		
+		@Override
+		public Template<PossessRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			PossessRequirement settings = new PossessRequirement();
+			settings.fromConfig(config);
+			return goal -> new PossessRequirement(goal, settings);
+		}
 	}
 	
 	private Material itemType;
@@ -66,6 +70,24 @@ public class PossessRequirement extends Requirement implements Listener {
 		super(goal);
 	}
 	
+	/**
+	 * Holds the settings {@link PossessFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private PossessRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private PossessRequirement(Goal goal, PossessRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.itemType = settings.itemType;
+		this.itemCount = settings.itemCount;
+		this.itemName = settings.itemName;
+	}
+	
 	public PossessRequirement(Participant participants, Goal goal, String description, Material itemType) {
 		this(participants, goal, description, itemType, 1);
 	}
@@ -90,7 +112,7 @@ public class PossessRequirement extends Requirement implements Listener {
 	
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 
 	/**
@@ -107,7 +129,6 @@ public class PossessRequirement extends Requirement implements Listener {
 		return itemCount;
 	}
 	
-	@EventHandler
 	public void onInventoryChange(PlayerPickupItemEvent e) {
 		if (this.participants == null) {
 			return;
@@ -136,7 +157,6 @@ public class PossessRequirement extends Requirement implements Listener {
 		}
 	}
 	
-	@EventHandler
 	public void onInventoryChange(PlayerDropItemEvent e) {
 		if (this.participants == null) {
 			return;
@@ -22,6 +22,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 
+import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.player.Participant;
 import com.skyisland.questmanager.quest.Goal;
 
@@ -64,6 +65,15 @@ public abstract class Requirement {
 		participants = goal.getQuest().getParticipants();
 	}
 	
+	/**
+	 * Creates a requirement that isn't part of any goal. Factories read a requirement's settings
+	 * into one of these once, and copy them into each requirement they make after.
+	 * @see com.skyisland.questmanager.quest.requirements.factory.RequirementFactory#compile(ConfigurationSection)
+	 */
+	protected Requirement() {
+		
+	}
+	
 	public abstract void fromConfig(ConfigurationSection config) throws InvalidConfigurationException;
 	
 	public void sync() {
@@ -100,6 +110,14 @@ public abstract class Requirement {
 	 */
 	public abstract void activate();
 	
+	/**
+	 * Stops this requirement from receiving events through the {@link RequirementDispatcher}.
+	 * Requirements that can no longer change state call this to drop out of the dispatch index.
+	 */
+	protected void deactivate() {
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().unregister(this);
+	}
+	
 	/**
 	 * Notifies the parent goal of a status chain, usually causing a re-evaluation of criteria
 	 * to update the goal's status
@@ -0,0 +1,412 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.quest.requirements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerInteractAtEntityEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerPickupItemEvent;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.npc.NPC;
+import com.skyisland.questmanager.npc.NPCRegistry;
+import com.skyisland.questmanager.player.Participant;
+import com.skyisland.questmanager.player.QuestPlayer;
+import com.skyisland.questmanager.player.skill.event.CraftEvent;
+
+/**
+ * Single listener that hands events to the active requirements able to match them.
+ * <p>
+ * Active requirements are indexed by the event they care about and a key taken from the event:
+ * the participant's ID for movement, block interaction and crafting, the entity type and name
+ * for slaying, the material for possession and delivery, the entity's UUID for vanquishing, and
+ * the NPC itself for talking to NPCs. NPC entities are swapped out when they respawn, so the
+ * clicked entity is resolved to its NPC through the {@link NPCRegistry} at event time.
+ * Requirements still perform their own checks once handed an event; the index only narrows
+ * down who gets asked.
+ * </p>
+ * <p>
+ * Requirements register when they are {@link Requirement#activate() activated} and are
+ * unregistered when they complete or their goal is stopped.
+ * </p>
+ */
+public class RequirementDispatcher implements Listener {
+
+	/**
+	 * Lookup table of requirements by key. Lists are replaced rather than modified, so that
+	 * requirements may (un)register while an event is being dispatched.
+	 */
+	private static class Index<K> {
+
+		private Map<K, List<Requirement>> map = new HashMap<>();
+
+		public void add(K key, Requirement req) {
+			List<Requirement> list = map.get(key);
+			List<Requirement> copy = (list == null ? new ArrayList<>(1) : new ArrayList<>(list));
+			copy.add(req);
+			map.put(key, copy);
+		}
+
+		public void remove(K key, Requirement req) {
+			List<Requirement> list = map.get(key);
+			if (list == null) {
+				return;
+			}
+
+			List<Requirement> copy = new ArrayList<>(list);
+			copy.remove(req);
+			if (copy.isEmpty()) {
+				map.remove(key);
+			} else {
+				map.put(key, copy);
+			}
+		}
+
+		public List<Requirement> get(K key) {
+			List<Requirement> list = map.get(key);
+			return (list == null ? Collections.<Requirement>emptyList() : list);
+		}
+
+		public void clear() {
+			map.clear();
+		}
+	}
+
+	/**
+	 * Remembers which index a requirement was put in, and under what key
+	 */
+	private static class Registration {
+
+		private Index<Object> index;
+
+		private Object key;
+
+		@SuppressWarnings("unchecked")
+		private Registration(Index<?> index, Object key) {
+			this.index = (Index<Object>) index;
+			this.key = key;
+		}
+	}
+
+	/**
+	 * Key for slay requirements. A null name matches any entity of the type
+	 */
+	private static final class SlayKey {
+
+		private final EntityType type;
+
+		private final String name;
+
+		private SlayKey(EntityType type, String name) {
+			this.type = type;
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof SlayKey)) {
+				return false;
+			}
+
+			SlayKey other = (SlayKey) o;
+			return type == other.type && Objects.equals(name, other.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, name);
+		}
+	}
+
+	private Index<String> moveIndex;
+
+	private Index<String> interactIndex;
+
+	private Index<String> craftIndex;
+
+	private Index<SlayKey> slayIndex;
+
+	private Index<UUID> vanquishIndex;
+
+	private Index<Material> itemIndex;
+
+	private Index<NPC> talkIndex;
+
+	private Map<Requirement, List<Registration>> registrations;
+
+	public RequirementDispatcher() {
+		moveIndex = new Index<>();
+		interactIndex = new Index<>();
+		craftIndex = new Index<>();
+		slayIndex = new Index<>();
+		vanquishIndex = new Index<>();
+		itemIndex = new Index<>();
+		talkIndex = new Index<>();
+		registrations = new HashMap<>();
+
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+	}
+
+	/**
+	 * Starts delivering relevant events to the given requirement.
+	 * Registering a requirement that is already registered re-indexes it.
+	 */
+	public void register(Requirement req) {
+		unregister(req);
+
+		List<Registration> regs = new LinkedList<>();
+
+		if (req instanceof PositionRequirement || req instanceof ArriveRequirement) {
+			addByParticipant(regs, moveIndex, req);
+		} else if (req instanceof InteractRequirement || req instanceof ChestRequirement) {
+			addByParticipant(regs, interactIndex, req);
+		} else if (req instanceof CraftRequirement) {
+			addByParticipant(regs, craftIndex, req);
+		} else if (req instanceof SlayRequirement) {
+			SlayRequirement slay = (SlayRequirement) req;
+			add(regs, slayIndex, new SlayKey(slay.getType(), slay.getName()), req);
+		} else if (req instanceof VanquishRequirement) {
+			add(regs, vanquishIndex, ((VanquishRequirement) req).getFoeID(), req);
+		} else if (req instanceof PossessRequirement) {
+			add(regs, itemIndex, ((PossessRequirement) req).getItemType(), req);
+		} else if (req instanceof DeliverRequirement) {
+			add(regs, itemIndex, ((DeliverRequirement) req).getItemType(), req);
+		} else if (req instanceof TalkRequirement) {
+			TalkRequirement talk = (TalkRequirement) req;
+			if (talk.getNPC() != null) {
+				add(regs, talkIndex, talk.getNPC(), req);
+			}
+		}
+
+		if (!regs.isEmpty()) {
+			registrations.put(req, regs);
+		}
+	}
+
+	/**
+	 * Stops delivering events to the given requirement
+	 */
+	public void unregister(Requirement req) {
+		List<Registration> regs = registrations.remove(req);
+		if (regs == null) {
+			return;
+		}
+
+		for (Registration reg : regs) {
+			reg.index.remove(reg.key, req);
+		}
+	}
+
+	public boolean isRegistered(Requirement req) {
+		return registrations.containsKey(req);
+	}
+
+	/**
+	 * Unregisters all requirements
+	 */
+	public void clear() {
+		registrations.clear();
+		moveIndex.clear();
+		interactIndex.clear();
+		craftIndex.clear();
+		slayIndex.clear();
+		vanquishIndex.clear();
+		itemIndex.clear();
+		talkIndex.clear();
+	}
+
+	private <K> void add(List<Registration> regs, Index<K> index, K key, Requirement req) {
+		if (key == null) {
+			return;
+		}
+
+		index.add(key, req);
+		regs.add(new Registration(index, key));
+	}
+
+	private void addByParticipant(List<Registration> regs, Index<String> index, Requirement req) {
+		req.sync();
+		Participant participant = req.participants;
+		if (participant == null) {
+			return;
+		}
+
+		add(regs, index, participant.getIDString(), req);
+	}
+
+	/**
+	 * Collects the requirements in the participant-keyed index that the given player could
+	 * be taking part in: those registered to the player directly, or to the player's party.
+	 */
+	private List<Requirement> getByParticipant(Index<String> index, QuestPlayer player) {
+		if (player == null) {
+			return Collections.emptyList();
+		}
+
+		List<Requirement> own = index.get(player.getIDString());
+		if (player.getParty() == null) {
+			return own;
+		}
+
+		List<Requirement> party = index.get(player.getParty().getIDString());
+		if (own.isEmpty()) {
+			return party;
+		}
+		if (party.isEmpty()) {
+			return own;
+		}
+
+		List<Requirement> both = new ArrayList<>(own.size() + party.size());
+		both.addAll(own);
+		both.addAll(party);
+		return both;
+	}
+
+	private static QuestPlayer getQuestPlayer(Player player) {
+		return QuestManagerPlugin.questManagerPlugin.getPlayerManager().getLoadedPlayer(player.getUniqueId());
+	}
+
+	@EventHandler
+	public void onPlayerMove(PlayerMoveEvent e) {
+		for (Requirement req : getByParticipant(moveIndex, getQuestPlayer(e.getPlayer()))) {
+			if (!isRegistered(req)) {
+				continue;
+			}
+
+			if (req instanceof PositionRequirement) {
+				((PositionRequirement) req).onPlayerMove(e);
+			} else {
+				((ArriveRequirement) req).onPlayerMove(e);
+			}
+		}
+	}
+
+	@EventHandler
+	public void onInteract(PlayerInteractEvent e) {
+		for (Requirement req : getByParticipant(interactIndex, getQuestPlayer(e.getPlayer()))) {
+			if (!isRegistered(req)) {
+				continue;
+			}
+
+			if (req instanceof InteractRequirement) {
+				((InteractRequirement) req).onInteract(e);
+			} else {
+				((ChestRequirement) req).onInteract(e);
+			}
+		}
+	}
+
+	@EventHandler
+	public void onCraft(CraftEvent e) {
+		for (Requirement req : getByParticipant(craftIndex, e.getPlayer())) {
+			if (isRegistered(req)) {
+				((CraftRequirement) req).onCraft(e);
+			}
+		}
+	}
+
+	@EventHandler
+	public void onEntityDeath(EntityDeathEvent e) {
+		for (Requirement req : vanquishIndex.get(e.getEntity().getUniqueId())) {
+			if (isRegistered(req)) {
+				((VanquishRequirement) req).onVanquish(e);
+			}
+		}
+
+		dispatchSlay(e, new SlayKey(e.getEntityType(), null));
+
+		if (e.getEntity().getCustomName() != null) {
+			dispatchSlay(e, new SlayKey(e.getEntityType(), e.getEntity().getCustomName()));
+		}
+	}
+
+	private void dispatchSlay(EntityDeathEvent e, SlayKey key) {
+		for (Requirement req : slayIndex.get(key)) {
+			if (isRegistered(req)) {
+				((SlayRequirement) req).onEntityDeath(e);
+			}
+		}
+	}
+
+	@EventHandler
+	public void onItemPickup(PlayerPickupItemEvent e) {
+		for (Requirement req : itemIndex.get(e.getItem().getItemStack().getType())) {
+			if (!isRegistered(req)) {
+				continue;
+			}
+
+			if (req instanceof PossessRequirement) {
+				((PossessRequirement) req).onInventoryChange(e);
+			} else {
+				((DeliverRequirement) req).onInventoryChange(e);
+			}
+		}
+	}
+
+	@EventHandler
+	public void onItemDrop(PlayerDropItemEvent e) {
+		for (Requirement req : itemIndex.get(e.getItemDrop().getItemStack().getType())) {
+			if (!isRegistered(req)) {
+				continue;
+			}
+
+			if (req instanceof PossessRequirement) {
+				((PossessRequirement) req).onInventoryChange(e);
+			} else {
+				((DeliverRequirement) req).onInventoryChange(e);
+			}
+		}
+	}
+
+	@EventHandler
+	public void onInteractEntity(PlayerInteractAtEntityEvent e) {
+		if (QuestManagerPlugin.questManagerPlugin.getManager() == null) {
+			return;
+		}
+
+		NPC npc = QuestManagerPlugin.questManagerPlugin.getManager().getNPCRegistry()
+				.getNPC(e.getRightClicked().getUniqueId());
+		if (npc == null) {
+			return;
+		}
+
+		for (Requirement req : talkIndex.get(npc)) {
+			if (isRegistered(req)) {
+				((TalkRequirement) req).onInteract(e);
+			}
+		}
+	}
+}
@@ -18,15 +18,11 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Tameable;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 
@@ -46,7 +42,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * will be considered valid.
  * @see PositionRequirement
  */
-public class SlayRequirement extends Requirement implements Listener, StatekeepingRequirement {
+public class SlayRequirement extends Requirement implements StatekeepingRequirement {
 	
 	public static class SlayFactory extends RequirementFactory<SlayRequirement> {
 
@@ -61,6 +57,13 @@ public class SlayRequirement extends Requirement implements Listener, Statekeepi
 			return req;
 		}
 		
+		@Override
+		public Template<SlayRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			SlayRequirement settings = new SlayRequirement();
+			settings.fromConfig(config);
+			return goal -> new SlayRequirement(goal, settings);
+		}
+		
 	}
 		
 	/**
@@ -90,6 +93,24 @@ public class SlayRequirement extends Requirement implements Listener, Statekeepi
 		super(goal);	
 	}
 	
+	/**
+	 * Holds the settings {@link SlayFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private SlayRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private SlayRequirement(Goal goal, SlayRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.type = settings.type;
+		this.count = settings.count;
+		this.name = settings.name;
+	}
+	
 	public SlayRequirement(Goal goal, String description, Participant participants, EntityType type, String name, int count) {
 		super(goal, description);
 		
@@ -104,7 +125,7 @@ public class SlayRequirement extends Requirement implements Listener, Statekeepi
 	
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 
 	/**
@@ -172,7 +193,6 @@ public class SlayRequirement extends Requirement implements Listener, Statekeepi
 		this.progress = progress;
 	}
 
-	@EventHandler
 	public void onEntityDeath(EntityDeathEvent e) {
 		
 		if (participants == null) {
@@ -237,7 +257,7 @@ public class SlayRequirement extends Requirement implements Listener, Statekeepi
 		if (progress >= count) {
 			state = true;
 			updateQuest();
-			HandlerList.unregisterAll(this);
+			deactivate();
 			return;
 		}
 		
@@ -18,13 +18,9 @@
 
 package com.skyisland.questmanager.quest.requirements;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerInteractAtEntityEvent;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
@@ -41,7 +37,7 @@ import com.skyisland.questmanager.ui.menu.message.Message;
  * Requirement that a participant must talk to an npc.
  *
  */
-public class TalkRequirement extends Requirement implements Listener, CompassTrackable {
+public class TalkRequirement extends Requirement implements CompassTrackable {
 	
 	public static class TalkRequirementFactory extends RequirementFactory<TalkRequirement> {
 		
@@ -73,19 +69,22 @@ public class TalkRequirement extends Requirement implements Listener, CompassTra
 
 	@Override
 	public void activate() {
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 	
 	
 
+	public NPC getNPC() {
+		return npc;
+	}
+
 	/**
 	 * Catches a player's interaction and sees if it's the one we've been waiting for
 	 */
-	@EventHandler
 	public void onInteract(PlayerInteractAtEntityEvent e) {
 		
 		if (state) {
-			HandlerList.unregisterAll(this);
+			deactivate();
 			return;
 		}
 
@@ -100,7 +99,7 @@ public class TalkRequirement extends Requirement implements Listener, CompassTra
 						//cancel and interact
 						e.setCancelled(true);
 						this.state = true;
-						HandlerList.unregisterAll(this);
+						deactivate();
 						updateQuest();
 						
 						menu.show(e.getPlayer(), getGoal().getQuest());
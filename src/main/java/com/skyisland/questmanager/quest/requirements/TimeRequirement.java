@@ -26,7 +26,7 @@ import com.skyisland.questmanager.player.Participant;
 import com.skyisland.questmanager.player.QuestPlayer;
 import com.skyisland.questmanager.quest.Goal;
 import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
-import com.skyisland.questmanager.scheduling.IntervalScheduler;
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
 import com.skyisland.questmanager.scheduling.Tickable;
 
 /**
@@ -48,6 +48,13 @@ public class TimeRequirement extends Requirement implements Tickable {
 			}
 			return req;
 		}
+		
+		@Override
+		public Template<TimeRequirement> compile(ConfigurationSection config) throws InvalidConfigurationException {
+			TimeRequirement settings = new TimeRequirement();
+			settings.fromConfig(config);
+			return goal -> new TimeRequirement(goal, settings);
+		}
 	}
 	
 	private long startTime;
@@ -58,6 +65,23 @@ public class TimeRequirement extends Requirement implements Tickable {
 		super(goal);
 	}
 	
+	/**
+	 * Holds the settings {@link TimeFactory#compile(ConfigurationSection)} reads, outside of any goal
+	 */
+	private TimeRequirement() {
+		super();
+	}
+	
+	/**
+	 * Makes a requirement for the goal with the settings of a compiled one
+	 */
+	private TimeRequirement(Goal goal, TimeRequirement settings) {
+		this(goal);
+		this.desc = settings.desc;
+		this.startTime = settings.startTime;
+		this.endTime = settings.endTime;
+	}
+	
 	public TimeRequirement(Participant participants, Goal goal, String description, long start, long end) {
 		super(goal, description);
 		state = false;
@@ -69,7 +93,7 @@ public class TimeRequirement extends Requirement implements Tickable {
 	
 	@Override
 	public void activate() {
-		IntervalScheduler.getScheduler().register(this);
+		BudgetedScheduler.getScheduler().register(this);
 	}
 	
 	/**
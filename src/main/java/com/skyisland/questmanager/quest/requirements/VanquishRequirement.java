@@ -34,9 +34,6 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Skeleton;
 import org.bukkit.entity.Skeleton.SkeletonType;
 import org.bukkit.entity.Slime;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.inventory.EntityEquipment;
 
@@ -57,7 +54,7 @@ import com.skyisland.questmanager.quest.requirements.factory.RequirementFactory;
  * Instead it is simply required that the provided entity is defeated.
  *
  */
-public class VanquishRequirement extends Requirement implements Listener, StatekeepingRequirement, CompassTrackable {
+public class VanquishRequirement extends Requirement implements StatekeepingRequirement, CompassTrackable {
 	
 	public static class VanquishFactory extends RequirementFactory<VanquishRequirement> {
 		
@@ -164,7 +161,7 @@ public class VanquishRequirement extends Requirement implements Listener, Statek
 		QuestManagerPlugin.questManagerPlugin.getManager().registerNPC(foeNPC);
 		
 		update();
-		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		QuestManagerPlugin.questManagerPlugin.getRequirementDispatcher().register(this);
 	}
 	
 	/**
@@ -182,11 +179,17 @@ public class VanquishRequirement extends Requirement implements Listener, Statek
 		return null;
 	}
 	
+	/**
+	 * Returns the unique ID of the foe entity spawned for this requirement
+	 */
+	public UUID getFoeID() {
+		return id;
+	}
+	
 	/**
 	 * Catches entity death events and changes state to reflect whether or not this requirement
 	 * is satisfied
 	 */
-	@EventHandler
 	public void onVanquish(EntityDeathEvent e) {
 		
 		if (!state && foe.isDead()) {
@@ -196,7 +199,7 @@ public class VanquishRequirement extends Requirement implements Listener, Statek
 			QuestManagerPlugin.questManagerPlugin.getManager().unregisterNPC(foeNPC);
 			
 			//unregister listen, as we'll never need to check again
-			HandlerList.unregisterAll(this);
+			deactivate();
 			updateQuest();
 		}
 		
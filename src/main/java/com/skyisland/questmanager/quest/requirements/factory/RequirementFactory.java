@@ -19,11 +19,35 @@
 package com.skyisland.questmanager.quest.requirements.factory;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 
 import com.skyisland.questmanager.quest.Goal;
 import com.skyisland.questmanager.quest.requirements.Requirement;
 
 public abstract class RequirementFactory<T extends Requirement> {
 	
+	/**
+	 * A requirement section that's been read and checked, ready to make the requirement for a goal
+	 */
+	public interface Template<T extends Requirement> {
+		
+		T instance(Goal goal);
+	}
+	
 	public abstract T fromConfig(Goal goal, ConfigurationSection conf);
+	
+	/**
+	 * Reads a requirement's section once, for a quest template to make the requirement from for
+	 * every instance of the quest.
+	 * <p>
+	 * By default the section is read again through {@link #fromConfig(Goal, ConfigurationSection)}
+	 * for each goal. Factories whose requirements only hold settings from the section, and no state
+	 * or world objects, should override this to read it here and copy the settings into each
+	 * requirement they make.
+	 * </p>
+	 * @throws InvalidConfigurationException if the section is malformed
+	 */
+	public Template<T> compile(ConfigurationSection conf) throws InvalidConfigurationException {
+		return goal -> fromConfig(goal, conf);
+	}
 }
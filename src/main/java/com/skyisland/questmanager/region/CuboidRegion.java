@@ -194,6 +194,21 @@ public class CuboidRegion implements Region {
 		return loc;
 	}
 	
+	@Override
+	public World getWorld() {
+		return world;
+	}
+	
+	@Override
+	public Vector getMinimum() {
+		return least.clone();
+	}
+	
+	@Override
+	public Vector getMaximum() {
+		return most.clone();
+	}
+	
 	public static CuboidRegion valueOf(Map<String, Object> map) {
 		World world = Bukkit.getWorld((String) map.get("world"));
 		
@@ -19,8 +19,10 @@
 package com.skyisland.questmanager.region;
 
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.entity.Entity;
+import org.bukkit.util.Vector;
 
 /**
  * Specifies some region of land.
@@ -50,4 +52,21 @@ public interface Region extends ConfigurationSerializable {
 	 * of blocks above potential spawning locations to avoid overhead in spawning.
 	 */
 	Location randomLocation(boolean safe);
+	
+	/**
+	 * Returns the world this region is in, or null if the world isn't loaded
+	 */
+	World getWorld();
+	
+	/**
+	 * Returns the lowest corner of the smallest axis-aligned box containing this region.
+	 * Used by the {@link RegionIndex} to work out which chunks the region touches.
+	 */
+	Vector getMinimum();
+	
+	/**
+	 * Returns the highest corner of the smallest axis-aligned box containing this region.
+	 * @see #getMinimum()
+	 */
+	Vector getMaximum();
 }
@@ -0,0 +1,177 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.region;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.util.Vector;
+
+/**
+ * Spatial index over {@link Region regions}, bucketed per world and per chunk.
+ * <p>
+ * Each region is put in the bucket of every chunk its bounding box touches, so looking up the
+ * regions around a location only has to check the handful of regions in that location's chunk.
+ * Regions whose world isn't loaded can't be bucketed and are kept aside and checked every time.
+ * </p>
+ */
+public class RegionIndex {
+
+	/**
+	 * World ID -> chunk key -> regions touching that chunk, in the order they were added
+	 */
+	private Map<UUID, Map<Long, List<Region>>> worlds;
+
+	private List<Region> unindexed;
+
+	public RegionIndex() {
+		worlds = new HashMap<>();
+		unindexed = new LinkedList<>();
+	}
+
+	static long chunkKey(int x, int z) {
+		return (((long) x) << 32) | (z & 0xFFFFFFFFL);
+	}
+
+	private static int toChunk(double coord) {
+		return ((int) Math.floor(coord)) >> 4;
+	}
+
+	public void add(Region region) {
+		World world = region.getWorld();
+		if (world == null) {
+			unindexed.add(region);
+			return;
+		}
+
+		Map<Long, List<Region>> chunks = worlds.get(world.getUID());
+		if (chunks == null) {
+			chunks = new HashMap<>();
+			worlds.put(world.getUID(), chunks);
+		}
+
+		Vector min = region.getMinimum(), max = region.getMaximum();
+		int maxX = toChunk(max.getX()), maxZ = toChunk(max.getZ());
+		for (int x = toChunk(min.getX()); x <= maxX; x++)
+		for (int z = toChunk(min.getZ()); z <= maxZ; z++) {
+			long key = chunkKey(x, z);
+			List<Region> bucket = chunks.get(key);
+			if (bucket == null) {
+				bucket = new ArrayList<>(2);
+				chunks.put(key, bucket);
+			}
+			bucket.add(region);
+		}
+	}
+
+	public void remove(Region region) {
+		World world = region.getWorld();
+		if (world == null) {
+			unindexed.remove(region);
+			return;
+		}
+
+		Map<Long, List<Region>> chunks = worlds.get(world.getUID());
+		if (chunks == null) {
+			return;
+		}
+
+		Vector min = region.getMinimum(), max = region.getMaximum();
+		int maxX = toChunk(max.getX()), maxZ = toChunk(max.getZ());
+		for (int x = toChunk(min.getX()); x <= maxX; x++)
+		for (int z = toChunk(min.getZ()); z <= maxZ; z++) {
+			long key = chunkKey(x, z);
+			List<Region> bucket = chunks.get(key);
+			if (bucket != null) {
+				bucket.remove(region);
+				if (bucket.isEmpty()) {
+					chunks.remove(key);
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		worlds.clear();
+		unindexed.clear();
+	}
+
+	/**
+	 * Returns the regions whose bounding boxes touch the given chunk.
+	 * These regions don't necessarily contain any block of the chunk.
+	 */
+	public List<Region> getRegionsInChunk(World world, int chunkX, int chunkZ) {
+		List<Region> bucket = null;
+		Map<Long, List<Region>> chunks = worlds.get(world.getUID());
+		if (chunks != null) {
+			bucket = chunks.get(chunkKey(chunkX, chunkZ));
+		}
+
+		if (unindexed.isEmpty()) {
+			return (bucket == null ? Collections.<Region>emptyList() : Collections.unmodifiableList(bucket));
+		}
+
+		List<Region> list = (bucket == null ? new ArrayList<>() : new ArrayList<>(bucket));
+		list.addAll(unindexed);
+		return list;
+	}
+
+	public List<Region> getRegionsInChunk(Chunk chunk) {
+		return getRegionsInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+	}
+
+	/**
+	 * Returns all regions the given location falls in
+	 */
+	public List<Region> getRegions(Location location) {
+		List<Region> list = new LinkedList<>();
+		for (Region region : getRegionsInChunk(location.getWorld(),
+				location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+			if (region.isIn(location)) {
+				list.add(region);
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * Returns a region the given location falls in.
+	 * Where regions overlap, those whose world was loaded are preferred in the order they were added.
+	 * @return the region, or null if the location isn't in any region
+	 */
+	public Region getRegion(Location location) {
+		for (Region region : getRegionsInChunk(location.getWorld(),
+				location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+			if (region.isIn(location)) {
+				return region;
+			}
+		}
+
+		return null;
+	}
+}
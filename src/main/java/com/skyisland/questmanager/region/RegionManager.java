@@ -20,27 +20,35 @@ package com.skyisland.questmanager.region;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
-import org.bukkit.event.entity.EntityDeathEvent;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.enemy.Enemy;
 import com.skyisland.questmanager.enemy.EnemyAlarms;
+import com.skyisland.questmanager.enemy.EnemyAttributes;
 import com.skyisland.questmanager.enemy.events.EnemyDeathEvent;
 import com.skyisland.questmanager.scheduling.Alarm;
 import com.skyisland.questmanager.scheduling.Alarmable;
@@ -54,6 +62,16 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 	
 	public static final int DEFAULT_ENEMY_COUNT = 10;
 	
+	/**
+	 * Default cap on how many enemies are spawned each spawn cycle, across all regions
+	 */
+	public static final int DEFAULT_SPAWN_BUDGET = 5;
+	
+	/**
+	 * How many chunks out from a player enemies may be spawned
+	 */
+	private static final int SPAWN_CHUNK_RADIUS = 4;
+	
 	/**
 	 * Holds the enemy list and the music to play for the region
 		 *
@@ -66,7 +84,10 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 		
 		private String displayName;
 		
-		private int currentEnemies;
+		/**
+		 * Entities spawned for this region that are still alive, by their UUID
+		 */
+		private Map<UUID, Entity> liveEnemies;
 		
 		private int maxEnemies;
 		
@@ -78,7 +99,7 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 			this.displayName = name;
 			this.music = music;
 			this.enemies = enemies;
-			currentEnemies = 0;
+			liveEnemies = new HashMap<>();
 			this.maxEnemies = maxEnemies;
 		}
 		
@@ -96,29 +117,49 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 		}
 		
 		/**
-		 * Attempts to add an enemy to their count of enemies. If the region is already at it's cap,
-		 * returns false. Otherwise the count is incremented and this returns true.
-		 * @return
+		 * Checks whether the region is below its cap of enemies. Entities that have gone away without
+		 * dying (removed by another plugin, for example) are dropped before counting.
 		 */
-		public boolean incrementEnemies() {
-			if (currentEnemies < maxEnemies) {
-				currentEnemies++;
+		public boolean hasRoom() {
+			if (liveEnemies.size() < maxEnemies) {
 				return true;
 			}
 			
-			return false;
+			Iterator<Entity> it = liveEnemies.values().iterator();
+			while (it.hasNext()) {
+				if (!it.next().isValid()) {
+					it.remove();
+				}
+			}
+			
+			return liveEnemies.size() < maxEnemies;
+		}
+		
+		public void track(Entity entity) {
+			liveEnemies.put(entity.getUniqueId(), entity);
 		}
 		
-		public void decrementEnemies() {
-			if (currentEnemies > 0)
-				currentEnemies--;
+		public void untrack(UUID id) {
+			liveEnemies.remove(id);
+		}
+		
+		public int getEnemyCount() {
+			return liveEnemies.size();
 		}
 	}
 	
 	private Map<Region, RegionRecord> regionMap;
 	
+	private RegionIndex regionIndex;
+	
+	private SpawnPointCache spawnPoints;
+	
 	private double spawnrate;
 	
+	private int spawnBudget;
+	
+	private Random rand;
+	
 	private Map<Sound, Double> musicDurations;
 	
 	private Map<UUID, Sound> currentSound;
@@ -139,11 +180,15 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 	 */
 	public RegionManager(Map<Sound, Double> soundDurations, double spawnrate) {
 		regionMap = new HashMap<>();
+		regionIndex = new RegionIndex();
+		spawnPoints = new SpawnPointCache(regionIndex);
 		musicDurations = soundDurations;
 		currentSound = new HashMap<>();
 		secondsLeft = new HashMap<>();
 		lastDisplay = new HashMap<>();
 		this.spawnrate = spawnrate;
+		this.spawnBudget = DEFAULT_SPAWN_BUDGET;
+		this.rand = new Random();
 		
 		Alarm.getScheduler().schedule(this, EnemyAlarms.SPAWN, spawnrate);
 		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
@@ -178,6 +223,7 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 		}
 		
 		regionMap.put(region, new RegionRecord(maxEnemies, null, new WeightedList<>()));
+		regionIndex.add(region);
 		
 		return true;
 	}
@@ -196,6 +242,7 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 		WeightedList<Enemy> list = (regionMap.get(key)).enemies;
 		list.add(enemy, weight);
 		enemy.setSpawningRegion(key);
+		spawnPoints.track(key);
 		
 		return true;
 	}
@@ -214,10 +261,24 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 		}
 		
 		for (RegionRecord r : regionMap.values()) {
+			for (Enemy enemy : r.getEnemies().getElements()) {
+				QuestManagerPlugin.questManagerPlugin.getEnemyRegistry().unregister(enemy);
+			}
 			r.getEnemies().clear();
 		}
 		
 		regionMap.clear();
+		regionIndex.clear();
+		spawnPoints.clear();
+	}
+
+	/**
+	 * Stops the spawn cycle and stops listening for events. The manager can't be used afterwards.
+	 */
+	public void close() {
+		Alarm.getScheduler().unregister(this);
+		HandlerList.unregisterAll(this);
+		spawnPoints.close();
 	}
 
 	public double getSpawnrate() {
@@ -227,6 +288,17 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 	public void setSpawnrate(double spawnrate) {
 		this.spawnrate = spawnrate;
 	}
+	
+	/**
+	 * @return the most enemies that will be spawned in one spawn cycle
+	 */
+	public int getSpawnBudget() {
+		return spawnBudget;
+	}
+	
+	public void setSpawnBudget(int spawnBudget) {
+		this.spawnBudget = spawnBudget;
+	}
 
 	@Override
 	public void alarm(EnemyAlarms reference) {
@@ -244,81 +316,149 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 	 * @return
 	 */
 	private void adjustTimers() {
-		double cache;
-		for (UUID id : secondsLeft.keySet()) {
-			cache = secondsLeft.get(id);
-			if (cache - spawnrate <= 0)
-				secondsLeft.remove(id);
+		Iterator<Map.Entry<UUID, Double>> it = secondsLeft.entrySet().iterator();
+		Map.Entry<UUID, Double> entry;
+		while (it.hasNext()) {
+			entry = it.next();
+			if (entry.getValue() - spawnrate <= 0)
+				it.remove();
 			else
-				secondsLeft.put(id, cache - spawnrate);
+				entry.setValue(entry.getValue() - spawnrate);
 		}
 	}
 	
 	/**
-	 * Goes through all players in a quest world and spawns enemies if they are in a region.
+	 * Goes through all players in a quest world and plays the music and title of the region
+	 * they're in, then spawns enemies in the regions around them.
+	 * <p>
+	 * Only loaded chunks within {@link #SPAWN_CHUNK_RADIUS} of a player are considered, and no more
+	 * than {@link #getSpawnBudget()} enemies are spawned per cycle.
+	 * </p>
 	 */
 	private void spawnEnemies() {
-		for (Region r : regionMap.keySet()) {
-			spawnInRegion(r);
-		
-			for (Player player : Bukkit.getOnlinePlayers()) {
-				if (QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getWorlds().contains(
-						player.getWorld().getName())) {
-					if (r.isIn(player)) {
-						Sound music = regionMap.get(r).getMusic();
-						if (music != null)
-						if (!currentSound.containsKey(player.getUniqueId()) || currentSound.get(player.getUniqueId()) != music
-							|| !secondsLeft.containsKey(player.getUniqueId())) {
-							//player.playEffect(player.getLocation(), Effect.RECORD_PLAY,
-							//		regionMap.get(r).getSound());
-							
-							//UPDATE //TODO
-							//player.stopSound();
-							
-							player.playSound(player.getLocation(), music, 1000f, 1f);
-							if (musicDurations.containsKey(music))
-								secondsLeft.put(player.getUniqueId(), musicDurations.get(music));
-							else
-								secondsLeft.put(player.getUniqueId(), DEFAULT_DURATION);
-							
-							currentSound.put(player.getUniqueId(), music);
-						}
-						
-						String title = regionMap.get(r).getDisplayName();
-						if (title != null)
-						if (!lastDisplay.containsKey(player.getUniqueId()) || !lastDisplay.get(player.getUniqueId()).equals(title)) {
-							new TitleObject("",
-									ChatColor.DARK_AQUA + title)
-									.setFadeIn(20).setFadeOut(20).setStay(60).send(player);
-							lastDisplay.put(player.getUniqueId(), title);
-						}
-						
-						break;
-					}
+		Map<Region, List<Long>> candidates = new HashMap<>();
+		Map<UUID, Set<Long>> visited = new HashMap<>();
+		
+		for (Player player : Bukkit.getOnlinePlayers()) {
+			if (!QuestManagerPlugin.questManagerPlugin.getPluginConfiguration().getWorlds().contains(
+					player.getWorld().getName())) {
+				continue;
+			}
+			
+			addSpawnChunks(player, candidates, visited);
+			
+			Region r = regionIndex.getRegion(player.getLocation());
+			if (r == null) {
+				continue;
+			}
+			
+			Sound music = regionMap.get(r).getMusic();
+			if (music != null)
+			if (!currentSound.containsKey(player.getUniqueId()) || currentSound.get(player.getUniqueId()) != music
+				|| !secondsLeft.containsKey(player.getUniqueId())) {
+				//player.playEffect(player.getLocation(), Effect.RECORD_PLAY,
+				//		regionMap.get(r).getSound());
+				
+				//UPDATE //TODO
+				//player.stopSound();
+				
+				player.playSound(player.getLocation(), music, 1000f, 1f);
+				if (musicDurations.containsKey(music))
+					secondsLeft.put(player.getUniqueId(), musicDurations.get(music));
+				else
+					secondsLeft.put(player.getUniqueId(), DEFAULT_DURATION);
+				
+				currentSound.put(player.getUniqueId(), music);
+			}
+			
+			String title = regionMap.get(r).getDisplayName();
+			if (title != null)
+			if (!lastDisplay.containsKey(player.getUniqueId()) || !lastDisplay.get(player.getUniqueId()).equals(title)) {
+				new TitleObject("",
+						ChatColor.DARK_AQUA + title)
+						.setFadeIn(20).setFadeOut(20).setStay(60).send(player);
+				lastDisplay.put(player.getUniqueId(), title);
+			}
+		}
+		
+		if (candidates.isEmpty()) {
+			return;
+		}
+		
+		List<Region> regions = new ArrayList<>(candidates.keySet());
+		Collections.shuffle(regions, rand);
+		int spawned = 0;
+		for (Region r : regions) {
+			if (spawned >= spawnBudget) {
+				break;
+			}
+			
+			if (spawnInRegion(r, candidates.get(r))) {
+				spawned++;
+			}
+		}
+	}
+	
+	/**
+	 * Finds the loaded chunks around the player with spawn points, and adds them to the candidate
+	 * chunks of each region they belong to. Chunks in <i>visited</i> (by world ID) have already been
+	 * added and are skipped.
+	 */
+	private void addSpawnChunks(Player player, Map<Region, List<Long>> candidates, Map<UUID, Set<Long>> visited) {
+		World world = player.getWorld();
+		Set<Long> seen = visited.get(world.getUID());
+		if (seen == null) {
+			seen = new HashSet<>();
+			visited.put(world.getUID(), seen);
+		}
+		
+		int centerX = player.getLocation().getBlockX() >> 4,
+			centerZ = player.getLocation().getBlockZ() >> 4;
+		
+		for (int x = centerX - SPAWN_CHUNK_RADIUS; x <= centerX + SPAWN_CHUNK_RADIUS; x++)
+		for (int z = centerZ - SPAWN_CHUNK_RADIUS; z <= centerZ + SPAWN_CHUNK_RADIUS; z++) {
+			long key = RegionIndex.chunkKey(x, z);
+			if (!seen.add(key) || !world.isChunkLoaded(x, z)) {
+				continue;
+			}
+			
+			for (Region region : regionIndex.getRegionsInChunk(world, x, z)) {
+				if (!spawnPoints.hasPoints(region, x, z)) {
+					continue;
 				}
+				
+				List<Long> chunks = candidates.get(region);
+				if (chunks == null) {
+					chunks = new ArrayList<>();
+					candidates.put(region, chunks);
+				}
+				chunks.add(key);
 			}
 		}
 	}
 	
 	/**
-	 * Spawns an enemy in the provided region from that region's list of enemies
+	 * Spawns an enemy from the region's list of enemies, in one of the given chunks
+	 * @return true if an enemy was spawned
 	 */
-	private void spawnInRegion(Region region) {
-		if (regionMap.get(region).enemies == null || regionMap.get(region).enemies.isEmpty()) 
-			return;
-		Location loc = region.randomLocation(true);
-		if (!loc.getWorld().isChunkLoaded(loc.getBlockX() / 16, loc.getBlockZ() / 16))
-			return;
-		if (!regionMap.get(region).incrementEnemies())
-			return;
+	private boolean spawnInRegion(Region region, List<Long> chunks) {
+		RegionRecord record = regionMap.get(region);
+		if (record == null || record.enemies == null || record.enemies.isEmpty()) 
+			return false;
+		if (!record.hasRoom())
+			return false;
 		
-		Enemy e;
-		WeightedList<Enemy> l = (regionMap.get(region)).enemies;
+		long chunk = chunks.get(rand.nextInt(chunks.size()));
+		Location loc = spawnPoints.randomPoint(region, (int) (chunk >> 32), (int) chunk, rand);
+		if (loc == null)
+			return false;
 		
-		e = l.getRandom();
+		Enemy e = record.enemies.getRandom();
+		if (e == null)
+			return false;
 		
-		//loc.getChunk()
-		e.spawn(loc);
+		record.track(e.spawn(loc));
+		return true;
 	}
 	
 	/**
@@ -419,13 +559,33 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 			return null;
 		}
 		
-		for (Region region : regionMap.keySet()) {
-			if (region.isIn(location)) {
-				return region;
-			}
+		return regionIndex.getRegion(location);
+	}
+	
+	/**
+	 * Returns every registered region the given location falls in
+	 */
+	public List<Region> getRegions(Location location) {
+		if (location == null) {
+			return new LinkedList<>();
 		}
 		
-		return null;
+		return regionIndex.getRegions(location);
+	}
+	
+	/**
+	 * Returns how many enemies spawned for the region are currently alive
+	 */
+	public int getEnemyCount(Region region) {
+		RegionRecord rec = regionMap.get(region);
+		return (rec == null ? 0 : rec.getEnemyCount());
+	}
+	
+	/**
+	 * Returns the registered regions whose bounds touch the given chunk
+	 */
+	public List<Region> getRegionsInChunk(Chunk chunk) {
+		return regionIndex.getRegionsInChunk(chunk);
 	}
 	
 	@EventHandler
@@ -436,17 +596,22 @@ public final class RegionManager implements Alarmable<EnemyAlarms>, Listener {
 		if (rec == null)
 			return;
 		
-		rec.decrementEnemies();
+		rec.untrack(e.getEvent().getEntity().getUniqueId());
 	}
 	
+	/**
+	 * Stops counting the entity against the region that spawned it, if any.
+	 * Used when enemies are removed from the world without dying.
+	 */
 	public void removeEntity(Entity e) {
-		if (!(e instanceof LivingEntity)) {
+		EnemyAttributes attributes = EnemyAttributes.get(e);
+		if (attributes == null || attributes.getSpawningRegion() == null) {
 			return;
 		}
-		EntityDeathEvent event = new EntityDeathEvent((LivingEntity) e, new ArrayList<>(), 0);
 		
-		for (RegionRecord rec : regionMap.values())
-		for (Enemy enemy : rec.enemies.getElements())
-			enemy.onEnemyDeath(event);
+		RegionRecord rec = regionMap.get(attributes.getSpawningRegion());
+		if (rec != null) {
+			rec.untrack(e.getUniqueId());
+		}
 	}
 }
@@ -0,0 +1,397 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.region;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.util.Vector;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.scheduling.BudgetedScheduler;
+import com.skyisland.questmanager.scheduling.Tickable;
+
+/**
+ * Keeps the places enemies can safely spawn in each tracked {@link Region}, per loaded chunk.
+ * <p>
+ * A spawn point is a solid block inside the region with two non-solid blocks above it. Chunks are
+ * scanned when they load, when a tracked region is added, and again when a block in them is placed
+ * or broken. A change to a chunk that's already being scanned doesn't restart the scan; the chunk
+ * is scanned once more after it finishes. Scans are queued and worked through a column at a time, with at most
+ * {@link #SCAN_BUDGET} nanoseconds spent each tick. Points in a chunk are dropped when it unloads,
+ * so only loaded chunks ever have points to pick from.
+ * </p>
+ */
+public class SpawnPointCache implements Listener, Tickable {
+	
+	/**
+	 * How long to spend scanning chunks each tick, in nanoseconds
+	 */
+	private static final long SCAN_BUDGET = 1000000;
+	
+	private static final int MAX_HEIGHT = 255;
+	
+	/**
+	 * Scan of one chunk for one region. Scans are done a column at a time, and may be spread
+	 * over several ticks
+	 */
+	private static final class ScanJob {
+		
+		private final Region region;
+		
+		private final World world;
+		
+		private final int chunkX, chunkZ;
+		
+		/**
+		 * Next column to scan, as (x << 4) | z in chunk coordinates
+		 */
+		private int column;
+		
+		private int[] found;
+		
+		private int count;
+		
+		/**
+		 * Whether the chunk changed after the scan started, and needs another pass
+		 */
+		private boolean dirty;
+		
+		private ScanJob(Region region, World world, int chunkX, int chunkZ) {
+			this.region = region;
+			this.world = world;
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			reset();
+		}
+		
+		private void reset() {
+			column = 0;
+			found = new int[16];
+			count = 0;
+			dirty = false;
+		}
+		
+		private void add(int point) {
+			if (count == found.length) {
+				found = Arrays.copyOf(found, count * 2);
+			}
+			found[count++] = point;
+		}
+	}
+	
+	private RegionIndex index;
+	
+	/**
+	 * Region -> chunk key -> spawn points, packed with {@link #pack(int, int, int)}
+	 */
+	private Map<Region, Map<Long, int[]>> points;
+	
+	/**
+	 * Region -> chunk key -> scan that's waiting or underway
+	 */
+	private Map<Region, Map<Long, ScanJob>> pending;
+	
+	private ArrayDeque<ScanJob> queue;
+	
+	public SpawnPointCache(RegionIndex index) {
+		this.index = index;
+		this.points = new HashMap<>();
+		this.pending = new HashMap<>();
+		this.queue = new ArrayDeque<>();
+		
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
+		BudgetedScheduler.getScheduler().register(this, 1);
+	}
+	
+	private static int pack(int x, int y, int z) {
+		return (y << 8) | (x << 4) | z;
+	}
+	
+	private static int toBlock(double coord) {
+		return (int) Math.floor(coord);
+	}
+	
+	/**
+	 * Starts keeping spawn points for the region, queueing scans of its loaded chunks.
+	 * Tracking a region twice does nothing.
+	 */
+	public void track(Region region) {
+		if (points.containsKey(region)) {
+			return;
+		}
+		
+		points.put(region, new HashMap<>());
+		pending.put(region, new HashMap<>());
+		
+		World world = region.getWorld();
+		if (world == null) {
+			return;
+		}
+		
+		Vector min = region.getMinimum(), max = region.getMaximum();
+		int maxX = toBlock(max.getX()) >> 4, maxZ = toBlock(max.getZ()) >> 4;
+		for (int x = toBlock(min.getX()) >> 4; x <= maxX; x++)
+		for (int z = toBlock(min.getZ()) >> 4; z <= maxZ; z++) {
+			if (world.isChunkLoaded(x, z)) {
+				queueScan(region, world, x, z);
+			}
+		}
+	}
+	
+	public void untrack(Region region) {
+		points.remove(region);
+		Map<Long, ScanJob> jobs = pending.remove(region);
+		if (jobs != null && !jobs.isEmpty()) {
+			queue.removeAll(jobs.values());
+		}
+	}
+	
+	public void clear() {
+		points.clear();
+		pending.clear();
+		queue.clear();
+	}
+	
+	/**
+	 * Stops listening for chunk and block changes and stops scanning
+	 */
+	public void close() {
+		HandlerList.unregisterAll(this);
+		BudgetedScheduler.getScheduler().unregister(this);
+		clear();
+	}
+	
+	/**
+	 * Checks whether any spawn points are known for the region in the given chunk
+	 */
+	public boolean hasPoints(Region region, int chunkX, int chunkZ) {
+		Map<Long, int[]> chunks = points.get(region);
+		return (chunks != null && chunks.containsKey(RegionIndex.chunkKey(chunkX, chunkZ)));
+	}
+	
+	/**
+	 * Picks one of the region's spawn points in the given chunk and makes sure it's still clear.
+	 * If it isn't, the chunk is queued to be scanned again.
+	 * @return the location to spawn at, or null if there's no usable point
+	 */
+	public Location randomPoint(Region region, int chunkX, int chunkZ, Random rand) {
+		Map<Long, int[]> chunks = points.get(region);
+		if (chunks == null) {
+			return null;
+		}
+		
+		int[] candidates = chunks.get(RegionIndex.chunkKey(chunkX, chunkZ));
+		World world = region.getWorld();
+		if (candidates == null || world == null || !world.isChunkLoaded(chunkX, chunkZ)) {
+			return null;
+		}
+		
+		int point = candidates[rand.nextInt(candidates.length)];
+		int x = (chunkX << 4) | ((point >> 4) & 15),
+			y = point >> 8,
+			z = (chunkZ << 4) | (point & 15);
+		
+		if (!world.getBlockAt(x, y, z).getType().isSolid()
+				|| world.getBlockAt(x, y + 1, z).getType().isSolid()
+				|| world.getBlockAt(x, y + 2, z).getType().isSolid()) {
+			queueScan(region, world, chunkX, chunkZ);
+			return null;
+		}
+		
+		return new Location(world, x + .5, y + 1, z + .5);
+	}
+	
+	/**
+	 * @return how many chunk scans are waiting to be done
+	 */
+	public int getBacklog() {
+		return queue.size();
+	}
+	
+	private void queueScan(Region region, World world, int chunkX, int chunkZ) {
+		Map<Long, ScanJob> jobs = pending.get(region);
+		if (jobs == null) {
+			return;
+		}
+		
+		long key = RegionIndex.chunkKey(chunkX, chunkZ);
+		ScanJob job = jobs.get(key);
+		if (job != null) {
+			//let this pass finish and go over the chunk once more after, in case the change was
+			//in a column already scanned. Starting over could keep a busy chunk from ever finishing
+			if (job.column > 0) {
+				job.dirty = true;
+			}
+			return;
+		}
+		
+		job = new ScanJob(region, world, chunkX, chunkZ);
+		jobs.put(key, job);
+		queue.add(job);
+	}
+	
+	private void queueScans(World world, int chunkX, int chunkZ) {
+		for (Region region : index.getRegionsInChunk(world, chunkX, chunkZ)) {
+			if (world.equals(region.getWorld())) {
+				queueScan(region, world, chunkX, chunkZ);
+			}
+		}
+	}
+	
+	@Override
+	public boolean tick() {
+		if (queue.isEmpty()) {
+			return false;
+		}
+		
+		long deadline = System.nanoTime() + SCAN_BUDGET;
+		ScanJob job;
+		while (!queue.isEmpty() && System.nanoTime() < deadline) {
+			job = queue.peek();
+			if (!job.world.isChunkLoaded(job.chunkX, job.chunkZ)) {
+				queue.poll();
+				pending.get(job.region).remove(RegionIndex.chunkKey(job.chunkX, job.chunkZ));
+				continue;
+			}
+			
+			if (scan(job, deadline)) {
+				queue.poll();
+				finish(job);
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Scans columns of the job's chunk until it's done or the deadline passes
+	 * @return true if the whole chunk has been scanned
+	 */
+	private boolean scan(ScanJob job, long deadline) {
+		Chunk chunk = job.world.getChunkAt(job.chunkX, job.chunkZ);
+		Vector min = job.region.getMinimum(), max = job.region.getMaximum();
+		int baseX = job.chunkX << 4, baseZ = job.chunkZ << 4;
+		int minX = toBlock(min.getX()) - baseX, maxX = toBlock(max.getX()) - baseX,
+			minZ = toBlock(min.getZ()) - baseZ, maxZ = toBlock(max.getZ()) - baseZ;
+		int minY = Math.max(0, toBlock(min.getY())),
+			maxY = Math.min(MAX_HEIGHT - 1, toBlock(max.getY()));
+		Location probe = new Location(job.world, 0, 0, 0);
+		
+		int x, z;
+		boolean solid, above, twoAbove;
+		while (job.column < 256) {
+			x = job.column >> 4;
+			z = job.column & 15;
+			job.column++;
+			
+			if (x < minX || x > maxX || z < minZ || z > maxZ) {
+				continue;
+			}
+			
+			above = false;
+			twoAbove = false;
+			for (int y = Math.min(MAX_HEIGHT, maxY + 2); y >= minY; y--) {
+				solid = chunk.getBlock(x, y, z).getType().isSolid();
+				if (solid && !above && !twoAbove && y <= maxY) {
+					probe.setX(baseX + x + .5);
+					probe.setY(y + .5);
+					probe.setZ(baseZ + z + .5);
+					if (job.region.isIn(probe)) {
+						job.add(pack(x, y, z));
+					}
+				}
+				
+				twoAbove = above;
+				above = solid;
+			}
+			
+			if (System.nanoTime() >= deadline) {
+				return job.column >= 256;
+			}
+		}
+		
+		return true;
+	}
+	
+	private void finish(ScanJob job) {
+		long key = RegionIndex.chunkKey(job.chunkX, job.chunkZ);
+		
+		//points from a dirty pass may be a little out of date, but they're checked before they're used
+		Map<Long, int[]> chunks = points.get(job.region);
+		if (job.count == 0) {
+			chunks.remove(key);
+		} else {
+			chunks.put(key, Arrays.copyOf(job.found, job.count));
+		}
+		
+		if (job.dirty) {
+			job.reset();
+			queue.add(job);
+		} else {
+			pending.get(job.region).remove(key);
+		}
+	}
+	
+	@EventHandler(priority=EventPriority.MONITOR)
+	public void onChunkLoad(ChunkLoadEvent e) {
+		queueScans(e.getWorld(), e.getChunk().getX(), e.getChunk().getZ());
+	}
+	
+	@EventHandler(priority=EventPriority.MONITOR, ignoreCancelled=true)
+	public void onChunkUnload(ChunkUnloadEvent e) {
+		long key = RegionIndex.chunkKey(e.getChunk().getX(), e.getChunk().getZ());
+		for (Region region : index.getRegionsInChunk(e.getChunk())) {
+			Map<Long, int[]> chunks = points.get(region);
+			if (chunks != null) {
+				chunks.remove(key);
+			}
+		}
+	}
+	
+	@EventHandler(priority=EventPriority.MONITOR, ignoreCancelled=true)
+	public void onBlockPlace(BlockPlaceEvent e) {
+		blockChanged(e.getBlock());
+	}
+	
+	@EventHandler(priority=EventPriority.MONITOR, ignoreCancelled=true)
+	public void onBlockBreak(BlockBreakEvent e) {
+		blockChanged(e.getBlock());
+	}
+	
+	private void blockChanged(Block block) {
+		queueScans(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+	}
+}
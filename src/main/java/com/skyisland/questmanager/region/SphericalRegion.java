@@ -151,6 +151,21 @@ public class SphericalRegion implements Region {
 		return loc;
 	}
 	
+	@Override
+	public World getWorld() {
+		return world;
+	}
+	
+	@Override
+	public Vector getMinimum() {
+		return center.clone().subtract(new Vector(radius, radius, radius));
+	}
+	
+	@Override
+	public Vector getMaximum() {
+		return center.clone().add(new Vector(radius, radius, radius));
+	}
+	
 	public static SphericalRegion valueOf(Map<String, Object> map) {
 		World world = Bukkit.getWorld((String) map.get("world"));
 		
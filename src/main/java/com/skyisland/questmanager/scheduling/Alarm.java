@@ -21,43 +21,99 @@ package com.skyisland.questmanager.scheduling;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
 
-public class Alarm {
+/**
+ * Reminds {@link Alarmable Alarmables} after a delay.
+ * <p>
+ * All reminders are driven by a single repeating task that runs every server tick, and kept in a
+ * hierarchical timer wheel. The first level has a slot for each of the next 256 ticks. Each
+ * level after that has 64 slots, each covering a whole turn of the level below. When a level
+ * turns over, the reminders in the next slot of the level above are spread out into it.
+ * Scheduling and cancelling a reminder only links or unlinks it from a slot, and reminder
+ * entries are pooled and reused.
+ * </p>
+ * <p>
+ * An Alarmable can have any number of reminders pending at once. Each is delivered in turn.
+ * </p>
+ */
+public class Alarm implements Runnable {
 	
 	private static final int TICKS_PER_SECOND = 20;
 	
-	private static Alarm scheduler;
+	/**
+	 * Number of bits of the tick each wheel level covers. The first level is finer than the rest,
+	 * as most reminders are short
+	 */
+	private static final int[] LEVEL_BITS = {8, 6, 6, 6};
+	
+	/**
+	 * The longest delay that can be scheduled, in ticks. Anything longer is clamped
+	 */
+	private static final long MAX_DELAY;
 	
-	private Map<Alarmable<?>, Reminder<?>> map;
+	static {
+		int bits = 0;
+		for (int b : LEVEL_BITS) {
+			bits += b;
+		}
+		MAX_DELAY = (1L << bits) - 1;
+	}
+	
+	/**
+	 * How many unused entries to keep around for reuse
+	 */
+	private static final int POOL_LIMIT = 512;
+	
+	private static Alarm scheduler;
 	
-	private class Reminder<E> extends BukkitRunnable {
+	/**
+	 * A pending reminder. Entries are linked into the wheel slot they're waiting in,
+	 * and into the list of reminders their owner has pending
+	 */
+	private static final class Entry {
 		
-		private E key;
+		private Alarmable<Object> owner;
 		
-		private Alarmable<E> owner;
+		private Object key;
 		
-		private Reminder(Alarmable<E> owner, E key) {
-			this.owner = owner;
-			this.key = key;
-		}
-
-		@Override
-		public void run() {
-			scheduler.notify(this);
-		}
+		/**
+		 * Absolute tick this reminder is due on
+		 */
+		private long deadline;
 		
-		private E getKey() {
-			return key;
-		}
+		private Entry prev, next;
 		
-		private Alarmable<E> getOwner() {
-			return owner;
-		}
+		private Entry ownerPrev, ownerNext;
+		
+		/**
+		 * The slot list this entry is in, or null if it's not scheduled
+		 */
+		private Entry[] level;
+		
+		private int slot;
 	}
 	
+	/**
+	 * Slot heads, per level
+	 */
+	private Entry[][] wheel;
+	
+	/**
+	 * Head of each Alarmable's list of pending reminders
+	 */
+	private Map<Alarmable<?>, Entry> owners;
+	
+	private Entry pool;
+	
+	private int poolSize;
+	
+	private long currentTick;
+	
+	private BukkitTask task;
 	
 	/**
 	 * Returns the scheduler that can be used to registered {@link Tickable} objects
@@ -71,15 +127,13 @@ public class Alarm {
 	}
 	
 	private Alarm() {
-		map = new HashMap<>();
-	}
-	
-	/**
-	 * Internal reminder mechanism that allows the scheduler to know 
-	 */
-	private <E> void notify(Reminder<E> reminder) {
-		map.remove(reminder.getOwner());
-		reminder.getOwner().alarm(reminder.getKey());
+		owners = new HashMap<>();
+		wheel = new Entry[LEVEL_BITS.length][];
+		for (int i = 0; i < LEVEL_BITS.length; i++) {
+			wheel[i] = new Entry[1 << LEVEL_BITS[i]];
+		}
+		currentTick = 0;
+		task = null;
 	}
 	
 	/**
@@ -90,38 +144,254 @@ public class Alarm {
 	 * @param reference An object that can be identified and acted upon when the instance if 'ticked'
 	 * @param seconds How many seconds to remind the instance after. <b>Please Note:</b> values that
 	 * are not divisible by .05 will be rounded to the nearest .05 (a server tick).
-	 * @return True if there was already a scheduled event for this tickable instance that was overwritten, false otherwise
+	 * @return True if there were already reminders pending for this instance, false otherwise.
+	 * Those reminders are kept, and will still be delivered.
 	 */
+	@SuppressWarnings("unchecked")
 	public <E> boolean schedule(Alarmable<E> alarmable, E reference, double seconds) {
 		if (alarmable == null || seconds < .0001) {
 			return false;
 		}
-
-		boolean exists = map.containsKey(alarmable);
-		
-		Reminder<E> reminder = new Reminder<>(alarmable, reference);
 		
-		map.put(alarmable, reminder);
+		if (task == null) {
+			task = Bukkit.getScheduler().runTaskTimer(QuestManagerPlugin.questManagerPlugin, this, 1, 1);
+		}
 		
 		long ticks = Math.round(seconds * Alarm.TICKS_PER_SECOND);
+		ticks = Math.min(MAX_DELAY, Math.max(1, ticks));
 		
-		reminder.runTaskLater(QuestManagerPlugin.questManagerPlugin, ticks);
+		Entry entry = obtain();
+		entry.owner = (Alarmable<Object>) alarmable;
+		entry.key = reference;
+		entry.deadline = currentTick + ticks;
 		
-		return exists;
+		Entry head = owners.get(alarmable);
+		entry.ownerNext = head;
+		if (head != null) {
+			head.ownerPrev = entry;
+		}
+		owners.put(alarmable, entry);
 		
+		place(entry);
 		
+		return head != null;
 	}
 	
 	/**
-	 * Attempts to unregister the tickable instance.
+	 * Attempts to unregister the tickable instance, cancelling every reminder it has pending.
 	 * @return Whether or not this was successful, including whther there was something waiting
 	 */
 	public boolean unregister(Alarmable<?> tickable) {
-		if (map.containsKey(tickable)) {
-			map.get(tickable).cancel();
-			return map.remove(tickable) != null;
+		Entry entry = owners.remove(tickable);
+		if (entry == null) {
+			return false;
+		}
+		
+		while (entry != null) {
+			Entry next = entry.ownerNext;
+			unlink(entry);
+			release(entry);
+			entry = next;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Stops the timer and drops every pending reminder. The timer is started again the next time
+	 * something is {@link #schedule(Alarmable, Object, double) scheduled}.
+	 */
+	public void shutdown() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		
+		for (Entry[] slots : wheel) {
+			for (int i = 0; i < slots.length; i++) {
+				Entry entry = slots[i];
+				while (entry != null) {
+					Entry next = entry.next;
+					release(entry);
+					entry = next;
+				}
+				slots[i] = null;
+			}
+		}
+		owners.clear();
+	}
+	
+	/**
+	 * Returns whether the given instance has any reminders pending
+	 */
+	public boolean isScheduled(Alarmable<?> tickable) {
+		return owners.containsKey(tickable);
+	}
+	
+	/**
+	 * Advances the wheel a tick, delivering the reminders that have come due
+	 */
+	@Override
+	public void run() {
+		currentTick++;
+		
+		//spread out higher levels as the levels below them turn over, top-most first so
+		//reminders can fall more than one level at once
+		int shift = LEVEL_BITS[0];
+		int turned = 0;
+		for (int level = 1; level < LEVEL_BITS.length; level++) {
+			if ((currentTick & ((1L << shift) - 1)) != 0) {
+				break;
+			}
+			turned = level;
+			shift += LEVEL_BITS[level];
+		}
+		
+		for (int level = turned; level > 0; level--) {
+			cascade(level);
+		}
+		
+		Entry[] slots = wheel[0];
+		int slot = (int) (currentTick & (slots.length - 1));
+		
+		//nothing can be scheduled into this slot while it's being emptied, as delays are at
+		//least a tick. Alarms can unregister entries further down, so pop one at a time
+		Entry entry;
+		while ((entry = slots[slot]) != null) {
+			unlink(entry);
+			removeFromOwner(entry);
+			
+			Alarmable<Object> owner = entry.owner;
+			Object key = entry.key;
+			release(entry);
+			
+			try {
+				owner.alarm(key);
+			} catch (Exception e) {
+				//keep going, so one bad alarm doesn't hold up the rest of the slot
+				e.printStackTrace();
+				QuestManagerPlugin.logger.warning("Exception while delivering alarm to " + owner);
+			}
+		}
+	}
+	
+	private void cascade(int level) {
+		Entry[] slots = wheel[level];
+		int slot = (int) ((currentTick >> shiftOf(level)) & (slots.length - 1));
+		
+		Entry entry = slots[slot];
+		slots[slot] = null;
+		while (entry != null) {
+			Entry next = entry.next;
+			entry.prev = entry.next = null;
+			entry.level = null;
+			place(entry);
+			entry = next;
+		}
+	}
+	
+	private static int shiftOf(int level) {
+		int shift = 0;
+		for (int i = 0; i < level; i++) {
+			shift += LEVEL_BITS[i];
+		}
+		return shift;
+	}
+	
+	/**
+	 * Links the entry into the slot it belongs in, given how far off it is
+	 */
+	private void place(Entry entry) {
+		long delay = Math.max(0, entry.deadline - currentTick);
+		int level = 0;
+		int shift = 0;
+		while (level < LEVEL_BITS.length - 1 && delay >= (1L << (shift + LEVEL_BITS[level]))) {
+			shift += LEVEL_BITS[level];
+			level++;
+		}
+		
+		Entry[] slots = wheel[level];
+		int slot = (int) ((entry.deadline >> shift) & (slots.length - 1));
+		
+		entry.level = slots;
+		entry.slot = slot;
+		entry.prev = null;
+		entry.next = slots[slot];
+		if (entry.next != null) {
+			entry.next.prev = entry;
+		}
+		slots[slot] = entry;
+	}
+	
+	/**
+	 * Unlinks the entry from its wheel slot
+	 */
+	private void unlink(Entry entry) {
+		if (entry.level == null) {
+			return;
+		}
+		
+		if (entry.prev == null) {
+			entry.level[entry.slot] = entry.next;
+		} else {
+			entry.prev.next = entry.next;
+		}
+		
+		if (entry.next != null) {
+			entry.next.prev = entry.prev;
+		}
+		
+		entry.prev = entry.next = null;
+		entry.level = null;
+	}
+	
+	/**
+	 * Unlinks the entry from its owner's pending reminders
+	 */
+	private void removeFromOwner(Entry entry) {
+		if (entry.ownerPrev == null) {
+			if (entry.ownerNext == null) {
+				owners.remove(entry.owner);
+			} else {
+				entry.ownerNext.ownerPrev = null;
+				owners.put(entry.owner, entry.ownerNext);
+			}
+		} else {
+			entry.ownerPrev.ownerNext = entry.ownerNext;
+			if (entry.ownerNext != null) {
+				entry.ownerNext.ownerPrev = entry.ownerPrev;
+			}
+		}
+		
+		entry.ownerPrev = entry.ownerNext = null;
+	}
+	
+	private Entry obtain() {
+		if (pool == null) {
+			return new Entry();
+		}
+		
+		Entry entry = pool;
+		pool = entry.next;
+		entry.next = null;
+		poolSize--;
+		return entry;
+	}
+	
+	private void release(Entry entry) {
+		entry.owner = null;
+		entry.key = null;
+		entry.ownerPrev = entry.ownerNext = null;
+		entry.prev = null;
+		entry.level = null;
+		
+		if (poolSize >= POOL_LIMIT) {
+			entry.next = null;
+			return;
 		}
 		
-		return false;
+		entry.next = pool;
+		pool = entry;
+		poolSize++;
 	}
 }
@@ -0,0 +1,317 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+
+/**
+ * Ticks registered {@link Tickable Tickables} at their own periods, spread out over game ticks
+ * and held to a time budget per game tick.
+ * <p>
+ * Tickables are placed in a ring of buckets, one per game tick, according to when they're next
+ * due. Tickables registered with the same period are handed staggered first ticks so they don't
+ * all fall on the same game tick. Every game tick, the due bucket is moved onto a ready queue,
+ * and tickables are ticked off the front of the queue until the budget runs out. Anything left
+ * over stays queued for the next game tick, and is counted as backlog.
+ * </p>
+ * <p>
+ * Tickables that return true from {@link Tickable#tick()} are simply not requeued, and
+ * {@link #unregister(Tickable) unregistering} only flags the entry, so both are constant time.
+ * </p>
+ */
+public class BudgetedScheduler extends Scheduler {
+	
+	/**
+	 * A registered tickable
+	 */
+	private static final class Entry {
+		
+		private final Tickable tickable;
+		
+		private long period;
+		
+		/**
+		 * Game tick this entry should next be ticked on
+		 */
+		private long due;
+		
+		private boolean cancelled;
+		
+		private Entry(Tickable tickable, long period) {
+			this.tickable = tickable;
+			this.period = period;
+		}
+	}
+	
+	/**
+	 * How many game ticks the bucket ring covers. Entries due further out go around the ring
+	 * more than once
+	 */
+	private static final int RING_SIZE = 1024;
+	
+	/**
+	 * Period, in game ticks, for tickables registered without one
+	 */
+	public static final long DEFAULT_PERIOD = 100;
+	
+	/**
+	 * How long the scheduler may spend ticking each game tick by default, in nanoseconds
+	 */
+	private static final long DEFAULT_BUDGET = 2000000;
+	
+	private static BudgetedScheduler scheduler = null;
+	
+	private Map<Tickable, Entry> entries;
+	
+	private ArrayDeque<Entry>[] ring;
+	
+	/**
+	 * Entries that are due, in the order they came due
+	 */
+	private ArrayDeque<Entry> ready;
+	
+	/**
+	 * Running counter used to stagger the first ticks of newly registered entries
+	 */
+	private long spread;
+	
+	private long currentTick;
+	
+	private long budget;
+	
+	private BukkitTask task;
+	
+	private long tickCount, overrunCount, maxBacklog, maxLag, maxNanos;
+	
+	/**
+	 * Return the current instanced BudgetedScheduler.
+	 * If a scheduler has yet to be created, it will be created with default values
+	 * from this call.
+	 */
+	public static BudgetedScheduler getScheduler() {
+		if (scheduler == null) {
+			scheduler = new BudgetedScheduler();
+		}
+		
+		return scheduler;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private BudgetedScheduler() {
+		this.entries = new IdentityHashMap<>();
+		this.ring = new ArrayDeque[RING_SIZE];
+		for (int i = 0; i < RING_SIZE; i++) {
+			ring[i] = new ArrayDeque<>();
+		}
+		this.ready = new ArrayDeque<>();
+		this.budget = DEFAULT_BUDGET;
+		this.currentTick = 0;
+		this.spread = 0;
+		this.task = null;
+	}
+	
+	/**
+	 * @return how long the scheduler may spend ticking each game tick, in nanoseconds
+	 */
+	public long getBudget() {
+		return budget;
+	}
+	
+	/**
+	 * @param budget how long the scheduler may spend ticking each game tick, in nanoseconds.
+	 * At least one tickable is always ticked per game tick regardless.
+	 */
+	public void setBudget(long budget) {
+		this.budget = budget;
+	}
+	
+	/**
+	 * Registers the tickable to be ticked every {@link #DEFAULT_PERIOD} game ticks
+	 */
+	@Override
+	public void register(Tickable tick) {
+		register(tick, DEFAULT_PERIOD);
+	}
+	
+	/**
+	 * Registers the tickable to be ticked every <i>period</i> game ticks.
+	 * Registering a tickable that's already registered just changes its period.
+	 */
+	public void register(Tickable tick, long period) {
+		if (tick == null) {
+			return;
+		}
+		
+		if (task == null) {
+			task = Bukkit.getScheduler().runTaskTimer(QuestManagerPlugin.questManagerPlugin
+					, this, 1, 1);
+		}
+		
+		period = Math.max(1, period);
+		Entry entry = entries.get(tick);
+		if (entry != null) {
+			entry.period = period;
+			return;
+		}
+		
+		entry = new Entry(tick, period);
+		entry.due = currentTick + 1 + (spread++ % period);
+		entries.put(tick, entry);
+		ring[(int) (entry.due % RING_SIZE)].add(entry);
+	}
+	
+	@Override
+	public void unregister(Tickable tick) {
+		Entry entry = entries.remove(tick);
+		if (entry != null) {
+			entry.cancelled = true;
+		}
+	}
+	
+	public boolean isRegistered(Tickable tick) {
+		return entries.containsKey(tick);
+	}
+	
+	/**
+	 * Stops the timer and unregisters every tickable. The timer is started again the next time
+	 * something is {@link #register(Tickable, long) registered}.
+	 */
+	public void shutdown() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		
+		for (Entry entry : entries.values()) {
+			entry.cancelled = true;
+		}
+		entries.clear();
+		for (ArrayDeque<Entry> bucket : ring) {
+			bucket.clear();
+		}
+		ready.clear();
+	}
+	
+	@Override
+	public void run() {
+		currentTick++;
+		
+		ArrayDeque<Entry> bucket = ring[(int) (currentTick % RING_SIZE)];
+		int size = bucket.size();
+		for (int i = 0; i < size; i++) {
+			Entry entry = bucket.poll();
+			if (entry.cancelled) {
+				continue;
+			}
+			
+			if (entry.due > currentTick) {
+				//not this time around the ring
+				bucket.add(entry);
+			} else {
+				ready.add(entry);
+			}
+		}
+		
+		long start = System.nanoTime();
+		long elapsed = 0;
+		Entry entry;
+		while (elapsed < budget || elapsed == 0) {
+			entry = ready.poll();
+			if (entry == null) {
+				break;
+			}
+			
+			if (entry.cancelled) {
+				continue;
+			}
+			
+			maxLag = Math.max(maxLag, currentTick - entry.due);
+			
+			boolean done;
+			try {
+				done = entry.tickable.tick();
+			} catch (Exception e) {
+				e.printStackTrace();
+				QuestManagerPlugin.logger.warning("Exception while ticking " + entry.tickable);
+				done = false;
+			}
+			tickCount++;
+			
+			if (done) {
+				entry.cancelled = true;
+				if (entries.get(entry.tickable) == entry) {
+					entries.remove(entry.tickable);
+				}
+			} else if (!entry.cancelled) {
+				entry.due = currentTick + entry.period;
+				ring[(int) (entry.due % RING_SIZE)].add(entry);
+			}
+			
+			elapsed = System.nanoTime() - start;
+		}
+		
+		maxNanos = Math.max(maxNanos, elapsed);
+		if (!ready.isEmpty()) {
+			overrunCount++;
+			maxBacklog = Math.max(maxBacklog, ready.size());
+		}
+	}
+	
+	/**
+	 * @return how many tickables are registered
+	 */
+	public int getRegisteredCount() {
+		return entries.size();
+	}
+	
+	/**
+	 * @return how many due tickables are waiting on the budget
+	 */
+	public int getBacklog() {
+		return ready.size();
+	}
+	
+	/**
+	 * @return how many game ticks ran out of budget with tickables still due
+	 */
+	public long getOverrunCount() {
+		return overrunCount;
+	}
+	
+	/**
+	 * Returns a human-readable summary of the scheduler's load so far
+	 */
+	public String getStatistics() {
+		return String.format("Registered: %d | Ticks: %d | Backlog: %d (max %d) | Overruns: %d | Max lag: %d ticks | Max time: %.2fms",
+				entries.size(),
+				tickCount,
+				ready.size(),
+				maxBacklog,
+				overrunCount,
+				maxLag,
+				maxNanos / 1000000.0);
+	}
+}
@@ -23,14 +23,23 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 
 import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.ui.menu.InventoryMenu;
+import com.skyisland.questmanager.ui.menu.inventory.MenuHolder;
 
 /**
- * Gui handler for inventory menus
+ * Gui handler for inventory menus.
+ * This is the only listener for menu inventory events. Events are passed to the menu found through
+ * the inventory's {@link MenuHolder}, so a click costs the same no matter how many menus are open.
  *
  */
 public class InventoryGuiHandler implements Listener {
@@ -41,14 +50,14 @@ public class InventoryGuiHandler implements Listener {
 	
 	public InventoryGuiHandler() {
 		this.menus = new HashMap<>();
+		
+		Bukkit.getPluginManager().registerEvents(this, QuestManagerPlugin.questManagerPlugin);
 	}
 	
 	/**
 	 * Shows an inventory menu to the player, registering it with the handler.
 	 */
 	public void showMenu(Player player, InventoryMenu menu) {
-
-		QuestManagerPlugin plugin = QuestManagerPlugin.questManagerPlugin;
 		
 		if (menus.containsKey(player.getUniqueId())) {
 			//menu already registered!
@@ -58,14 +67,64 @@ public class InventoryGuiHandler implements Listener {
 		}
 		
 		menus.put(player.getUniqueId(), menu);
-		//TODO puytting constant stuff here for future 'different inventory menu types' expansion
-		//just remove this stuff, put in specific subdivision of inv menu, and make constant method 
-		//like 'showMenu' etc
-		Bukkit.getPluginManager().registerEvents(menu, plugin);
 		player.openInventory(menu.getInventory());
 	}
 	
 	public void closeMenu(Player player) {
 		menus.remove(player.getUniqueId());
 	}
+	
+	/**
+	 * Finds the menu the player has open for the given inventory, if any
+	 */
+	private InventoryMenu getMenu(HumanEntity viewer, Inventory inventory) {
+		InventoryHolder holder = inventory.getHolder();
+		InventoryMenu menu;
+		if (holder instanceof MenuHolder) {
+			menu = ((MenuHolder) holder).getMenu();
+		} else {
+			//inventories we didn't create, like real furnaces
+			menu = menus.get(viewer.getUniqueId());
+			if (menu != null && (inventory.getName() == null
+					|| !inventory.getName().equals(menu.getInventory().getName()))) {
+				return null;
+			}
+		}
+		
+		if (menu == null || !viewer.getUniqueId().equals(menu.getPlayer().getPlayer().getUniqueId())) {
+			return null;
+		}
+		
+		return menu;
+	}
+	
+	@EventHandler
+	public void onInventoryClick(InventoryClickEvent e) {
+		if (e.isCancelled()) {
+			return;
+		}
+		
+		InventoryMenu menu = getMenu(e.getWhoClicked(), e.getInventory());
+		if (menu == null) {
+			return;
+		}
+		
+		menu.onInventoryInteract(e);
+	}
+	
+	@EventHandler
+	public void onInventoryClose(InventoryCloseEvent e) {
+		if (!(e.getPlayer() instanceof Player)) {
+			return;
+		}
+		
+		InventoryMenu menu = getMenu(e.getPlayer(), e.getInventory());
+		if (menu == null || menus.get(e.getPlayer().getUniqueId()) != menu) {
+			return;
+		}
+		
+		//our inventory is closing
+		closeMenu((Player) e.getPlayer());
+		menu.onInventoryClose(e);
+	}
 }
@@ -18,24 +18,24 @@
 
 package com.skyisland.questmanager.ui.menu;
 
-import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 
-import com.skyisland.questmanager.QuestManagerPlugin;
 import com.skyisland.questmanager.player.QuestPlayer;
+import com.skyisland.questmanager.ui.menu.action.MenuAction;
 import com.skyisland.questmanager.ui.menu.inventory.CloseableGui;
 import com.skyisland.questmanager.ui.menu.inventory.GuiInventory;
+import com.skyisland.questmanager.ui.menu.inventory.InventoryItem;
+import com.skyisland.questmanager.ui.menu.inventory.MenuHolder;
 
 /**
- * A menu implemented as an inventory
+ * A menu implemented as an inventory.
+ * Events are passed to the menu by the {@link com.skyisland.questmanager.ui.InventoryGuiHandler InventoryGuiHandler}
  *
  */
-public class InventoryMenu implements Listener {
+public class InventoryMenu {
 	
 	/**
 	 * The inventory item to hold onto an manipulate
@@ -51,11 +51,15 @@ public class InventoryMenu implements Listener {
 	 */
 	protected QuestPlayer player;
 	
+	/**
+	 * Items by raw slot, for {@link GuiInventory#isStatic() static} inventories. Null otherwise.
+	 */
+	private InventoryItem[] slots;
+	
 	public InventoryMenu(QuestPlayer player, GuiInventory inv) {
 		this.player = player;
 		this.gui = inv;
-		this.inventory = inv.getFormattedInventory(player);
-		
+		setInventory(inv.getFormattedInventory(player));
 	}
 	
 	public Inventory getInventory() {
@@ -64,6 +68,22 @@ public class InventoryMenu implements Listener {
 	
 	public void setInventory(Inventory inventory) {
 		this.inventory = inventory;
+		this.slots = null;
+		if (inventory == null) {
+			return;
+		}
+		
+		InventoryHolder holder = inventory.getHolder();
+		if (holder instanceof MenuHolder) {
+			((MenuHolder) holder).setMenu(this);
+		}
+		
+		if (gui.isStatic()) {
+			slots = new InventoryItem[inventory.getSize()];
+			for (int i = 0; i < slots.length; i++) {
+				slots[i] = gui.getItem(i, null);
+			}
+		}
 	}
 
 	/**
@@ -79,53 +99,41 @@ public class InventoryMenu implements Listener {
 	public void setPlayer(QuestPlayer player) {
 		this.player = player;
 	}
-
-	@EventHandler
+	
+	/**
+	 * Handles a click made by this menu's player while it's open
+	 */
 	public void onInventoryInteract(InventoryClickEvent e) {
-		if (e.isCancelled() || e.getInventory().getName() == null
-				|| !e.getInventory().getName().equals(inventory.getName())) {
-			return;
-		}
-		
-		if (!e.getWhoClicked().getUniqueId().equals(player.getPlayer().getUniqueId())) {
-			return;
-		}
-		
 		//our inventory event!
 		int pos = e.getRawSlot();
 
 		e.setCancelled(true);
-		if (gui.getItem(pos, e.getAction()) == null || gui.getItem(pos, e.getAction()).getAction(player) == null) {
-			return;
+		
+		InventoryItem item;
+		if (slots != null) {
+			item = (pos >= 0 && pos < slots.length) ? slots[pos] : null;
+		} else {
+			item = gui.getItem(pos, e.getAction());
 		}
 		
-		gui.getItem(pos, e.getAction()).getAction(player).onAction();
-	}
-	
-	@EventHandler
-	public void onInventoryClose(InventoryCloseEvent e) {
-		if (e.getInventory().getName() == null || !e.getInventory().getName().equals(inventory.getName())) {
+		if (item == null) {
 			return;
 		}
 		
-		if (!(e.getPlayer() instanceof Player) || !(((Player) e.getPlayer()).getUniqueId().equals(
-				player.getPlayer().getUniqueId()))) {
-			QuestManagerPlugin.logger.warning("Inventory menu event matched names,"
-					+ " but not players! [" + e.getPlayer().getName() + "]");
+		MenuAction action = item.getAction(player);
+		if (action == null) {
 			return;
 		}
 		
-
+		action.onAction();
+	}
+	
+	/**
+	 * Called when this menu's player closes it
+	 */
+	public void onInventoryClose(InventoryCloseEvent e) {
 		if (gui instanceof CloseableGui)  {
 			((CloseableGui) gui).onClose();
 		}
-		
-		//our inventory is closing
-		//unregister ourselves, unregister with handler, end
-		HandlerList.unregisterAll(this);
-		
-		
-		QuestManagerPlugin.questManagerPlugin.getInventoryGuiHandler().closeMenu((Player) e.getPlayer());
-		
 	}
 }
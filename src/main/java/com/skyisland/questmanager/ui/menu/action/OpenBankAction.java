@@ -0,0 +1,44 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.ui.menu.action;
+
+import com.skyisland.questmanager.QuestManagerPlugin;
+import com.skyisland.questmanager.player.QuestPlayer;
+
+/**
+ * Opens a player's account in a bank. The bank's inventory is only fetched when
+ * the action is taken, and the bank manager keeps it in sync from then on.
+ *
+ */
+public class OpenBankAction implements MenuAction {
+	
+	private String bankKey;
+	
+	private QuestPlayer player;
+	
+	public OpenBankAction(String bankKey, QuestPlayer player) {
+		this.bankKey = bankKey;
+		this.player = player;
+	}
+
+	@Override
+	public void onAction() {
+		QuestManagerPlugin.questManagerPlugin.getBankManager().openBank(bankKey, player);
+	}
+}
@@ -105,7 +105,7 @@ public class BasicInventory extends GuiInventory {
 		
 		Player p = player.getPlayer().getPlayer();
 		
-		Inventory inv = Bukkit.createInventory(p, 45, p.getName() + "_qbi");
+		Inventory inv = Bukkit.createInventory(new MenuHolder(), 45, p.getName() + "_qbi");
 		if (!items.isEmpty()) {
 			for (Entry<Integer, BasicInventoryItem> e : items.entrySet()) {
 				Object key = e.getKey();
@@ -213,4 +213,9 @@ public class BasicInventory extends GuiInventory {
 	public InventoryItem getItem(int pos, InventoryAction action) {
 		return items.get(pos);
 	}
+	
+	@Override
+	public boolean isStatic() {
+		return true;
+	}
 }
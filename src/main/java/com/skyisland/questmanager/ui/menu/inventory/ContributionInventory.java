@@ -96,11 +96,9 @@ public class ContributionInventory extends GuiInventory {
 			return;
 		}
 		
-		Player p = player.getPlayer().getPlayer();
-		
 		slots = 9 * ((int) Math.ceil((double) (maxItems + 1) / 9.0));
 		
-		this.inv = Bukkit.createInventory(p, slots, invName);
+		this.inv = Bukkit.createInventory(new MenuHolder(), slots, invName);
 		if (!items.isEmpty()) {
 			for (Entry<Integer, ItemStack> e : items.entrySet()) {
 				int val = e.getKey();
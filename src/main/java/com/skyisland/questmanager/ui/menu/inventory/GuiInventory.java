@@ -34,5 +34,18 @@ public abstract class GuiInventory implements ConfigurationSerializable {
 	
 	public abstract InventoryItem getItem(int pos, InventoryAction action);
 	
+	/**
+	 * Whether {@link #getItem(int, InventoryAction)} always gives the same item for a slot, whatever
+	 * the action. Menus look up the items of static inventories once, when they're opened, instead
+	 * of on every click.
+	 * <p>
+	 * Inventories that change as they're used, or that react to being clicked inside getItem,
+	 * must not be static.
+	 * </p>
+	 */
+	public boolean isStatic() {
+		return false;
+	}
+	
 	public abstract Inventory getFormattedInventory(QuestPlayer player);
 }
@@ -0,0 +1,58 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.ui.menu.inventory;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import com.skyisland.questmanager.ui.menu.InventoryMenu;
+
+/**
+ * Holder for inventories made by {@link GuiInventory GuiInventories}.
+ * Lets the {@link com.skyisland.questmanager.ui.InventoryGuiHandler InventoryGuiHandler} find the
+ * menu an inventory event belongs to straight from the event's inventory.
+ * <p>
+ * A new holder should be made for every inventory created. It's bound to its menu once the
+ * menu is made.
+ * </p>
+ */
+public class MenuHolder implements InventoryHolder {
+	
+	private InventoryMenu menu;
+	
+	public MenuHolder() {
+		this.menu = null;
+	}
+	
+	/**
+	 * @return the menu showing this holder's inventory, or null if it isn't shown yet
+	 */
+	public InventoryMenu getMenu() {
+		return menu;
+	}
+	
+	public void setMenu(InventoryMenu menu) {
+		this.menu = menu;
+	}
+
+	@Override
+	public Inventory getInventory() {
+		return menu == null ? null : menu.getInventory();
+	}
+}
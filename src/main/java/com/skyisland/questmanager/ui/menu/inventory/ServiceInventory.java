@@ -96,7 +96,7 @@ public class ServiceInventory extends GuiInventory {
 		
 		Player p = player.getPlayer().getPlayer();
 		
-		Inventory inv = Bukkit.createInventory(p, 45, p.getName() + "_qsr");
+		Inventory inv = Bukkit.createInventory(new MenuHolder(), 45, p.getName() + "_qsr");
 		if (!items.isEmpty()) {
 			for (Entry<Integer, ServiceItem> e : items.entrySet()) {
 				Object key = e.getKey();
@@ -182,4 +182,9 @@ public class ServiceInventory extends GuiInventory {
 	public InventoryItem getItem(int pos, InventoryAction action) {
 		return items.get(pos);
 	}
+	
+	@Override
+	public boolean isStatic() {
+		return true;
+	}
 }
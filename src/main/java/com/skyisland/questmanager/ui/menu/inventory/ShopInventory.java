@@ -93,7 +93,7 @@ public class ShopInventory extends GuiInventory {
 		
 		Player p = player.getPlayer().getPlayer();
 		
-		Inventory inv = Bukkit.createInventory(p, 45, p.getName() + "_qsh");
+		Inventory inv = Bukkit.createInventory(new MenuHolder(), 45, p.getName() + "_qsh");
 		if (!items.isEmpty()) {
 			for (Entry<Integer, ShopItem> e : items.entrySet()) {
 				Object key = e.getKey();
@@ -208,4 +208,9 @@ public class ShopInventory extends GuiInventory {
 	public InventoryItem getItem(int pos, InventoryAction action) {
 		return items.get(pos);
 	}
+	
+	@Override
+	public boolean isStatic() {
+		return true;
+	}
 }
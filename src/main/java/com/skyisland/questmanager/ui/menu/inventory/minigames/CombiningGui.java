@@ -48,6 +48,7 @@ import com.skyisland.questmanager.player.skill.defaults.CookingSkill;
 import com.skyisland.questmanager.player.skill.defaults.CookingSkill.CombineRecipe;
 import com.skyisland.questmanager.ui.menu.inventory.GuiInventory;
 import com.skyisland.questmanager.ui.menu.inventory.InventoryItem;
+import com.skyisland.questmanager.ui.menu.inventory.MenuHolder;
 
 public class CombiningGui extends GuiInventory {
 	
@@ -85,7 +86,7 @@ public class CombiningGui extends GuiInventory {
 	
 	public CombiningGui(Player player, String name) {
 		this.player = player;
-		this.inv = Bukkit.createInventory(player, InventoryType.BREWING, name);
+		this.inv = Bukkit.createInventory(new MenuHolder(), InventoryType.BREWING, name);
 		
 		inv.setItem(4, COMBINE_ICON);
 		
@@ -45,6 +45,7 @@ import com.skyisland.questmanager.player.skill.defaults.FashioningSkill;
 import com.skyisland.questmanager.player.skill.defaults.FashioningSkill.FashioningRecipe;
 import com.skyisland.questmanager.ui.menu.inventory.GuiInventory;
 import com.skyisland.questmanager.ui.menu.inventory.InventoryItem;
+import com.skyisland.questmanager.ui.menu.inventory.MenuHolder;
 
 public class FashioningGui extends GuiInventory {
 	
@@ -79,7 +80,7 @@ public class FashioningGui extends GuiInventory {
 			return;
 		}
 		this.player = player;
-		this.inv = Bukkit.createInventory(player, InventoryType.ANVIL, name);
+		this.inv = Bukkit.createInventory(new MenuHolder(), InventoryType.ANVIL, name);
 		this.skillLink = skill;
 	}
 	
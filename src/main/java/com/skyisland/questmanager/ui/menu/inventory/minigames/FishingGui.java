@@ -49,6 +49,7 @@ import com.skyisland.questmanager.scheduling.Alarmable;
 import com.skyisland.questmanager.ui.menu.inventory.CloseableGui;
 import com.skyisland.questmanager.ui.menu.inventory.GuiInventory;
 import com.skyisland.questmanager.ui.menu.inventory.InventoryItem;
+import com.skyisland.questmanager.ui.menu.inventory.MenuHolder;
 
 public class FishingGui extends GuiInventory implements Alarmable<Integer>, CloseableGui {
 	
@@ -277,7 +278,7 @@ public class FishingGui extends GuiInventory implements Alarmable<Integer>, Clos
 		this.phase = GamePhase.SETTINGUP;
 		
 		int size = 9 * (this.waterRows);
-		this.inv = Bukkit.createInventory(null, size, invName);
+		this.inv = Bukkit.createInventory(new MenuHolder(), size, invName);
 		
 	}
 	
@@ -56,6 +56,7 @@ import com.skyisland.questmanager.scheduling.Alarmable;
 import com.skyisland.questmanager.ui.menu.inventory.CloseableGui;
 import com.skyisland.questmanager.ui.menu.inventory.GuiInventory;
 import com.skyisland.questmanager.ui.menu.inventory.InventoryItem;
+import com.skyisland.questmanager.ui.menu.inventory.MenuHolder;
 
 public class MiningGui extends GuiInventory implements Alarmable<Integer>, CloseableGui {
 	
@@ -202,7 +203,7 @@ public class MiningGui extends GuiInventory implements Alarmable<Integer>, Close
 		BlockMaterial.ORE.setIcon(oreIcon);
 				
 		int size = 9 * this.depth;
-		this.inv = Bukkit.createInventory(null, size, invName);
+		this.inv = Bukkit.createInventory(new MenuHolder(), size, invName);
 		
 		this.gameState = State.STOPPED;
 		
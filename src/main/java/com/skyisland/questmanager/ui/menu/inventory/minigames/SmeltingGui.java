@@ -52,6 +52,7 @@ import com.skyisland.questmanager.scheduling.Alarmable;
 import com.skyisland.questmanager.ui.menu.inventory.CloseableGui;
 import com.skyisland.questmanager.ui.menu.inventory.GuiInventory;
 import com.skyisland.questmanager.ui.menu.inventory.InventoryItem;
+import com.skyisland.questmanager.ui.menu.inventory.MenuHolder;
 
 public class SmeltingGui extends GuiInventory implements Alarmable<Integer>, CloseableGui {
 	
@@ -182,7 +183,7 @@ public class SmeltingGui extends GuiInventory implements Alarmable<Integer>, Clo
 		this.slagSlots = new LinkedList<>();
 				
 		int size = 9 * this.rows;
-		this.inv = Bukkit.createInventory(null, size, invName);
+		this.inv = Bukkit.createInventory(new MenuHolder(), size, invName);
 		
 		this.gameState = State.STOPPED;
 		
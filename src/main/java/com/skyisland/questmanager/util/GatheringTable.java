@@ -0,0 +1,296 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.bukkit.Location;
+
+import com.skyisland.questmanager.region.Region;
+
+/**
+ * Table of records a gathering skill can hand out, each with a difficulty and a weight, and
+ * optionally restricted to a region.
+ * <p>
+ * Records are kept sorted by difficulty, with one bucket for unrestricted records and one for
+ * each region. A difficulty window is found in a bucket by binary search, and a record is picked
+ * from the window by weight, so a pick takes logarithmic time and allocates nothing. The buckets
+ * are rebuilt the next time something is picked after the table has been changed.
+ * </p>
+ *
+ * @param <T> The type of record in the table
+ */
+public class GatheringTable<T> {
+	
+	private static final class Entry {
+		
+		private final Object record;
+		
+		private final int difficulty;
+		
+		private final double weight;
+		
+		private final Region region;
+		
+		private Entry(Object record, int difficulty, double weight, Region region) {
+			this.record = record;
+			this.difficulty = difficulty;
+			this.weight = weight;
+			this.region = region;
+		}
+	}
+	
+	/**
+	 * Records sharing a region, sorted by difficulty
+	 */
+	private static final class Bucket {
+		
+		/**
+		 * The region these records are restricted to, or null if they aren't
+		 */
+		private final Region region;
+		
+		private final int[] difficulties;
+		
+		private final Object[] records;
+		
+		/**
+		 * Sum of the weights of every record before each index. One longer than the records.
+		 */
+		private final double[] cumulative;
+		
+		private Bucket(Region region, List<Entry> entries) {
+			entries.sort((a, b) -> Integer.compare(a.difficulty, b.difficulty));
+			this.region = region;
+			this.difficulties = new int[entries.size()];
+			this.records = new Object[entries.size()];
+			this.cumulative = new double[entries.size() + 1];
+			
+			for (int i = 0; i < entries.size(); i++) {
+				Entry entry = entries.get(i);
+				difficulties[i] = entry.difficulty;
+				records[i] = entry.record;
+				cumulative[i + 1] = cumulative[i] + entry.weight;
+			}
+		}
+		
+		/**
+		 * @return the first index with a difficulty of at least the given one
+		 */
+		private int lowerBound(int difficulty) {
+			int low = 0, high = difficulties.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (difficulties[mid] < difficulty) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			
+			return low;
+		}
+		
+		/**
+		 * @return the first index with a difficulty above the given one
+		 */
+		private int upperBound(int difficulty) {
+			int low = 0, high = difficulties.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (difficulties[mid] <= difficulty) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			
+			return low;
+		}
+		
+		private boolean applies(Location location) {
+			return region == null || (location != null && region.isIn(location));
+		}
+		
+		private double getWeight(int minDifficulty, int maxDifficulty) {
+			return cumulative[upperBound(maxDifficulty)] - cumulative[lowerBound(minDifficulty)];
+		}
+		
+		/**
+		 * Picks the record in the window the given weight falls on
+		 * @param offset How far into the window's weight the pick lands
+		 */
+		private Object pick(int minDifficulty, int maxDifficulty, double offset) {
+			int first = lowerBound(minDifficulty), end = upperBound(maxDifficulty);
+			double target = cumulative[first] + offset;
+			
+			//find the first record whose weight reaches past the target
+			int low = first, high = end - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (cumulative[mid + 1] > target) {
+					high = mid;
+				} else {
+					low = mid + 1;
+				}
+			}
+			
+			return records[low];
+		}
+	}
+	
+	private List<Entry> entries;
+	
+	private Bucket[] buckets;
+	
+	/**
+	 * Whether the buckets need to be rebuilt before the next pick
+	 */
+	private boolean dirty;
+	
+	private Random rand;
+	
+	public GatheringTable() {
+		this.entries = new ArrayList<>();
+		this.buckets = new Bucket[0];
+		this.dirty = false;
+		this.rand = new Random();
+	}
+	
+	/**
+	 * Adds an unrestricted record with a weight of 1
+	 */
+	public void add(T record, int difficulty) {
+		add(record, difficulty, 1.0, null);
+	}
+	
+	/**
+	 * Adds a record to the table.
+	 * @param region The only region the record can be found in, or null if it can be found anywhere
+	 * @throws IllegalArgumentException if the weight is negative or not a number
+	 */
+	public void add(T record, int difficulty, double weight, Region region) {
+		if (weight < 0 || Double.isNaN(weight)) {
+			throw new IllegalArgumentException("Weight must be a non-negative number: " + weight);
+		}
+		
+		entries.add(new Entry(record, difficulty, weight, region));
+		dirty = true;
+	}
+	
+	public void clear() {
+		entries.clear();
+		buckets = new Bucket[0];
+		dirty = false;
+	}
+	
+	public int size() {
+		return entries.size();
+	}
+	
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+	
+	/**
+	 * Picks a random record with a difficulty between the two given (inclusive), by weight.
+	 * Region-restricted records are only considered if they're in a region holding the location.
+	 * @param location Where the record is being gathered, or null to only consider unrestricted records
+	 * @return a record, or null if none fit
+	 */
+	@SuppressWarnings("unchecked")
+	public T getRandom(int minDifficulty, int maxDifficulty, Location location) {
+		if (dirty) {
+			build();
+		}
+		
+		if (minDifficulty > maxDifficulty) {
+			return null;
+		}
+		
+		double total = 0;
+		for (Bucket bucket : buckets) {
+			if (bucket.applies(location)) {
+				total += bucket.getWeight(minDifficulty, maxDifficulty);
+			}
+		}
+		
+		if (total <= 0) {
+			return null;
+		}
+		
+		double offset = rand.nextDouble() * total;
+		Bucket last = null;
+		double lastWeight = 0;
+		for (Bucket bucket : buckets) {
+			if (!bucket.applies(location)) {
+				continue;
+			}
+			
+			double weight = bucket.getWeight(minDifficulty, maxDifficulty);
+			if (weight <= 0) {
+				continue;
+			}
+			
+			if (offset < weight) {
+				return (T) bucket.pick(minDifficulty, maxDifficulty, offset);
+			}
+			
+			offset -= weight;
+			last = bucket;
+			lastWeight = weight;
+		}
+		
+		//rounding carried us past the end; take the last record
+		return (T) last.pick(minDifficulty, maxDifficulty, Math.nextDown(lastWeight));
+	}
+	
+	private void build() {
+		Map<Region, List<Entry>> byRegion = new IdentityHashMap<>();
+		List<Entry> unrestricted = new ArrayList<>();
+		for (Entry entry : entries) {
+			if (entry.region == null) {
+				unrestricted.add(entry);
+				continue;
+			}
+			
+			List<Entry> list = byRegion.get(entry.region);
+			if (list == null) {
+				list = new ArrayList<>();
+				byRegion.put(entry.region, list);
+			}
+			list.add(entry);
+		}
+		
+		List<Bucket> built = new ArrayList<>(byRegion.size() + 1);
+		if (!unrestricted.isEmpty()) {
+			built.add(new Bucket(null, unrestricted));
+		}
+		for (Map.Entry<Region, List<Entry>> e : byRegion.entrySet()) {
+			built.add(new Bucket(e.getKey(), e.getValue()));
+		}
+		
+		buckets = built.toArray(new Bucket[built.size()]);
+		dirty = false;
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ *  QuestManager: An RPG plugin for the Bukkit API.
+ *  Copyright (C) 2015-2016 Github Contributors
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.skyisland.questmanager.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * A flat polygon on the x-z plane, stretched vertically between the lowest and highest of the
+ * points it was made from.
+ * <p>
+ * Containment uses the even-odd rule, so the points don't need to make a convex shape. Entity
+ * lookups only visit the loaded chunks under the polygon's bounding box, and blocks are listed
+ * by scanline, one row of blocks at a time.
+ * </p>
+ */
+public final class Polygon {
+	
+	private final World world;
+	
+	private final double[] xs, zs;
+	
+	private final double minX, maxX, minY, maxY, minZ, maxZ;
+	
+	/**
+	 * Creates a polygon with the given corners, in the order given.
+	 * The polygon is in the first point's world.
+	 * @throws IllegalArgumentException if no points are given
+	 */
+	public Polygon(List<Location> points) {
+		if (points == null || points.isEmpty()) {
+			throw new IllegalArgumentException("A polygon needs at least one point");
+		}
+		
+		this.world = points.get(0).getWorld();
+		this.xs = new double[points.size()];
+		this.zs = new double[points.size()];
+		
+		double lx = Double.MAX_VALUE, ly = Double.MAX_VALUE, lz = Double.MAX_VALUE,
+				mx = -Double.MAX_VALUE, my = -Double.MAX_VALUE, mz = -Double.MAX_VALUE;
+		int i = 0;
+		for (Location point : points) {
+			xs[i] = point.getX();
+			zs[i] = point.getZ();
+			i++;
+			
+			lx = Math.min(lx, point.getX());
+			ly = Math.min(ly, point.getY());
+			lz = Math.min(lz, point.getZ());
+			mx = Math.max(mx, point.getX());
+			my = Math.max(my, point.getY());
+			mz = Math.max(mz, point.getZ());
+		}
+		
+		this.minX = lx;
+		this.minY = ly;
+		this.minZ = lz;
+		this.maxX = mx;
+		this.maxY = my;
+		this.maxZ = mz;
+	}
+	
+	/**
+	 * Creates a polygon from the points sorted by their angle around their center. This gives a
+	 * simple (non self-intersecting) shape no matter what order the points are in.
+	 */
+	public static Polygon around(List<Location> points) {
+		if (points == null || points.isEmpty()) {
+			return new Polygon(points);
+		}
+		
+		double cx = 0, cz = 0;
+		for (Location point : points) {
+			cx += point.getX();
+			cz += point.getZ();
+		}
+		final double centerX = cx / points.size(), centerZ = cz / points.size();
+		
+		List<Location> sorted = new ArrayList<>(points);
+		sorted.sort((o1, o2) -> Double.compare(
+				Math.atan2(o1.getZ() - centerZ, o1.getX() - centerX),
+				Math.atan2(o2.getZ() - centerZ, o2.getX() - centerX)));
+		
+		return new Polygon(sorted);
+	}
+	
+	public World getWorld() {
+		return world;
+	}
+	
+	/**
+	 * Checks whether the point falls inside the polygon on the x-z plane, by the even-odd rule.
+	 * Height is not considered.
+	 */
+	public boolean contains(double x, double z) {
+		if (x < minX || x > maxX || z < minZ || z > maxZ) {
+			return false;
+		}
+		
+		boolean inside = false;
+		for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+			if ((zs[i] > z) != (zs[j] > z)
+					&& x < xs[i] + (z - zs[i]) * (xs[j] - xs[i]) / (zs[j] - zs[i])) {
+				inside = !inside;
+			}
+		}
+		
+		return inside;
+	}
+	
+	/**
+	 * Returns the entities standing inside the polygon. Only loaded chunks are searched.
+	 */
+	public List<Entity> getEntities() {
+		List<Entity> list = new ArrayList<>();
+		if (world == null) {
+			return list;
+		}
+		
+		Location scratch = new Location(world, 0, 0, 0);
+		int maxChunkX = ((int) Math.floor(maxX)) >> 4, maxChunkZ = ((int) Math.floor(maxZ)) >> 4;
+		for (int cx = ((int) Math.floor(minX)) >> 4; cx <= maxChunkX; cx++)
+		for (int cz = ((int) Math.floor(minZ)) >> 4; cz <= maxChunkZ; cz++) {
+			if (!world.isChunkLoaded(cx, cz)) {
+				continue;
+			}
+			
+			for (Entity entity : world.getChunkAt(cx, cz).getEntities()) {
+				entity.getLocation(scratch);
+				if (contains(scratch.getX(), scratch.getZ())) {
+					list.add(entity);
+				}
+			}
+		}
+		
+		return list;
+	}
+	
+	/**
+	 * Returns the location of every block whose center is inside the polygon, on every layer
+	 * from the lowest to the highest corner.
+	 */
+	public List<Location> getBlocks() {
+		List<Location> list = new ArrayList<>();
+		if (world == null || xs.length < 3) {
+			return list;
+		}
+		
+		int lowY = (int) Math.floor(minY), highY = (int) Math.floor(maxY);
+		double[] crossings = new double[xs.length];
+		int count;
+		double rowZ;
+		
+		for (int z = (int) Math.floor(minZ); z <= (int) Math.floor(maxZ); z++) {
+			//find where the row through the block centers crosses the edges, as in contains()
+			rowZ = z + .5;
+			count = 0;
+			for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+				if ((zs[i] > rowZ) != (zs[j] > rowZ)) {
+					crossings[count++] = xs[i] + (rowZ - zs[i]) * (xs[j] - xs[i]) / (zs[j] - zs[i]);
+				}
+			}
+			
+			Arrays.sort(crossings, 0, count);
+			
+			//blocks with centers in [crossings[k], crossings[k + 1]) are inside, for even k
+			for (int k = 0; k + 1 < count; k += 2) {
+				int endX = (int) Math.ceil(crossings[k + 1] - .5);
+				for (int x = (int) Math.ceil(crossings[k] - .5); x < endX; x++)
+				for (int y = lowY; y <= highY; y++) {
+					list.add(new Location(world, x, y, z));
+				}
+			}
+		}
+		
+		return list;
+	}
+}
@@ -18,112 +18,276 @@
 
 package com.skyisland.questmanager.util;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Random;
 import java.util.Set;
 
 /**
  * Stores a list of items associated with a weight.
  * This list is designed to be used to pull out RANDOM elements, and not for simple traversal.
+ * <p>
+ * Random picks are made with an alias table (Vose's method), so {@link #getRandom()} takes the same
+ * time no matter how many elements are stored. The table is rebuilt the next time something is
+ * picked after the list has been changed.
+ * </p>
  *
  * @param <T> The type of the elements of the weighted list.
  */
 public class WeightedList<T>  {
 	
-	private static class Item<E> {
-		private E o;
-		
-		private Double weight;
-		
-		public Item(E o, Double weight) {
-			this.o = o;
-			this.weight = weight;;
-		}
-		
-		public E getObject() {
-			return o;
-		}
-		
-		public Double getWeight() {
-			return weight;
-		}
-	}
+	private static final int DEFAULT_CAPACITY = 8;
+	
+	private Object[] elements;
+	
+	private double[] weights;
+	
+	private int size;
 	
-	private List<Item<T>> list;
+	private double totalWeight;
+	
+	/**
+	 * Chance to keep the rolled column rather than take its alias
+	 */
+	private double[] probability;
+	
+	private int[] alias;
+	
+	/**
+	 * Whether the alias table needs to be rebuilt before the next pick
+	 */
+	private boolean dirty;
+	
+	private Set<T> elementView;
 	
 	private Random rand;
 	
 	public WeightedList() {
-		this.list = new LinkedList<>();
+		this.elements = new Object[DEFAULT_CAPACITY];
+		this.weights = new double[DEFAULT_CAPACITY];
+		this.size = 0;
+		this.totalWeight = 0;
+		this.dirty = true;
 		rand = new Random();
 	}
 	
 	/**
 	 * Adds an element to the list.
 	 * <b>Note:</b> This method does not detect or avoid duplicates in any way.
+	 * @throws IllegalArgumentException if the weight is negative or not a number
 	 */
-	public void add(T object, Double weight) {
-		list.add(new Item<>(object, weight));
+	public void add(T object, double weight) {
+		checkWeight(weight);
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, size * 2);
+			weights = Arrays.copyOf(weights, size * 2);
+		}
+		
+		elements[size] = object;
+		weights[size] = weight;
+		size++;
+		totalWeight += weight;
+		changed(true);
+	}
+	
+	/**
+	 * Changes the weight of every entry of the given object.
+	 * @return false if the object isn't in the list, true otherwise
+	 * @throws IllegalArgumentException if the weight is negative or not a number
+	 */
+	public boolean setWeight(T object, double weight) {
+		checkWeight(weight);
+		boolean found = false;
+		for (int i = 0; i < size; i++) {
+			if (matches(i, object)) {
+				weights[i] = weight;
+				found = true;
+			}
+		}
+		
+		if (found) {
+			recountWeight();
+			changed(false);
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Returns the weight of the first entry of the given object, or 0 if it isn't in the list
+	 */
+	public double getWeight(T object) {
+		for (int i = 0; i < size; i++) {
+			if (matches(i, object)) {
+				return weights[i];
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Removes every entry of the given object.
+	 * @return true if anything was removed
+	 */
+	public boolean remove(T object) {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (matches(i, object)) {
+				continue;
+			}
+			
+			elements[kept] = elements[i];
+			weights[kept] = weights[i];
+			kept++;
+		}
+		
+		if (kept == size) {
+			return false;
+		}
+		
+		Arrays.fill(elements, kept, size, null);
+		size = kept;
+		recountWeight();
+		changed(true);
+		return true;
 	}
 	
 	/**
 	 * Attempts to grab a RANDOM entry in the list (based on their weight) and reutrn it.
-	 * @return <i>null</i> on error or if the list is empty, an object stored otherwise
+	 * @return <i>null</i> if the list is empty or has no weight, an object stored otherwise
 	 */
+	@SuppressWarnings("unchecked")
 	public T getRandom() {
-		if (list.isEmpty()) {
+		if (size == 0 || totalWeight <= 0) {
 			return null;
 		}
 		
-		double max = 0;
-		
-		for (Item<T> i : list) {
-			max += i.getWeight();
+		if (dirty) {
+			buildTable();
 		}
 		
-		double index = rand.nextDouble() * max;
-		max = 0;
-
-		for (Item<T> i : list) {
-			max += i.getWeight();
-
-			if (max >= index) {
-				return i.getObject();
-			}
+		int column = rand.nextInt(size);
+		if (rand.nextDouble() < probability[column]) {
+			return (T) elements[column];
 		}
 		
-		//if we get here, something went wrong
-		return null;
+		return (T) elements[alias[column]];
 	}
 	
 	/**
 	 * Returns all elements stored in this list, without their associated weights.
+	 * The returned set can't be modified, and is shared until the list changes.
 	 */
+	@SuppressWarnings("unchecked")
 	public Set<T> getElements() {
-		Set<T> set = new HashSet<>();
-		
-		for (Item<T> i : list) {
-			set.add(i.getObject());
+		if (elementView == null) {
+			Set<T> set = new LinkedHashSet<>();
+			for (int i = 0; i < size; i++) {
+				set.add((T) elements[i]);
+			}
+			
+			elementView = Collections.unmodifiableSet(set);
 		}
 		
-		return set;
+		return elementView;
 	}
 	
 	public void clear() {
-		if (list.isEmpty()) {
+		if (size == 0) {
 			return;
 		}
 		
-		for (Item<T> item : list) {
-			item.o = null;
+		Arrays.fill(elements, 0, size, null);
+		size = 0;
+		totalWeight = 0;
+		changed(true);
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Builds the alias table using Vose's method. Every column is split between at most two
+	 * elements: itself, with chance <i>probability</i>, and its alias otherwise.
+	 */
+	private void buildTable() {
+		if (probability == null || probability.length < size) {
+			probability = new double[elements.length];
+			alias = new int[elements.length];
+		}
+		
+		int[] small = new int[size], large = new int[size];
+		int smallCount = 0, largeCount = 0;
+		double[] scaled = new double[size];
+		
+		for (int i = 0; i < size; i++) {
+			scaled[i] = weights[i] * size / totalWeight;
+			if (scaled[i] < 1.0) {
+				small[smallCount++] = i;
+			} else {
+				large[largeCount++] = i;
+			}
+		}
+		
+		int less, more;
+		while (smallCount > 0 && largeCount > 0) {
+			less = small[--smallCount];
+			more = large[--largeCount];
+			
+			probability[less] = scaled[less];
+			alias[less] = more;
+			
+			scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+			if (scaled[more] < 1.0) {
+				small[smallCount++] = more;
+			} else {
+				large[largeCount++] = more;
+			}
+		}
+		
+		//whatever's left is within rounding error of 1
+		while (largeCount > 0) {
+			more = large[--largeCount];
+			probability[more] = 1.0;
+			alias[more] = more;
+		}
+		while (smallCount > 0) {
+			less = small[--smallCount];
+			probability[less] = 1.0;
+			alias[less] = less;
 		}
 		
-		list.clear();
+		dirty = false;
 	}
 	
-	public boolean isEmpty() {
-		return list.isEmpty();
+	private void recountWeight() {
+		totalWeight = 0;
+		for (int i = 0; i < size; i++) {
+			totalWeight += weights[i];
+		}
+	}
+	
+	private boolean matches(int index, T object) {
+		return (object == null ? elements[index] == null : object.equals(elements[index]));
+	}
+	
+	private void changed(boolean elementsChanged) {
+		dirty = true;
+		if (elementsChanged) {
+			elementView = null;
+		}
+	}
+	
+	private static void checkWeight(double weight) {
+		if (weight < 0 || Double.isNaN(weight)) {
+			throw new IllegalArgumentException("Weight must be a non-negative number: " + weight);
+		}
 	}
 }